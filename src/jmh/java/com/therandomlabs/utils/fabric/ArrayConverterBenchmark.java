@@ -0,0 +1,153 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric;
+
+import java.lang.reflect.Array;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the {@link ArrayConverter}s that back {@link FabricUtils#toPrimitiveArray(Object[])}
+ * and {@link FabricUtils#toBoxedArray(Object)} for all eight primitive types.
+ * <p>
+ * {@link FabricUtils} itself cannot be initialized outside of a launched Fabric Loader,
+ * so the converters are called directly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ArrayConverterBenchmark {
+	@Param({"boolean", "byte", "char", "double", "float", "int", "long", "short"})
+	public String type;
+
+	@Param({"16", "1024", "65536"})
+	public int size;
+
+	private ArrayConverter converter;
+	private Object primitiveArray;
+	private Object[] boxedArray;
+	private Object primitiveDestination;
+	private Object[] boxedDestination;
+
+	@Setup
+	public void setup() {
+		final Class<?> primitiveType = getPrimitiveType(type);
+		converter = ArrayConverter.forComponentType(primitiveType);
+		primitiveArray = Array.newInstance(primitiveType, size);
+
+		for (int i = 0; i < size; i++) {
+			setElement(primitiveType, i);
+		}
+
+		boxedArray = converter.toBoxedArray(primitiveArray);
+		primitiveDestination = Array.newInstance(primitiveType, size);
+		boxedDestination = (Object[]) Array.newInstance(converter.getBoxedType(), size);
+	}
+
+	@Benchmark
+	public Object toPrimitiveArray() {
+		return converter.toPrimitiveArray(boxedArray);
+	}
+
+	@Benchmark
+	public Object toPrimitiveArrayWithDestination() {
+		converter.toPrimitiveArray(boxedArray, primitiveDestination);
+		return primitiveDestination;
+	}
+
+	@Benchmark
+	public Object[] toBoxedArray() {
+		return converter.toBoxedArray(primitiveArray);
+	}
+
+	@Benchmark
+	public Object[] toBoxedArrayWithDestination() {
+		converter.toBoxedArray(primitiveArray, boxedDestination);
+		return boxedDestination;
+	}
+
+	//This is the generic approach that ArrayConverter replaces.
+	@Benchmark
+	public Object toPrimitiveArrayReflective() {
+		final Object array = Array.newInstance(converter.getPrimitiveType(), boxedArray.length);
+
+		for (int i = 0; i < boxedArray.length; i++) {
+			Array.set(array, i, boxedArray[i]);
+		}
+
+		return array;
+	}
+
+	private void setElement(Class<?> primitiveType, int index) {
+		if (primitiveType == boolean.class) {
+			Array.setBoolean(primitiveArray, index, index % 2 == 0);
+		} else if (primitiveType == byte.class) {
+			Array.setByte(primitiveArray, index, (byte) index);
+		} else if (primitiveType == char.class) {
+			Array.setChar(primitiveArray, index, (char) index);
+		} else if (primitiveType == short.class) {
+			Array.setShort(primitiveArray, index, (short) index);
+		} else {
+			//int can be widened to int, long, float and double.
+			Array.setInt(primitiveArray, index, index);
+		}
+	}
+
+	private static Class<?> getPrimitiveType(String name) {
+		switch (name) {
+			case "boolean":
+				return boolean.class;
+			case "byte":
+				return byte.class;
+			case "char":
+				return char.class;
+			case "double":
+				return double.class;
+			case "float":
+				return float.class;
+			case "int":
+				return int.class;
+			case "long":
+				return long.class;
+			case "short":
+				return short.class;
+			default:
+				throw new IllegalArgumentException("Invalid primitive type: " + name);
+		}
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks path normalization as performed by
+ * {@link FabricUtils#withUnixDirectorySeparators(String)} on every path in a directory tree,
+ * and rescanning an unmodified tree using {@link DirectoryIndex}, which normalizes each path
+ * once, compared to walking the tree and normalizing every path again.
+ * <p>
+ * {@link FabricUtils} itself cannot be initialized outside of a launched Fabric Loader,
+ * so the body of {@link FabricUtils#withUnixDirectorySeparators(String)} is called directly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DirectoryIndexBenchmark {
+	private static final int FILES_PER_DIRECTORY = 50;
+
+	@Param({"100", "2000", "50000"})
+	public int files;
+
+	private Path root;
+	private List<Path> paths;
+	private DirectoryIndex index;
+
+	@Setup
+	public void setup() throws IOException {
+		root = Files.createTempDirectory("trlutils-fabric-benchmark");
+
+		for (int i = 0; i < files; i++) {
+			final Path directory = root.resolve("directory_" + i / FILES_PER_DIRECTORY);
+			Files.createDirectories(directory);
+			Files.createFile(directory.resolve("file_" + i + ".json"));
+		}
+
+		try (Stream<Path> stream = Files.walk(root)) {
+			paths = stream.collect(Collectors.toCollection(ArrayList::new));
+		}
+
+		index = DirectoryIndex.get(root);
+		index.scan();
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		try (Stream<Path> stream = Files.walk(root)) {
+			final Path[] sortedPaths =
+					stream.sorted(Comparator.reverseOrder()).toArray(Path[]::new);
+
+			for (Path path : sortedPaths) {
+				Files.deleteIfExists(path);
+			}
+		}
+	}
+
+	@Benchmark
+	public int withUnixDirectorySeparators() {
+		int length = 0;
+
+		for (Path path : paths) {
+			length += root.relativize(path).toString().replace('\\', '/').length();
+		}
+
+		return length;
+	}
+
+	@Benchmark
+	public List<DirectoryIndex.Entry> rescan() {
+		return index.scan();
+	}
+
+	//This is how directory trees were listed before DirectoryIndex was introduced.
+	@Benchmark
+	public List<String> walk() throws IOException {
+		try (Stream<Path> stream = Files.walk(root)) {
+			return stream.skip(1L).
+					map(path -> root.relativize(path).toString().replace('\\', '/')).
+					collect(Collectors.toList());
+		}
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntBinaryOperator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the invokers created by {@link InvokerFactory}, which back
+ * {@link FabricUtils#createInvoker(Class, Class, String, String, Class[])}, compared to
+ * {@link Method#invoke(Object, Object...)} and a constant {@link MethodHandle}.
+ * <p>
+ * A public method is called through a class generated by
+ * {@link java.lang.invoke.LambdaMetafactory}. A private method is called through the same kind
+ * of class on Java 9 and newer, and through a {@link java.lang.invoke.MethodHandleProxies}
+ * proxy on Java 8, so the results for it depend on the Java version used to run the benchmarks.
+ * <p>
+ * {@link FabricUtils} itself cannot be initialized outside of a launched Fabric Loader,
+ * so {@link InvokerFactory} is called directly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class InvokerBenchmark {
+	private static final Method PUBLIC_METHOD = findMethod(Integer.class, "sum");
+	private static final Method PRIVATE_METHOD = findMethod(InvokerBenchmark.class, "multiply");
+
+	private static final MethodHandle HANDLE = InvokerFactory.unreflect(PUBLIC_METHOD);
+	private static final IntBinaryOperator PUBLIC_INVOKER =
+			InvokerFactory.createInvoker(IntBinaryOperator.class, PUBLIC_METHOD);
+	private static final IntBinaryOperator PRIVATE_INVOKER =
+			InvokerFactory.createInvoker(IntBinaryOperator.class, PRIVATE_METHOD);
+
+	//These are not constants so that the calls cannot be folded.
+	private int a = 3;
+	private int b = 4;
+
+	@Benchmark
+	public int direct() {
+		return Integer.sum(a, b);
+	}
+
+	//This is how the method would be called without InvokerFactory.
+	@Benchmark
+	public int reflect() throws IllegalAccessException, InvocationTargetException {
+		return (int) PUBLIC_METHOD.invoke(null, a, b);
+	}
+
+	@Benchmark
+	public int methodHandle() throws Throwable {
+		return (int) HANDLE.invokeExact(a, b);
+	}
+
+	@Benchmark
+	public int invoker() {
+		return PUBLIC_INVOKER.applyAsInt(a, b);
+	}
+
+	@Benchmark
+	public int reflectPrivate() throws IllegalAccessException, InvocationTargetException {
+		return (int) PRIVATE_METHOD.invoke(null, a, b);
+	}
+
+	@Benchmark
+	public int privateInvoker() {
+		return PRIVATE_INVOKER.applyAsInt(a, b);
+	}
+
+	@SuppressWarnings("unused")
+	private static int multiply(int a, int b) {
+		return a * b;
+	}
+
+	private static Method findMethod(Class<?> clazz, String name) {
+		return MemberCache.get(clazz).findMethod(
+				name, name, new Class<?>[] {int.class, int.class}
+		);
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the {@link MemberCache} that backs
+ * {@link FabricUtils#findFieldNullable(Class, String...)} and
+ * {@link FabricUtils#findMethodNullable(Class, String, String, Class[])} on classes with many
+ * members, compared to a linear scan of the declared members.
+ * <p>
+ * {@link FabricUtils} itself cannot be initialized outside of a launched Fabric Loader,
+ * so the cache is called directly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class MemberLookupBenchmark {
+	//Character declares many fields, and String declares many methods.
+	private static final Class<?> FIELD_CLASS = Character.class;
+	private static final String[] FIELD_NAMES = {"field_12345", "MAX_RADIX"};
+	private static final String[] MISSING_FIELD_NAMES = {"field_12345", "doesNotExist"};
+
+	private static final Class<?> METHOD_CLASS = String.class;
+	private static final String METHOD_NAME = "regionMatches";
+	private static final String OBFUSCATED_METHOD_NAME = "method_12345";
+	private static final Class<?>[] PARAMETER_TYPES = {
+			boolean.class, int.class, String.class, int.class, int.class
+	};
+
+	@Benchmark
+	public Field findField() {
+		return MemberCache.get(FIELD_CLASS).findField(FIELD_NAMES);
+	}
+
+	@Benchmark
+	public Field findMissingField() {
+		return MemberCache.get(FIELD_CLASS).findField(MISSING_FIELD_NAMES);
+	}
+
+	@Benchmark
+	public Method findMethod() {
+		return MemberCache.get(METHOD_CLASS).findMethod(
+				METHOD_NAME, OBFUSCATED_METHOD_NAME, PARAMETER_TYPES
+		);
+	}
+
+	//This is how fields were looked up before MemberCache was introduced.
+	@Benchmark
+	public Field scanFields() {
+		for (Field field : FIELD_CLASS.getDeclaredFields()) {
+			for (String name : FIELD_NAMES) {
+				if (name.equals(field.getName())) {
+					return field;
+				}
+			}
+		}
+
+		return null;
+	}
+
+	//This is how methods were looked up before MemberCache was introduced.
+	@Benchmark
+	public Method scanMethods() {
+		for (Method method : METHOD_CLASS.getDeclaredMethods()) {
+			final String methodName = method.getName();
+
+			if ((METHOD_NAME.equals(methodName) || OBFUSCATED_METHOD_NAME.equals(methodName)) &&
+					Arrays.equals(method.getParameterTypes(), PARAMETER_TYPES)) {
+				return method;
+			}
+		}
+
+		return null;
+	}
+}
@@ -0,0 +1,168 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.electronwill.nightconfig.core.file.CommentedFileConfig;
+import net.minecraft.Bootstrap;
+import net.minecraft.item.Item;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.registry.Registry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the reloading of large lists of item identifiers as performed by
+ * {@link IdentifierTypeAdapter}, compared to the regular expression-based approach that it
+ * replaced.
+ * <p>
+ * Each list consists of distinct identifiers, all of which are registered in the item registry
+ * beforehand as they would be in a large modpack. {@link #reload()} loads the configuration file
+ * and resolves the list in the same way as a configuration reload, and {@link #resolve()} only
+ * resolves the list of an already loaded file.
+ * <p>
+ * Registry events are only available in a launched Fabric environment, so the item registry is
+ * indexed using {@link RegistryIndex#initializeHeadless(Iterable)} after the identifiers are
+ * registered.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class IdentifierResolutionBenchmark {
+	private static final String NAMESPACE = "benchmark";
+	private static final Item[] defaultValue = new Item[0];
+
+	@Param({"16", "1024", "16384", "50000"})
+	public int size;
+
+	@Param({"false", "true"})
+	public boolean whitespace;
+
+	private Path path;
+	private IdentifierTypeAdapter adapter;
+	private CommentedFileConfig loadedConfig;
+	private List<String> identifiers;
+
+	@Setup
+	public void setup() throws IOException {
+		Bootstrap.initialize();
+
+		final StringBuilder builder = new StringBuilder(size * 24).append("items = [");
+
+		for (int i = 0; i < size; i++) {
+			final Identifier id = new Identifier(NAMESPACE, "item_" + i);
+			Registry.register(Registry.ITEM, id, new Item(new Item.Settings()));
+
+			if (i != 0) {
+				builder.append(", ");
+			}
+
+			builder.append('"').append(whitespace ?
+					" " + id.getNamespace() + " : " + id.getPath() + " " : id.toString()
+			).append('"');
+		}
+
+		RegistryIndex.initializeHeadless(Collections.singletonList(Registry.ITEM));
+		adapter = new IdentifierTypeAdapter(Item.class, true);
+
+		path = Files.createTempFile("trlutils-fabric-benchmark", ".toml");
+		Files.write(path, builder.append("]\n").toString().getBytes(StandardCharsets.UTF_8));
+
+		loadedConfig = CommentedFileConfig.of(path);
+		loadedConfig.load();
+		identifiers = loadedConfig.get("items");
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		loadedConfig.close();
+		Files.deleteIfExists(path);
+	}
+
+	@Benchmark
+	public int reload() {
+		try (CommentedFileConfig config = CommentedFileConfig.of(path)) {
+			config.load();
+			return ((Item[]) adapter.getValue(config, "items", defaultValue)).length;
+		}
+	}
+
+	//This is how identifiers were resolved before IdentifierCache was introduced.
+	@Benchmark
+	public int reloadWithRegex() {
+		try (CommentedFileConfig config = CommentedFileConfig.of(path)) {
+			config.load();
+
+			final List<String> list = config.get("items");
+			int found = 0;
+
+			for (String identifier : list) {
+				final Item item =
+						Registry.ITEM.get(new Identifier(identifier.replaceAll("\\s", "")));
+
+				if (item != null) {
+					found++;
+				}
+			}
+
+			return found;
+		}
+	}
+
+	@Benchmark
+	public int resolve() {
+		return ((Item[]) adapter.getValue(loadedConfig, "items", defaultValue)).length;
+	}
+
+	@Benchmark
+	public int stripWhitespace() {
+		int length = 0;
+
+		for (String identifier : identifiers) {
+			length += IdentifierCache.stripWhitespace(identifier).length();
+		}
+
+		return length;
+	}
+}
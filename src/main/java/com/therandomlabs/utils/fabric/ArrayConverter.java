@@ -0,0 +1,772 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric;
+
+import java.lang.reflect.Array;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+import com.google.common.primitives.Booleans;
+import com.google.common.primitives.Bytes;
+import com.google.common.primitives.Chars;
+import com.google.common.primitives.Doubles;
+import com.google.common.primitives.Floats;
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
+import com.google.common.primitives.Shorts;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Converts between primitive arrays and boxed arrays of a single component type.
+ * {@link ArrayConverter}s are stateless, so they can be retrieved once using
+ * {@link #forComponentType(Class)} and reused.
+ * <p>
+ * Unlike {@link #toPrimitiveArray(Object[])} and {@link #toBoxedArray(Object)}, the methods that
+ * accept a destination array do not allocate a new array. {@link #asList(Object)} avoids copying
+ * entirely by returning a boxed view of a primitive array. The typed overloads such as
+ * {@link FabricUtils#asList(int[])} return the same view without requiring the caller to cast it.
+ */
+public abstract class ArrayConverter {
+	private static final ArrayConverter BOOLEAN = new BooleanConverter();
+	private static final ArrayConverter BYTE = new ByteConverter();
+	private static final ArrayConverter CHAR = new CharConverter();
+	private static final ArrayConverter DOUBLE = new DoubleConverter();
+	private static final ArrayConverter FLOAT = new FloatConverter();
+	private static final ArrayConverter INT = new IntConverter();
+	private static final ArrayConverter LONG = new LongConverter();
+	private static final ArrayConverter SHORT = new ShortConverter();
+
+	private static final ClassValue<ArrayConverter> converters =
+			new ClassValue<ArrayConverter>() {
+				@Nullable
+				@Override
+				protected ArrayConverter computeValue(Class<?> type) {
+					if (type == boolean[].class || type == Boolean[].class) {
+						return BOOLEAN;
+					}
+
+					if (type == byte[].class || type == Byte[].class) {
+						return BYTE;
+					}
+
+					if (type == char[].class || type == Character[].class) {
+						return CHAR;
+					}
+
+					if (type == double[].class || type == Double[].class) {
+						return DOUBLE;
+					}
+
+					if (type == float[].class || type == Float[].class) {
+						return FLOAT;
+					}
+
+					if (type == int[].class || type == Integer[].class) {
+						return INT;
+					}
+
+					if (type == long[].class || type == Long[].class) {
+						return LONG;
+					}
+
+					if (type == short[].class || type == Short[].class) {
+						return SHORT;
+					}
+
+					return null;
+				}
+			};
+
+	private final Class<?> primitiveType;
+	private final Class<?> boxedType;
+	private final Class<?> primitiveArrayType;
+	private final Class<?> boxedArrayType;
+
+	ArrayConverter(Class<?> primitiveType, Class<?> boxedType) {
+		this.primitiveType = primitiveType;
+		this.boxedType = boxedType;
+		primitiveArrayType = Array.newInstance(primitiveType, 0).getClass();
+		boxedArrayType = Array.newInstance(boxedType, 0).getClass();
+	}
+
+	/**
+	 * Returns the primitive component type of this {@link ArrayConverter},
+	 * for example {@code int.class}.
+	 *
+	 * @return the primitive component type of this {@link ArrayConverter}.
+	 */
+	public final Class<?> getPrimitiveType() {
+		return primitiveType;
+	}
+
+	/**
+	 * Returns the boxed component type of this {@link ArrayConverter},
+	 * for example {@code Integer.class}.
+	 *
+	 * @return the boxed component type of this {@link ArrayConverter}.
+	 */
+	public final Class<?> getBoxedType() {
+		return boxedType;
+	}
+
+	/**
+	 * Returns the specified boxed array as a new primitive array.
+	 *
+	 * @param array a boxed array.
+	 * @return the specified array as a primitive array.
+	 */
+	public abstract Object toPrimitiveArray(Object[] array);
+
+	/**
+	 * Writes the elements of the specified boxed array to the specified primitive array.
+	 *
+	 * @param array a boxed array.
+	 * @param destination a primitive array that is at least as long as the boxed array.
+	 */
+	public final void toPrimitiveArray(Object[] array, Object destination) {
+		Preconditions.checkNotNull(array, "array should not be null");
+		toPrimitiveArray(array, 0, destination, 0, array.length);
+	}
+
+	/**
+	 * Writes a range of the elements of the specified boxed array to the specified
+	 * primitive array.
+	 *
+	 * @param array a boxed array.
+	 * @param sourceIndex the index of the first element to convert.
+	 * @param destination a primitive array.
+	 * @param destinationIndex the index in the destination array of the first converted element.
+	 * @param length the number of elements to convert.
+	 */
+	public final void toPrimitiveArray(
+			Object[] array, int sourceIndex, Object destination, int destinationIndex, int length
+	) {
+		checkArrays(array, boxedArrayType, destination, primitiveArrayType);
+		checkRange(array.length, sourceIndex, length);
+		checkRange(Array.getLength(destination), destinationIndex, length);
+		convertToPrimitive(array, sourceIndex, destination, destinationIndex, length);
+	}
+
+	/**
+	 * Returns the specified primitive array as a new boxed array.
+	 *
+	 * @param array a primitive array.
+	 * @return the specified array as a boxed array.
+	 */
+	public abstract Object[] toBoxedArray(Object array);
+
+	/**
+	 * Writes the elements of the specified primitive array to the specified boxed array.
+	 * Boxing may still allocate objects for values that are not cached by the boxed type.
+	 *
+	 * @param array a primitive array.
+	 * @param destination a boxed array that is at least as long as the primitive array.
+	 */
+	public final void toBoxedArray(Object array, Object[] destination) {
+		Preconditions.checkNotNull(array, "array should not be null");
+		toBoxedArray(array, 0, destination, 0, Array.getLength(array));
+	}
+
+	/**
+	 * Writes a range of the elements of the specified primitive array to the specified
+	 * boxed array. Boxing may still allocate objects for values that are not cached by the
+	 * boxed type.
+	 *
+	 * @param array a primitive array.
+	 * @param sourceIndex the index of the first element to convert.
+	 * @param destination a boxed array.
+	 * @param destinationIndex the index in the destination array of the first converted element.
+	 * @param length the number of elements to convert.
+	 */
+	public final void toBoxedArray(
+			Object array, int sourceIndex, Object[] destination, int destinationIndex, int length
+	) {
+		checkArrays(array, primitiveArrayType, destination, boxedArrayType);
+		checkRange(Array.getLength(array), sourceIndex, length);
+		checkRange(destination.length, destinationIndex, length);
+		convertToBoxed(array, sourceIndex, destination, destinationIndex, length);
+	}
+
+	/**
+	 * Returns a fixed-size {@link List} view of the specified primitive array.
+	 * Elements are only boxed when they are accessed, and changes to the returned {@link List}
+	 * are written through to the array.
+	 *
+	 * @param array a primitive array.
+	 * @return a fixed-size {@link List} view of the specified primitive array.
+	 */
+	public final List<?> asList(Object array) {
+		return asList(array, true);
+	}
+
+	/**
+	 * Returns a fixed-size {@link List} view of the specified primitive array.
+	 * Elements are only boxed when they are accessed.
+	 *
+	 * @param array a primitive array.
+	 * @param writable whether changes to the returned {@link List} should be written through
+	 * to the array. If this is {@code false}, the returned {@link List} is unmodifiable.
+	 * @return a fixed-size {@link List} view of the specified primitive array.
+	 */
+	public final List<?> asList(Object array, boolean writable) {
+		Preconditions.checkNotNull(array, "array should not be null");
+		Preconditions.checkArgument(
+				array.getClass() == primitiveArrayType, "array should be a %s",
+				primitiveArrayType.getSimpleName()
+		);
+		return view(createList(array), writable);
+	}
+
+	abstract List<?> createList(Object array);
+
+	abstract void convertToPrimitive(
+			Object[] array, int sourceIndex, Object destination, int destinationIndex, int length
+	);
+
+	abstract void convertToBoxed(
+			Object array, int sourceIndex, Object[] destination, int destinationIndex, int length
+	);
+
+	/**
+	 * Returns the {@link ArrayConverter} for the specified primitive or boxed component type.
+	 *
+	 * @param componentType a primitive or boxed component type, for example {@code int.class}
+	 * or {@code Integer.class}.
+	 * @return the {@link ArrayConverter} for the specified component type.
+	 * @throws IllegalArgumentException if the specified class is not a primitive or boxed type.
+	 */
+	public static ArrayConverter forComponentType(Class<?> componentType) {
+		Preconditions.checkNotNull(componentType, "componentType should not be null");
+
+		if (componentType == boolean.class || componentType == Boolean.class) {
+			return BOOLEAN;
+		}
+
+		if (componentType == byte.class || componentType == Byte.class) {
+			return BYTE;
+		}
+
+		if (componentType == char.class || componentType == Character.class) {
+			return CHAR;
+		}
+
+		if (componentType == double.class || componentType == Double.class) {
+			return DOUBLE;
+		}
+
+		if (componentType == float.class || componentType == Float.class) {
+			return FLOAT;
+		}
+
+		if (componentType == int.class || componentType == Integer.class) {
+			return INT;
+		}
+
+		if (componentType == long.class || componentType == Long.class) {
+			return LONG;
+		}
+
+		if (componentType == short.class || componentType == Short.class) {
+			return SHORT;
+		}
+
+		throw new IllegalArgumentException(
+				"componentType should be a primitive or boxed type: " + componentType.getName()
+		);
+	}
+
+	/**
+	 * Returns the {@link ArrayConverter} for the specified primitive or boxed array.
+	 * The lookup is keyed on the class of the array, so it is cheap to call repeatedly.
+	 *
+	 * @param array a primitive or boxed array.
+	 * @return the {@link ArrayConverter} for the specified array, or {@code null} if it is not
+	 * a primitive or boxed array.
+	 */
+	@Nullable
+	public static ArrayConverter forArray(Object array) {
+		Preconditions.checkNotNull(array, "array should not be null");
+		return converters.get(array.getClass());
+	}
+
+	static <T> List<T> view(List<T> list, boolean writable) {
+		return writable ? list : Collections.unmodifiableList(list);
+	}
+
+	private static void checkArrays(
+			Object array, Class<?> arrayType, Object destination, Class<?> destinationType
+	) {
+		Preconditions.checkNotNull(array, "array should not be null");
+		Preconditions.checkNotNull(destination, "destination should not be null");
+		Preconditions.checkArgument(
+				array.getClass() == arrayType, "array should be a %s", arrayType.getSimpleName()
+		);
+		Preconditions.checkArgument(
+				destination.getClass() == destinationType, "destination should be a %s",
+				destinationType.getSimpleName()
+		);
+	}
+
+	private static void checkRange(int arrayLength, int index, int length) {
+		if (index < 0 || length < 0 || index > arrayLength - length) {
+			throw new ArrayIndexOutOfBoundsException(
+					"Range [" + index + ", " + index + " + " + length + ") out of bounds for " +
+							"length " + arrayLength
+			);
+		}
+	}
+
+	private static final class BooleanConverter extends ArrayConverter {
+		BooleanConverter() {
+			super(boolean.class, Boolean.class);
+		}
+
+		@Override
+		public boolean[] toPrimitiveArray(Object[] array) {
+			Preconditions.checkNotNull(array, "array should not be null");
+			final boolean[] primitiveArray = new boolean[array.length];
+			toPrimitiveArray(array, 0, primitiveArray, 0, array.length);
+			return primitiveArray;
+		}
+
+		@Override
+		public Boolean[] toBoxedArray(Object array) {
+			Preconditions.checkNotNull(array, "array should not be null");
+			final int length = Array.getLength(array);
+			final Boolean[] boxedArray = new Boolean[length];
+			toBoxedArray(array, 0, boxedArray, 0, length);
+			return boxedArray;
+		}
+
+		@Override
+		void convertToPrimitive(
+				Object[] array, int sourceIndex, Object destination, int destinationIndex,
+				int length
+		) {
+			final Boolean[] source = (Boolean[]) array;
+			final boolean[] target = (boolean[]) destination;
+
+			for (int i = 0; i < length; i++) {
+				target[destinationIndex + i] = source[sourceIndex + i];
+			}
+		}
+
+		@Override
+		void convertToBoxed(
+				Object array, int sourceIndex, Object[] destination, int destinationIndex,
+				int length
+		) {
+			final boolean[] source = (boolean[]) array;
+			final Boolean[] target = (Boolean[]) destination;
+
+			for (int i = 0; i < length; i++) {
+				target[destinationIndex + i] = source[sourceIndex + i];
+			}
+		}
+
+		@Override
+		List<?> createList(Object array) {
+			return Booleans.asList((boolean[]) array);
+		}
+	}
+
+	private static final class ByteConverter extends ArrayConverter {
+		ByteConverter() {
+			super(byte.class, Byte.class);
+		}
+
+		@Override
+		public byte[] toPrimitiveArray(Object[] array) {
+			Preconditions.checkNotNull(array, "array should not be null");
+			final byte[] primitiveArray = new byte[array.length];
+			toPrimitiveArray(array, 0, primitiveArray, 0, array.length);
+			return primitiveArray;
+		}
+
+		@Override
+		public Byte[] toBoxedArray(Object array) {
+			Preconditions.checkNotNull(array, "array should not be null");
+			final int length = Array.getLength(array);
+			final Byte[] boxedArray = new Byte[length];
+			toBoxedArray(array, 0, boxedArray, 0, length);
+			return boxedArray;
+		}
+
+		@Override
+		void convertToPrimitive(
+				Object[] array, int sourceIndex, Object destination, int destinationIndex,
+				int length
+		) {
+			final Byte[] source = (Byte[]) array;
+			final byte[] target = (byte[]) destination;
+
+			for (int i = 0; i < length; i++) {
+				target[destinationIndex + i] = source[sourceIndex + i];
+			}
+		}
+
+		@Override
+		void convertToBoxed(
+				Object array, int sourceIndex, Object[] destination, int destinationIndex,
+				int length
+		) {
+			final byte[] source = (byte[]) array;
+			final Byte[] target = (Byte[]) destination;
+
+			for (int i = 0; i < length; i++) {
+				target[destinationIndex + i] = source[sourceIndex + i];
+			}
+		}
+
+		@Override
+		List<?> createList(Object array) {
+			return Bytes.asList((byte[]) array);
+		}
+	}
+
+	private static final class CharConverter extends ArrayConverter {
+		CharConverter() {
+			super(char.class, Character.class);
+		}
+
+		@Override
+		public char[] toPrimitiveArray(Object[] array) {
+			Preconditions.checkNotNull(array, "array should not be null");
+			final char[] primitiveArray = new char[array.length];
+			toPrimitiveArray(array, 0, primitiveArray, 0, array.length);
+			return primitiveArray;
+		}
+
+		@Override
+		public Character[] toBoxedArray(Object array) {
+			Preconditions.checkNotNull(array, "array should not be null");
+			final int length = Array.getLength(array);
+			final Character[] boxedArray = new Character[length];
+			toBoxedArray(array, 0, boxedArray, 0, length);
+			return boxedArray;
+		}
+
+		@Override
+		void convertToPrimitive(
+				Object[] array, int sourceIndex, Object destination, int destinationIndex,
+				int length
+		) {
+			final Character[] source = (Character[]) array;
+			final char[] target = (char[]) destination;
+
+			for (int i = 0; i < length; i++) {
+				target[destinationIndex + i] = source[sourceIndex + i];
+			}
+		}
+
+		@Override
+		void convertToBoxed(
+				Object array, int sourceIndex, Object[] destination, int destinationIndex,
+				int length
+		) {
+			final char[] source = (char[]) array;
+			final Character[] target = (Character[]) destination;
+
+			for (int i = 0; i < length; i++) {
+				target[destinationIndex + i] = source[sourceIndex + i];
+			}
+		}
+
+		@Override
+		List<?> createList(Object array) {
+			return Chars.asList((char[]) array);
+		}
+	}
+
+	private static final class DoubleConverter extends ArrayConverter {
+		DoubleConverter() {
+			super(double.class, Double.class);
+		}
+
+		@Override
+		public double[] toPrimitiveArray(Object[] array) {
+			Preconditions.checkNotNull(array, "array should not be null");
+			final double[] primitiveArray = new double[array.length];
+			toPrimitiveArray(array, 0, primitiveArray, 0, array.length);
+			return primitiveArray;
+		}
+
+		@Override
+		public Double[] toBoxedArray(Object array) {
+			Preconditions.checkNotNull(array, "array should not be null");
+			final int length = Array.getLength(array);
+			final Double[] boxedArray = new Double[length];
+			toBoxedArray(array, 0, boxedArray, 0, length);
+			return boxedArray;
+		}
+
+		@Override
+		void convertToPrimitive(
+				Object[] array, int sourceIndex, Object destination, int destinationIndex,
+				int length
+		) {
+			final Double[] source = (Double[]) array;
+			final double[] target = (double[]) destination;
+
+			for (int i = 0; i < length; i++) {
+				target[destinationIndex + i] = source[sourceIndex + i];
+			}
+		}
+
+		@Override
+		void convertToBoxed(
+				Object array, int sourceIndex, Object[] destination, int destinationIndex,
+				int length
+		) {
+			final double[] source = (double[]) array;
+			final Double[] target = (Double[]) destination;
+
+			for (int i = 0; i < length; i++) {
+				target[destinationIndex + i] = source[sourceIndex + i];
+			}
+		}
+
+		@Override
+		List<?> createList(Object array) {
+			return Doubles.asList((double[]) array);
+		}
+	}
+
+	private static final class FloatConverter extends ArrayConverter {
+		FloatConverter() {
+			super(float.class, Float.class);
+		}
+
+		@Override
+		public float[] toPrimitiveArray(Object[] array) {
+			Preconditions.checkNotNull(array, "array should not be null");
+			final float[] primitiveArray = new float[array.length];
+			toPrimitiveArray(array, 0, primitiveArray, 0, array.length);
+			return primitiveArray;
+		}
+
+		@Override
+		public Float[] toBoxedArray(Object array) {
+			Preconditions.checkNotNull(array, "array should not be null");
+			final int length = Array.getLength(array);
+			final Float[] boxedArray = new Float[length];
+			toBoxedArray(array, 0, boxedArray, 0, length);
+			return boxedArray;
+		}
+
+		@Override
+		void convertToPrimitive(
+				Object[] array, int sourceIndex, Object destination, int destinationIndex,
+				int length
+		) {
+			final Float[] source = (Float[]) array;
+			final float[] target = (float[]) destination;
+
+			for (int i = 0; i < length; i++) {
+				target[destinationIndex + i] = source[sourceIndex + i];
+			}
+		}
+
+		@Override
+		void convertToBoxed(
+				Object array, int sourceIndex, Object[] destination, int destinationIndex,
+				int length
+		) {
+			final float[] source = (float[]) array;
+			final Float[] target = (Float[]) destination;
+
+			for (int i = 0; i < length; i++) {
+				target[destinationIndex + i] = source[sourceIndex + i];
+			}
+		}
+
+		@Override
+		List<?> createList(Object array) {
+			return Floats.asList((float[]) array);
+		}
+	}
+
+	private static final class IntConverter extends ArrayConverter {
+		IntConverter() {
+			super(int.class, Integer.class);
+		}
+
+		@Override
+		public int[] toPrimitiveArray(Object[] array) {
+			Preconditions.checkNotNull(array, "array should not be null");
+			final int[] primitiveArray = new int[array.length];
+			toPrimitiveArray(array, 0, primitiveArray, 0, array.length);
+			return primitiveArray;
+		}
+
+		@Override
+		public Integer[] toBoxedArray(Object array) {
+			Preconditions.checkNotNull(array, "array should not be null");
+			final int length = Array.getLength(array);
+			final Integer[] boxedArray = new Integer[length];
+			toBoxedArray(array, 0, boxedArray, 0, length);
+			return boxedArray;
+		}
+
+		@Override
+		void convertToPrimitive(
+				Object[] array, int sourceIndex, Object destination, int destinationIndex,
+				int length
+		) {
+			final Integer[] source = (Integer[]) array;
+			final int[] target = (int[]) destination;
+
+			for (int i = 0; i < length; i++) {
+				target[destinationIndex + i] = source[sourceIndex + i];
+			}
+		}
+
+		@Override
+		void convertToBoxed(
+				Object array, int sourceIndex, Object[] destination, int destinationIndex,
+				int length
+		) {
+			final int[] source = (int[]) array;
+			final Integer[] target = (Integer[]) destination;
+
+			for (int i = 0; i < length; i++) {
+				target[destinationIndex + i] = source[sourceIndex + i];
+			}
+		}
+
+		@Override
+		List<?> createList(Object array) {
+			return Ints.asList((int[]) array);
+		}
+	}
+
+	private static final class LongConverter extends ArrayConverter {
+		LongConverter() {
+			super(long.class, Long.class);
+		}
+
+		@Override
+		public long[] toPrimitiveArray(Object[] array) {
+			Preconditions.checkNotNull(array, "array should not be null");
+			final long[] primitiveArray = new long[array.length];
+			toPrimitiveArray(array, 0, primitiveArray, 0, array.length);
+			return primitiveArray;
+		}
+
+		@Override
+		public Long[] toBoxedArray(Object array) {
+			Preconditions.checkNotNull(array, "array should not be null");
+			final int length = Array.getLength(array);
+			final Long[] boxedArray = new Long[length];
+			toBoxedArray(array, 0, boxedArray, 0, length);
+			return boxedArray;
+		}
+
+		@Override
+		void convertToPrimitive(
+				Object[] array, int sourceIndex, Object destination, int destinationIndex,
+				int length
+		) {
+			final Long[] source = (Long[]) array;
+			final long[] target = (long[]) destination;
+
+			for (int i = 0; i < length; i++) {
+				target[destinationIndex + i] = source[sourceIndex + i];
+			}
+		}
+
+		@Override
+		void convertToBoxed(
+				Object array, int sourceIndex, Object[] destination, int destinationIndex,
+				int length
+		) {
+			final long[] source = (long[]) array;
+			final Long[] target = (Long[]) destination;
+
+			for (int i = 0; i < length; i++) {
+				target[destinationIndex + i] = source[sourceIndex + i];
+			}
+		}
+
+		@Override
+		List<?> createList(Object array) {
+			return Longs.asList((long[]) array);
+		}
+	}
+
+	private static final class ShortConverter extends ArrayConverter {
+		ShortConverter() {
+			super(short.class, Short.class);
+		}
+
+		@Override
+		public short[] toPrimitiveArray(Object[] array) {
+			Preconditions.checkNotNull(array, "array should not be null");
+			final short[] primitiveArray = new short[array.length];
+			toPrimitiveArray(array, 0, primitiveArray, 0, array.length);
+			return primitiveArray;
+		}
+
+		@Override
+		public Short[] toBoxedArray(Object array) {
+			Preconditions.checkNotNull(array, "array should not be null");
+			final int length = Array.getLength(array);
+			final Short[] boxedArray = new Short[length];
+			toBoxedArray(array, 0, boxedArray, 0, length);
+			return boxedArray;
+		}
+
+		@Override
+		void convertToPrimitive(
+				Object[] array, int sourceIndex, Object destination, int destinationIndex,
+				int length
+		) {
+			final Short[] source = (Short[]) array;
+			final short[] target = (short[]) destination;
+
+			for (int i = 0; i < length; i++) {
+				target[destinationIndex + i] = source[sourceIndex + i];
+			}
+		}
+
+		@Override
+		void convertToBoxed(
+				Object array, int sourceIndex, Object[] destination, int destinationIndex,
+				int length
+		) {
+			final short[] source = (short[]) array;
+			final Short[] target = (Short[]) destination;
+
+			for (int i = 0; i < length; i++) {
+				target[destinationIndex + i] = source[sourceIndex + i];
+			}
+		}
+
+		@Override
+		List<?> createList(Object array) {
+			return Shorts.asList((short[]) array);
+		}
+	}
+}
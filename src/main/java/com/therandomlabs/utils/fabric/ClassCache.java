@@ -0,0 +1,122 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Memoizes the results of {@link FabricUtils#getClass(String)} and
+ * {@link FabricUtils#isClassPresent(String)}. Both found and missing classes are cached, as the
+ * classes that are available never change once the game has been launched, so each missing
+ * class only causes a single {@link ClassNotFoundException}.
+ * <p>
+ * Class presence is determined by looking up class files as resources, which neither loads nor
+ * initializes the classes.
+ */
+final class ClassCache {
+	private static final ClassLoader classLoader = ClassCache.class.getClassLoader();
+
+	private static final Map<String, Optional<Class<?>>> classes = new ConcurrentHashMap<>();
+	private static final Map<String, Boolean> presence = new ConcurrentHashMap<>();
+
+	private static final LongAdder hits = new LongAdder();
+	private static final LongAdder misses = new LongAdder();
+
+	private ClassCache() {}
+
+	@Nullable
+	static Class<?> get(String name) {
+		final Optional<Class<?>> clazz = classes.get(name);
+
+		if (clazz != null) {
+			hits.increment();
+			return clazz.orElse(null);
+		}
+
+		misses.increment();
+
+		//computeIfAbsent is not used as the class may look up other classes while it is
+		//initialized.
+		final Optional<Class<?>> loaded = load(name);
+		final Optional<Class<?>> previous = classes.putIfAbsent(name, loaded);
+		return (previous == null ? loaded : previous).orElse(null);
+	}
+
+	static boolean isPresent(String name) {
+		final Optional<Class<?>> clazz = classes.get(name);
+
+		if (clazz != null) {
+			hits.increment();
+			return clazz.isPresent();
+		}
+
+		final Boolean present = presence.get(name);
+
+		if (present != null) {
+			hits.increment();
+			return present;
+		}
+
+		misses.increment();
+
+		final boolean found = probe(name);
+		presence.putIfAbsent(name, found);
+		return found;
+	}
+
+	static long getHits() {
+		return hits.sum();
+	}
+
+	static long getMisses() {
+		return misses.sum();
+	}
+
+	private static Optional<Class<?>> load(String name) {
+		//Classes that are known to be missing are not looked up again.
+		if (presence.get(name) == Boolean.FALSE) {
+			return Optional.empty();
+		}
+
+		try {
+			return Optional.of(Class.forName(name, true, classLoader));
+		} catch (ClassNotFoundException ex) {
+			return Optional.empty();
+		}
+	}
+
+	private static boolean probe(String name) {
+		//Array classes do not have class files.
+		if (name.startsWith("[")) {
+			return get(name) != null;
+		}
+
+		return classLoader.getResource(name.replace('.', '/') + ".class") != null;
+	}
+}
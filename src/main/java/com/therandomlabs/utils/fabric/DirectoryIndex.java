@@ -0,0 +1,586 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.google.common.base.Preconditions;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A cached listing of the files and directories in a directory tree, for example a subdirectory
+ * of {@link FabricUtils#MC_DIRECTORY}.
+ * <p>
+ * The tree is walked in parallel, and the path of each entry relative to the root directory is
+ * converted to a string with Unix directory separators once when the entry is first found.
+ * The contents of each directory are cached along with its modification time, so when the
+ * tree is scanned again, only directories whose modification times have changed are listed
+ * again, and entries whose attributes have not changed are reused. If nothing has changed,
+ * the previous {@link List} of entries is returned.
+ * <p>
+ * Modifying a file does not change the modification time of its directory, so directories are
+ * also registered with a {@link WatchService} when they are listed. Directories for which no
+ * events have been received since they were last scanned are skipped along with their
+ * subdirectories, so a scan that finds no changes does not read the attributes of any entry
+ * other than the root directory. If the file system does not support {@link WatchService}s or
+ * a directory cannot be registered, the attributes of the entries in that directory are read
+ * on every scan instead, which is still much cheaper than listing it.
+ * <p>
+ * Symbolic links are not followed.
+ */
+public final class DirectoryIndex {
+	//Directories that are modified this soon after they are listed may be modified again
+	//without their modification time changing, as some file systems only store modification
+	//times to the nearest one or two seconds. Such directories are always listed again.
+	private static final long MODIFICATION_TIME_GRANULARITY_MILLIS = 2000L;
+
+	private static final Map<Path, DirectoryIndex> indices = new ConcurrentHashMap<>();
+
+	private static final ForkJoinPool pool = new ForkJoinPool(
+			Runtime.getRuntime().availableProcessors(), DirectoryIndex::createWorker, null, false
+	);
+
+	private final Path root;
+	@Nullable
+	private final WatchService watchService;
+	private final Map<WatchKey, Node> watchedNodes = new ConcurrentHashMap<>();
+	private Node rootNode;
+	private volatile List<Entry> entries = Collections.emptyList();
+
+	private DirectoryIndex(Path root) {
+		this.root = root;
+		watchService = createWatchService(root);
+		rootNode = new Node(root, "", null);
+	}
+
+	/**
+	 * Returns the root directory of this {@link DirectoryIndex}.
+	 *
+	 * @return the absolute and normalized root directory of this {@link DirectoryIndex}.
+	 */
+	public Path getRoot() {
+		return root;
+	}
+
+	/**
+	 * Returns the entries that were found by the last call to {@link #scan()} without scanning
+	 * the directory tree.
+	 *
+	 * @return an immutable {@link List} of {@link Entry}s.
+	 */
+	public List<Entry> getEntries() {
+		return entries;
+	}
+
+	/**
+	 * Scans the directory tree, listing only the directories that have been modified since the
+	 * last scan. Entries are returned in depth-first order, with the entries in each directory
+	 * sorted by name, and each directory is placed before its contents.
+	 * The root directory itself is not included.
+	 *
+	 * @return an immutable {@link List} of {@link Entry}s, which is empty if the root directory
+	 * does not exist.
+	 * @throws UncheckedIOException if an I/O error occurs. The entries returned by
+	 * {@link #getEntries()} then include the changes that were found before the error, and
+	 * the next scan retries the rest of the tree.
+	 */
+	public synchronized List<Entry> scan() {
+		final BasicFileAttributes attributes;
+
+		try {
+			attributes = Files.readAttributes(root, BasicFileAttributes.class);
+		} catch (NoSuchFileException ex) {
+			rootNode = new Node(root, "", null);
+			entries = Collections.emptyList();
+			return entries;
+		} catch (IOException ex) {
+			throw new UncheckedIOException("Failed to scan directory: " + root, ex);
+		}
+
+		if (!attributes.isDirectory()) {
+			throw new UncheckedIOException(
+					"Failed to scan directory: " + root, new NotDirectoryException(root.toString())
+			);
+		}
+
+		final AtomicBoolean changed = new AtomicBoolean();
+		rootNode.update(attributes);
+		pollEvents();
+
+		try {
+			pool.invoke(new ScanTask(this, rootNode, changed));
+		} finally {
+			//If a subdirectory cannot be scanned, the other nodes may already have been
+			//modified, so the entries are rebuilt even if the scan fails.
+			if (changed.get()) {
+				final List<Entry> entries = new ArrayList<>();
+				rootNode.addEntries(entries);
+				this.entries = Collections.unmodifiableList(entries);
+			}
+		}
+
+		return entries;
+	}
+
+	/**
+	 * Returns the {@link DirectoryIndex} for the specified directory. {@link DirectoryIndex}s
+	 * are cached, so the same instance is returned for the same directory.
+	 *
+	 * @param directory a directory. Relative paths are resolved against the working directory.
+	 * @return the {@link DirectoryIndex} for the specified directory.
+	 */
+	public static DirectoryIndex get(Path directory) {
+		Preconditions.checkNotNull(directory, "directory should not be null");
+		return indices.computeIfAbsent(
+				directory.toAbsolutePath().normalize(), DirectoryIndex::new
+		);
+	}
+
+	/**
+	 * Returns the {@link DirectoryIndex} for the specified subdirectory of
+	 * {@link FabricUtils#MC_DIRECTORY}, for example {@code "config"}.
+	 *
+	 * @param path a path relative to {@link FabricUtils#MC_DIRECTORY}.
+	 * @return the {@link DirectoryIndex} for the specified directory.
+	 */
+	public static DirectoryIndex get(String path) {
+		Preconditions.checkNotNull(path, "path should not be null");
+		return get(FabricUtils.MC_DIRECTORY.resolve(path));
+	}
+
+	private void pollEvents() {
+		if (watchService == null) {
+			return;
+		}
+
+		WatchKey key;
+
+		while ((key = watchService.poll()) != null) {
+			boolean overflow = false;
+
+			for (WatchEvent<?> event : key.pollEvents()) {
+				if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+					overflow = true;
+				}
+			}
+
+			final Node node = watchedNodes.get(key);
+
+			//If the key is no longer valid, the directory has been removed or can no longer be
+			//watched, in which case it is scanned without a WatchService.
+			if (!key.reset()) {
+				watchedNodes.remove(key);
+
+				if (node != null) {
+					node.watched = false;
+				}
+			}
+
+			if (node != null) {
+				node.markChanged();
+			}
+
+			//Events have been lost, so every directory is scanned again.
+			if (overflow) {
+				for (Node watchedNode : watchedNodes.values()) {
+					watchedNode.markChanged();
+				}
+			}
+		}
+	}
+
+	private void watch(Node node) {
+		if (watchService == null || node.watched) {
+			return;
+		}
+
+		try {
+			watchedNodes.put(
+					node.path.register(
+							watchService, StandardWatchEventKinds.ENTRY_CREATE,
+							StandardWatchEventKinds.ENTRY_DELETE,
+							StandardWatchEventKinds.ENTRY_MODIFY
+					),
+					node
+			);
+			node.watched = true;
+		} catch (IOException ex) {
+			//For example, the limit of watched directories may have been reached, or the
+			//directory may have been removed, which its parent notices when it is listed.
+		}
+	}
+
+	@Nullable
+	private static WatchService createWatchService(Path root) {
+		try {
+			return root.getFileSystem().newWatchService();
+		} catch (IOException | UnsupportedOperationException ex) {
+			return null;
+		}
+	}
+
+	private static ForkJoinWorkerThread createWorker(ForkJoinPool pool) {
+		final ForkJoinWorkerThread thread =
+				ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+		thread.setName("TRLUtils-Fabric Directory Scanner " + thread.getPoolIndex());
+		thread.setDaemon(true);
+		return thread;
+	}
+
+	/**
+	 * A file or directory in a {@link DirectoryIndex}. {@link Entry}s are immutable, and a new
+	 * {@link Entry} is created when the attributes of a file or directory change.
+	 */
+	public static final class Entry {
+		private final Path path;
+		private final String relativePath;
+		private final boolean directory;
+		private final long size;
+		private final long lastModifiedTime;
+
+		Entry(Path path, String relativePath, BasicFileAttributes attributes) {
+			this.path = path;
+			this.relativePath = relativePath;
+			directory = attributes.isDirectory();
+			size = attributes.size();
+			lastModifiedTime = attributes.lastModifiedTime().toMillis();
+		}
+
+		/**
+		 * Returns the path of this {@link Entry}.
+		 *
+		 * @return the absolute path of this {@link Entry}.
+		 */
+		public Path getPath() {
+			return path;
+		}
+
+		/**
+		 * Returns the path of this {@link Entry} relative to the root directory with Unix
+		 * directory separators, for example {@code "packs/example.zip"}.
+		 *
+		 * @return the relative path of this {@link Entry}.
+		 */
+		public String getRelativePath() {
+			return relativePath;
+		}
+
+		/**
+		 * Returns whether this {@link Entry} is a directory.
+		 *
+		 * @return {@code true} if this {@link Entry} is a directory, or otherwise {@code false}.
+		 */
+		public boolean isDirectory() {
+			return directory;
+		}
+
+		/**
+		 * Returns the size of this {@link Entry} in bytes.
+		 *
+		 * @return the size of this {@link Entry} in bytes.
+		 * @see BasicFileAttributes#size()
+		 */
+		public long getSize() {
+			return size;
+		}
+
+		/**
+		 * Returns the modification time of this {@link Entry}.
+		 *
+		 * @return the modification time of this {@link Entry} in milliseconds since the epoch.
+		 */
+		public long getLastModifiedTime() {
+			return lastModifiedTime;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public String toString() {
+			return relativePath;
+		}
+
+		boolean hasAttributes(BasicFileAttributes attributes) {
+			return directory == attributes.isDirectory() && size == attributes.size() &&
+					lastModifiedTime == attributes.lastModifiedTime().toMillis();
+		}
+	}
+
+	private static final class Node {
+		final Path path;
+		final String relativePath;
+		@Nullable
+		final Node parent;
+		@Nullable
+		Entry entry;
+		//The contents of a directory, which are null until it is first listed.
+		@Nullable
+		TreeMap<String, Node> children;
+		long listedModifiedTime = -1L;
+		long listedAt;
+		//Whether the directory is registered with the WatchService of the index. If it is, it is
+		//only scanned again when changed is set by an event.
+		boolean watched;
+		boolean changed = true;
+		//Whether changed is set for any subdirectory, so that unchanged subtrees can be skipped.
+		boolean descendantChanged;
+
+		Node(Path path, String relativePath, @Nullable Node parent) {
+			this.path = path;
+			this.relativePath = relativePath;
+			this.parent = parent;
+		}
+
+		boolean isDirectory() {
+			return entry != null && entry.isDirectory();
+		}
+
+		void markChanged() {
+			changed = true;
+
+			Node ancestor = parent;
+
+			while (ancestor != null && !ancestor.descendantChanged) {
+				ancestor.descendantChanged = true;
+				ancestor = ancestor.parent;
+			}
+		}
+
+		//Returns whether the attributes have changed.
+		boolean update(BasicFileAttributes attributes) {
+			if (entry != null && entry.hasAttributes(attributes)) {
+				return false;
+			}
+
+			entry = new Entry(path, relativePath, attributes);
+			return true;
+		}
+
+		boolean needsListing() {
+			if (children == null || entry == null) {
+				return true;
+			}
+
+			final long modifiedTime = entry.getLastModifiedTime();
+			return modifiedTime != listedModifiedTime ||
+					modifiedTime >= listedAt - MODIFICATION_TIME_GRANULARITY_MILLIS;
+		}
+
+		void list() throws IOException {
+			final long startTime = System.currentTimeMillis();
+			final TreeMap<String, Node> children = new TreeMap<>();
+
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+				for (Path childPath : stream) {
+					final String name = childPath.getFileName().toString();
+					final Node previous = this.children == null ? null : this.children.get(name);
+					children.put(
+							name,
+							previous == null ? new Node(
+									childPath,
+									relativePath.isEmpty() ? name : relativePath + '/' + name,
+									this
+							) : previous
+					);
+				}
+			} catch (NoSuchFileException | NotDirectoryException ex) {
+				//The directory has been removed, which its parent notices when it is listed.
+				this.children = children;
+				listedModifiedTime = -1L;
+				return;
+			}
+
+			this.children = children;
+			listedModifiedTime = entry == null ? -1L : entry.getLastModifiedTime();
+			listedAt = startTime;
+		}
+
+		void addEntries(List<Entry> entries) {
+			if (children == null) {
+				return;
+			}
+
+			for (Node child : children.values()) {
+				if (child.entry != null) {
+					entries.add(child.entry);
+					child.addEntries(entries);
+				}
+			}
+		}
+	}
+
+	private static final class ScanTask extends RecursiveAction {
+		private final DirectoryIndex index;
+		private final Node node;
+		private final AtomicBoolean changed;
+
+		ScanTask(DirectoryIndex index, Node node, AtomicBoolean changed) {
+			this.index = index;
+			this.node = node;
+			this.changed = changed;
+		}
+
+		@SuppressWarnings("NullAway")
+		@Override
+		protected void compute() {
+			try {
+				scan();
+			} catch (IOException ex) {
+				throw new UncheckedIOException("Failed to scan directory: " + node.path, ex);
+			}
+		}
+
+		@SuppressWarnings("NullAway")
+		private void scan() throws IOException {
+			if (node.watched && !node.changed) {
+				scanChangedDescendants();
+				return;
+			}
+
+			final boolean wasWatched = node.watched;
+			node.changed = false;
+			node.descendantChanged = false;
+
+			//The parent of a watched directory is not scanned when only the contents of the
+			//directory change, so its own attributes are read here.
+			if (wasWatched && node.parent != null && !updateAttributes()) {
+				return;
+			}
+
+			//The directory is registered before it is listed so that no changes are missed.
+			index.watch(node);
+
+			if (wasWatched || node.needsListing()) {
+				node.list();
+				changed.set(true);
+			}
+
+			final List<ScanTask> tasks = new ArrayList<>();
+			final Iterator<Map.Entry<String, Node>> it = node.children.entrySet().iterator();
+
+			while (it.hasNext()) {
+				final Map.Entry<String, Node> child = it.next();
+				final BasicFileAttributes attributes;
+
+				try {
+					attributes = Files.readAttributes(
+							child.getValue().path, BasicFileAttributes.class,
+							LinkOption.NOFOLLOW_LINKS
+					);
+				} catch (NoSuchFileException ex) {
+					it.remove();
+					//The directory is listed again next time in case the entry has been
+					//replaced.
+					node.listedModifiedTime = -1L;
+					changed.set(true);
+					continue;
+				}
+
+				Node childNode = child.getValue();
+
+				//A file that has been replaced with a directory or vice versa is indexed again.
+				if (childNode.entry != null &&
+						childNode.isDirectory() != attributes.isDirectory()) {
+					childNode = new Node(childNode.path, childNode.relativePath, node);
+					child.setValue(childNode);
+				}
+
+				if (childNode.update(attributes)) {
+					changed.set(true);
+				}
+
+				if (childNode.isDirectory()) {
+					tasks.add(new ScanTask(index, childNode, changed));
+				}
+			}
+
+			invokeAll(tasks);
+		}
+
+		@SuppressWarnings("NullAway")
+		private void scanChangedDescendants() {
+			if (!node.descendantChanged) {
+				return;
+			}
+
+			node.descendantChanged = false;
+			final List<ScanTask> tasks = new ArrayList<>();
+
+			for (Node child : node.children.values()) {
+				if (child.isDirectory() && (child.changed || child.descendantChanged)) {
+					tasks.add(new ScanTask(index, child, changed));
+				}
+			}
+
+			invokeAll(tasks);
+		}
+
+		//Returns false if the directory no longer exists, which its parent is notified of.
+		private boolean updateAttributes() throws IOException {
+			final BasicFileAttributes attributes;
+
+			try {
+				attributes = Files.readAttributes(
+						node.path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS
+				);
+			} catch (NoSuchFileException ex) {
+				return false;
+			}
+
+			if (!attributes.isDirectory()) {
+				return false;
+			}
+
+			if (node.update(attributes)) {
+				changed.set(true);
+			}
+
+			return true;
+		}
+	}
+}
@@ -23,23 +23,41 @@
 
 package com.therandomlabs.utils.fabric;
 
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Field;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
+import com.google.common.primitives.Booleans;
+import com.google.common.primitives.Bytes;
+import com.google.common.primitives.Chars;
+import com.google.common.primitives.Doubles;
+import com.google.common.primitives.Floats;
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
+import com.google.common.primitives.Shorts;
 import com.mojang.bridge.game.GameVersion;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.loader.api.FabricLoader;
+import net.fabricmc.loader.api.MappingResolver;
 import net.minecraft.MinecraftVersion;
 import net.minecraft.server.command.CommandSource;
 import net.minecraft.server.command.ServerCommandSource;
 import net.minecraft.util.crash.CrashException;
 import net.minecraft.util.crash.CrashReport;
-import org.apache.commons.lang3.ArrayUtils;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
@@ -76,7 +94,8 @@ public final class FabricUtils {
 	/**
 	 * The current Minecraft version as returned by {@link MinecraftVersion#create()}.
 	 */
-	public static final GameVersion MC_VERSION = MinecraftVersion.create();
+	public static final GameVersion MC_VERSION =
+			StartupTimings.time("FabricUtils: MinecraftVersion.create()", MinecraftVersion::create);
 
 	/**
 	 * The current Minecraft version string.
@@ -88,8 +107,21 @@ public final class FabricUtils {
 	/**
 	 * Returns the current Minecraft major version number.
 	 */
-	public static final int MC_MAJOR_VERSION =
-			Integer.parseInt(Splitter.on('.').splitToList(MC_VERSION_STRING).get(1));
+	public static final int MC_MAJOR_VERSION = StartupTimings.time(
+			"FabricUtils: Minecraft version parsing",
+			() -> Integer.parseInt(Splitter.on('.').splitToList(MC_VERSION_STRING).get(1))
+	);
+
+	private static final String INTERMEDIARY = "intermediary";
+
+	private static final FlightRecorderEventType reflectionLookupEvent =
+			FlightRecorderEventType.create(
+					"com.therandomlabs.utils.fabric.ReflectionLookup", "Reflection Lookup",
+					FlightRecorderEventType.Value.of("kind", String.class),
+					FlightRecorderEventType.Value.of("owner", String.class),
+					FlightRecorderEventType.Value.of("name", String.class),
+					FlightRecorderEventType.Value.of("found", boolean.class)
+			);
 
 	private FabricUtils() {}
 
@@ -100,87 +132,317 @@ public final class FabricUtils {
 	 * @return the specified array as a primitive array.
 	 */
 	public static Object toPrimitiveArray(Object[] array) {
-		if (array instanceof Boolean[]) {
-			return ArrayUtils.toPrimitive((Boolean[]) array);
-		}
+		return getBoxedArrayConverter(array).toPrimitiveArray(array);
+	}
 
-		if (array instanceof Byte[]) {
-			return ArrayUtils.toPrimitive((Byte[]) array);
-		}
+	/**
+	 * Writes the elements of the specified boxed array to the specified primitive array
+	 * without allocating a new array.
+	 *
+	 * @param array a boxed array.
+	 * @param destination a primitive array that is at least as long as the boxed array.
+	 */
+	public static void toPrimitiveArray(Object[] array, Object destination) {
+		getBoxedArrayConverter(array).toPrimitiveArray(array, destination);
+	}
 
-		if (array instanceof Character[]) {
-			return ArrayUtils.toPrimitive((Character[]) array);
-		}
+	/**
+	 * Writes a range of the elements of the specified boxed array to the specified
+	 * primitive array without allocating a new array.
+	 *
+	 * @param array a boxed array.
+	 * @param sourceIndex the index of the first element to convert.
+	 * @param destination a primitive array.
+	 * @param destinationIndex the index in the destination array of the first converted element.
+	 * @param length the number of elements to convert.
+	 */
+	public static void toPrimitiveArray(
+			Object[] array, int sourceIndex, Object destination, int destinationIndex, int length
+	) {
+		getBoxedArrayConverter(array).toPrimitiveArray(
+				array, sourceIndex, destination, destinationIndex, length
+		);
+	}
 
-		if (array instanceof Double[]) {
-			return ArrayUtils.toPrimitive((Double[]) array);
-		}
+	/**
+	 * Returns the specified array as a boxed array.
+	 *
+	 * @param array a primitive array.
+	 * @return the specified array as a boxed array.
+	 */
+	public static Object[] toBoxedArray(Object array) {
+		Preconditions.checkNotNull(array, "array should not be null");
 
-		if (array instanceof Float[]) {
-			return ArrayUtils.toPrimitive((Float[]) array);
+		if (array instanceof Object[]) {
+			return (Object[]) array;
 		}
 
-		if (array instanceof Integer[]) {
-			return ArrayUtils.toPrimitive((Integer[]) array);
-		}
+		return getPrimitiveArrayConverter(array).toBoxedArray(array);
+	}
 
-		if (array instanceof Long[]) {
-			return ArrayUtils.toPrimitive((Long[]) array);
-		}
+	/**
+	 * Writes the elements of the specified primitive array to the specified boxed array
+	 * without allocating a new array.
+	 *
+	 * @param array a primitive array.
+	 * @param destination a boxed array that is at least as long as the primitive array.
+	 */
+	public static void toBoxedArray(Object array, Object[] destination) {
+		getPrimitiveArrayConverter(array).toBoxedArray(array, destination);
+	}
 
-		if (array instanceof Short[]) {
-			return ArrayUtils.toPrimitive((Short[]) array);
-		}
+	/**
+	 * Writes a range of the elements of the specified primitive array to the specified
+	 * boxed array without allocating a new array.
+	 *
+	 * @param array a primitive array.
+	 * @param sourceIndex the index of the first element to convert.
+	 * @param destination a boxed array.
+	 * @param destinationIndex the index in the destination array of the first converted element.
+	 * @param length the number of elements to convert.
+	 */
+	public static void toBoxedArray(
+			Object array, int sourceIndex, Object[] destination, int destinationIndex, int length
+	) {
+		getPrimitiveArrayConverter(array).toBoxedArray(
+				array, sourceIndex, destination, destinationIndex, length
+		);
+	}
 
-		throw new IllegalArgumentException("array should be a boxed array");
+	/**
+	 * Returns a fixed-size boxed {@link List} view of the specified primitive array.
+	 * Unlike {@link #toBoxedArray(Object)}, the array is not copied, elements are only boxed
+	 * when they are accessed, and changes to the returned {@link List} are written through to
+	 * the array.
+	 *
+	 * @param array a primitive array.
+	 * @return a fixed-size boxed {@link List} view of the specified primitive array.
+	 */
+	public static List<?> asList(Object array) {
+		return asList(array, true);
 	}
 
 	/**
-	 * Returns the specified array as a boxed array.
+	 * Returns a fixed-size boxed {@link List} view of the specified primitive array.
+	 * Unlike {@link #toBoxedArray(Object)}, the array is not copied, and elements are only boxed
+	 * when they are accessed.
 	 *
 	 * @param array a primitive array.
-	 * @return the specified array as a boxed array.
+	 * @param writable whether changes to the returned {@link List} should be written through
+	 * to the array. If this is {@code false}, the returned {@link List} is unmodifiable.
+	 * @return a fixed-size boxed {@link List} view of the specified primitive array.
 	 */
-	public static Object[] toBoxedArray(Object array) {
+	public static List<?> asList(Object array, boolean writable) {
 		Preconditions.checkNotNull(array, "array should not be null");
+		return getPrimitiveArrayConverter(array).asList(array, writable);
+	}
 
-		if (array instanceof Object[]) {
-			return (Object[]) array;
-		}
+	/**
+	 * Returns a fixed-size {@link List} view of the specified {@code boolean} array.
+	 * Elements are only boxed when they are accessed, and changes to the returned {@link List}
+	 * are written through to the array.
+	 *
+	 * @param array a {@code boolean} array.
+	 * @return a fixed-size {@link List} view of the specified {@code boolean} array.
+	 */
+	public static List<Boolean> asList(boolean[] array) {
+		return asList(array, true);
+	}
 
-		if (array instanceof boolean[]) {
-			return ArrayUtils.toObject((boolean[]) array);
-		}
+	/**
+	 * Returns a fixed-size {@link List} view of the specified {@code boolean} array.
+	 * Elements are only boxed when they are accessed.
+	 *
+	 * @param array a {@code boolean} array.
+	 * @param writable whether changes to the returned {@link List} should be written through
+	 * to the array. If this is {@code false}, the returned {@link List} is unmodifiable.
+	 * @return a fixed-size {@link List} view of the specified {@code boolean} array.
+	 */
+	public static List<Boolean> asList(boolean[] array, boolean writable) {
+		Preconditions.checkNotNull(array, "array should not be null");
+		return ArrayConverter.view(Booleans.asList(array), writable);
+	}
 
-		if (array instanceof byte[]) {
-			return ArrayUtils.toObject((byte[]) array);
-		}
+	/**
+	 * Returns a fixed-size {@link List} view of the specified {@code byte} array.
+	 * Elements are only boxed when they are accessed, and changes to the returned {@link List}
+	 * are written through to the array.
+	 *
+	 * @param array a {@code byte} array.
+	 * @return a fixed-size {@link List} view of the specified {@code byte} array.
+	 */
+	public static List<Byte> asList(byte[] array) {
+		return asList(array, true);
+	}
 
-		if (array instanceof char[]) {
-			return ArrayUtils.toObject((char[]) array);
-		}
+	/**
+	 * Returns a fixed-size {@link List} view of the specified {@code byte} array.
+	 * Elements are only boxed when they are accessed.
+	 *
+	 * @param array a {@code byte} array.
+	 * @param writable whether changes to the returned {@link List} should be written through
+	 * to the array. If this is {@code false}, the returned {@link List} is unmodifiable.
+	 * @return a fixed-size {@link List} view of the specified {@code byte} array.
+	 */
+	public static List<Byte> asList(byte[] array, boolean writable) {
+		Preconditions.checkNotNull(array, "array should not be null");
+		return ArrayConverter.view(Bytes.asList(array), writable);
+	}
 
-		if (array instanceof double[]) {
-			return ArrayUtils.toObject((double[]) array);
-		}
+	/**
+	 * Returns a fixed-size {@link List} view of the specified {@code char} array.
+	 * Elements are only boxed when they are accessed, and changes to the returned {@link List}
+	 * are written through to the array.
+	 *
+	 * @param array a {@code char} array.
+	 * @return a fixed-size {@link List} view of the specified {@code char} array.
+	 */
+	public static List<Character> asList(char[] array) {
+		return asList(array, true);
+	}
 
-		if (array instanceof float[]) {
-			return ArrayUtils.toObject((float[]) array);
-		}
+	/**
+	 * Returns a fixed-size {@link List} view of the specified {@code char} array.
+	 * Elements are only boxed when they are accessed.
+	 *
+	 * @param array a {@code char} array.
+	 * @param writable whether changes to the returned {@link List} should be written through
+	 * to the array. If this is {@code false}, the returned {@link List} is unmodifiable.
+	 * @return a fixed-size {@link List} view of the specified {@code char} array.
+	 */
+	public static List<Character> asList(char[] array, boolean writable) {
+		Preconditions.checkNotNull(array, "array should not be null");
+		return ArrayConverter.view(Chars.asList(array), writable);
+	}
 
-		if (array instanceof int[]) {
-			return ArrayUtils.toObject((int[]) array);
-		}
+	/**
+	 * Returns a fixed-size {@link List} view of the specified {@code double} array.
+	 * Elements are only boxed when they are accessed, and changes to the returned {@link List}
+	 * are written through to the array.
+	 *
+	 * @param array a {@code double} array.
+	 * @return a fixed-size {@link List} view of the specified {@code double} array.
+	 */
+	public static List<Double> asList(double[] array) {
+		return asList(array, true);
+	}
 
-		if (array instanceof long[]) {
-			return ArrayUtils.toObject((long[]) array);
-		}
+	/**
+	 * Returns a fixed-size {@link List} view of the specified {@code double} array.
+	 * Elements are only boxed when they are accessed.
+	 *
+	 * @param array a {@code double} array.
+	 * @param writable whether changes to the returned {@link List} should be written through
+	 * to the array. If this is {@code false}, the returned {@link List} is unmodifiable.
+	 * @return a fixed-size {@link List} view of the specified {@code double} array.
+	 */
+	public static List<Double> asList(double[] array, boolean writable) {
+		Preconditions.checkNotNull(array, "array should not be null");
+		return ArrayConverter.view(Doubles.asList(array), writable);
+	}
 
-		if (array instanceof short[]) {
-			return ArrayUtils.toObject((short[]) array);
-		}
+	/**
+	 * Returns a fixed-size {@link List} view of the specified {@code float} array.
+	 * Elements are only boxed when they are accessed, and changes to the returned {@link List}
+	 * are written through to the array.
+	 *
+	 * @param array a {@code float} array.
+	 * @return a fixed-size {@link List} view of the specified {@code float} array.
+	 */
+	public static List<Float> asList(float[] array) {
+		return asList(array, true);
+	}
 
-		throw new IllegalArgumentException("array should be an array");
+	/**
+	 * Returns a fixed-size {@link List} view of the specified {@code float} array.
+	 * Elements are only boxed when they are accessed.
+	 *
+	 * @param array a {@code float} array.
+	 * @param writable whether changes to the returned {@link List} should be written through
+	 * to the array. If this is {@code false}, the returned {@link List} is unmodifiable.
+	 * @return a fixed-size {@link List} view of the specified {@code float} array.
+	 */
+	public static List<Float> asList(float[] array, boolean writable) {
+		Preconditions.checkNotNull(array, "array should not be null");
+		return ArrayConverter.view(Floats.asList(array), writable);
+	}
+
+	/**
+	 * Returns a fixed-size {@link List} view of the specified {@code int} array.
+	 * Elements are only boxed when they are accessed, and changes to the returned {@link List}
+	 * are written through to the array.
+	 *
+	 * @param array a {@code int} array.
+	 * @return a fixed-size {@link List} view of the specified {@code int} array.
+	 */
+	public static List<Integer> asList(int[] array) {
+		return asList(array, true);
+	}
+
+	/**
+	 * Returns a fixed-size {@link List} view of the specified {@code int} array.
+	 * Elements are only boxed when they are accessed.
+	 *
+	 * @param array a {@code int} array.
+	 * @param writable whether changes to the returned {@link List} should be written through
+	 * to the array. If this is {@code false}, the returned {@link List} is unmodifiable.
+	 * @return a fixed-size {@link List} view of the specified {@code int} array.
+	 */
+	public static List<Integer> asList(int[] array, boolean writable) {
+		Preconditions.checkNotNull(array, "array should not be null");
+		return ArrayConverter.view(Ints.asList(array), writable);
+	}
+
+	/**
+	 * Returns a fixed-size {@link List} view of the specified {@code long} array.
+	 * Elements are only boxed when they are accessed, and changes to the returned {@link List}
+	 * are written through to the array.
+	 *
+	 * @param array a {@code long} array.
+	 * @return a fixed-size {@link List} view of the specified {@code long} array.
+	 */
+	public static List<Long> asList(long[] array) {
+		return asList(array, true);
+	}
+
+	/**
+	 * Returns a fixed-size {@link List} view of the specified {@code long} array.
+	 * Elements are only boxed when they are accessed.
+	 *
+	 * @param array a {@code long} array.
+	 * @param writable whether changes to the returned {@link List} should be written through
+	 * to the array. If this is {@code false}, the returned {@link List} is unmodifiable.
+	 * @return a fixed-size {@link List} view of the specified {@code long} array.
+	 */
+	public static List<Long> asList(long[] array, boolean writable) {
+		Preconditions.checkNotNull(array, "array should not be null");
+		return ArrayConverter.view(Longs.asList(array), writable);
+	}
+
+	/**
+	 * Returns a fixed-size {@link List} view of the specified {@code short} array.
+	 * Elements are only boxed when they are accessed, and changes to the returned {@link List}
+	 * are written through to the array.
+	 *
+	 * @param array a {@code short} array.
+	 * @return a fixed-size {@link List} view of the specified {@code short} array.
+	 */
+	public static List<Short> asList(short[] array) {
+		return asList(array, true);
+	}
+
+	/**
+	 * Returns a fixed-size {@link List} view of the specified {@code short} array.
+	 * Elements are only boxed when they are accessed.
+	 *
+	 * @param array a {@code short} array.
+	 * @param writable whether changes to the returned {@link List} should be written through
+	 * to the array. If this is {@code false}, the returned {@link List} is unmodifiable.
+	 * @return a fixed-size {@link List} view of the specified {@code short} array.
+	 */
+	public static List<Short> asList(short[] array, boolean writable) {
+		Preconditions.checkNotNull(array, "array should not be null");
+		return ArrayConverter.view(Shorts.asList(array), writable);
 	}
 
 	/**
@@ -219,6 +481,7 @@ public final class FabricUtils {
 
 	/**
 	 * Quietly retrieves the field with any of the specified names in the specified class.
+	 * Results, including missing fields, are cached, so repeated lookups are cheap.
 	 *
 	 * @param clazz a class.
 	 * @param names an array of possible field names.
@@ -229,16 +492,16 @@ public final class FabricUtils {
 		Preconditions.checkNotNull(clazz, "clazz should not be null");
 		Preconditions.checkNotNull(names, "names should not be null");
 
-		for (Field field : clazz.getDeclaredFields()) {
-			for (String name : names) {
-				if (name.equals(field.getName())) {
-					field.setAccessible(true);
-					return field;
-				}
-			}
+		final Object event = reflectionLookupEvent.begin();
+		final Field field = MemberCache.get(clazz).findField(names);
+
+		if (event != null) {
+			reflectionLookupEvent.commit(
+					event, "field", clazz.getName(), Arrays.toString(names), field != null
+			);
 		}
 
-		return null;
+		return field;
 	}
 
 	/**
@@ -281,6 +544,7 @@ public final class FabricUtils {
 	/**
 	 * Quietly retrieves the method with the specified name or obfuscated name and parameter types
 	 * in the specified class.
+	 * Results, including missing methods, are cached, so repeated lookups are cheap.
 	 *
 	 * @param clazz a class.
 	 * @param name a method name.
@@ -298,17 +562,19 @@ public final class FabricUtils {
 		Preconditions.checkNotNull(obfuscatedName, "obfuscatedName should not be null");
 		Preconditions.checkNotNull(parameterTypes, "parameterTypes should not be null");
 
-		for (Method method : clazz.getDeclaredMethods()) {
-			final String methodName = method.getName();
+		final Object event = reflectionLookupEvent.begin();
+		final Method method =
+				MemberCache.get(clazz).findMethod(name, obfuscatedName, parameterTypes);
 
-			if ((name.equals(methodName) || obfuscatedName.equals(methodName)) &&
-					Arrays.equals(method.getParameterTypes(), parameterTypes)) {
-				method.setAccessible(true);
-				return method;
-			}
+		if (event != null) {
+			reflectionLookupEvent.commit(
+					event, "method", clazz.getName(),
+					name.equals(obfuscatedName) ? name : name + "/" + obfuscatedName,
+					method != null
+			);
 		}
 
-		return null;
+		return method;
 	}
 
 	/**
@@ -364,8 +630,426 @@ public final class FabricUtils {
 		return method;
 	}
 
+	/**
+	 * Quietly retrieves the field with the specified intermediary name and descriptor in the
+	 * specified class. The name and descriptor are mapped to the runtime namespace using the
+	 * {@link MappingResolver} of {@link #LOADER}, so the same name can be used in development
+	 * and production environments.
+	 * Results, including missing fields, are cached, so repeated lookups are cheap.
+	 *
+	 * @param clazz a class.
+	 * @param name an intermediary field name, for example {@code field_1234}.
+	 * @param descriptor an intermediary field descriptor, for example
+	 * {@code Lnet/minecraft/class_1234;}.
+	 * @return the {@link Field} with the specified name and descriptor, or otherwise
+	 * {@code null}.
+	 */
+	@Nullable
+	public static Field findMappedFieldNullable(Class<?> clazz, String name, String descriptor) {
+		return findMappedFieldNullable(clazz, INTERMEDIARY, name, descriptor);
+	}
+
+	/**
+	 * Quietly retrieves the field with the specified name and descriptor in the specified
+	 * mapping namespace in the specified class. The name and descriptor are mapped to the
+	 * runtime namespace using the {@link MappingResolver} of {@link #LOADER}.
+	 * Results, including missing fields, are cached, so repeated lookups are cheap.
+	 *
+	 * @param clazz a class.
+	 * @param namespace a mapping namespace, for example {@code intermediary}.
+	 * @param name a field name in the specified namespace.
+	 * @param descriptor a field descriptor in the specified namespace.
+	 * @return the {@link Field} with the specified name and descriptor, or otherwise
+	 * {@code null}. {@code null} is also returned if the specified namespace is not available,
+	 * for example {@code named} in production environments.
+	 */
+	@Nullable
+	public static Field findMappedFieldNullable(
+			Class<?> clazz, String namespace, String name, String descriptor
+	) {
+		Preconditions.checkNotNull(clazz, "clazz should not be null");
+		Preconditions.checkNotNull(namespace, "namespace should not be null");
+		Preconditions.checkNotNull(name, "name should not be null");
+		Preconditions.checkNotNull(descriptor, "descriptor should not be null");
+
+		final Object event = reflectionLookupEvent.begin();
+		final Field field = MemberCache.get(clazz).findMappedField(namespace, name, descriptor);
+
+		if (event != null) {
+			reflectionLookupEvent.commit(
+					event, "mappedField", clazz.getName(), namespace + ":" + name, field != null
+			);
+		}
+
+		return field;
+	}
+
+	/**
+	 * Quietly retrieves the field with the specified intermediary name and descriptor in the
+	 * specified class.
+	 *
+	 * @param clazz a class.
+	 * @param name an intermediary field name, for example {@code field_1234}.
+	 * @param descriptor an intermediary field descriptor, for example
+	 * {@code Lnet/minecraft/class_1234;}.
+	 * @return the {@link Field} with the specified name and descriptor.
+	 * @throws IllegalArgumentException if the specified field is not found.
+	 * @see #findMappedFieldNullable(Class, String, String)
+	 */
+	public static Field findMappedField(Class<?> clazz, String name, String descriptor) {
+		final Field field = findMappedFieldNullable(clazz, name, descriptor);
+
+		if (field == null) {
+			throw new IllegalArgumentException(
+					"No such field " + name + ":" + descriptor + " in: " + clazz.getName()
+			);
+		}
+
+		return field;
+	}
+
+	/**
+	 * Quietly retrieves the method with the specified intermediary name and descriptor in the
+	 * specified class. The name and descriptor are mapped to the runtime namespace using the
+	 * {@link MappingResolver} of {@link #LOADER}, so the same name can be used in development
+	 * and production environments.
+	 * Results, including missing methods, are cached, so repeated lookups are cheap.
+	 *
+	 * @param clazz a class.
+	 * @param name an intermediary method name, for example {@code method_1234}.
+	 * @param descriptor an intermediary method descriptor, for example
+	 * {@code (Lnet/minecraft/class_1234;)Z}.
+	 * @return the {@link Method} with the specified name and descriptor, or otherwise
+	 * {@code null}.
+	 */
+	@Nullable
+	public static Method findMappedMethodNullable(
+			Class<?> clazz, String name, String descriptor
+	) {
+		return findMappedMethodNullable(clazz, INTERMEDIARY, name, descriptor);
+	}
+
+	/**
+	 * Quietly retrieves the method with the specified name and descriptor in the specified
+	 * mapping namespace in the specified class. The name and descriptor are mapped to the
+	 * runtime namespace using the {@link MappingResolver} of {@link #LOADER}.
+	 * Results, including missing methods, are cached, so repeated lookups are cheap.
+	 *
+	 * @param clazz a class.
+	 * @param namespace a mapping namespace, for example {@code intermediary}.
+	 * @param name a method name in the specified namespace.
+	 * @param descriptor a method descriptor in the specified namespace.
+	 * @return the {@link Method} with the specified name and descriptor, or otherwise
+	 * {@code null}. {@code null} is also returned if the specified namespace is not available,
+	 * for example {@code named} in production environments.
+	 */
+	@Nullable
+	public static Method findMappedMethodNullable(
+			Class<?> clazz, String namespace, String name, String descriptor
+	) {
+		Preconditions.checkNotNull(clazz, "clazz should not be null");
+		Preconditions.checkNotNull(namespace, "namespace should not be null");
+		Preconditions.checkNotNull(name, "name should not be null");
+		Preconditions.checkNotNull(descriptor, "descriptor should not be null");
+
+		final Object event = reflectionLookupEvent.begin();
+		final Method method =
+				MemberCache.get(clazz).findMappedMethod(namespace, name, descriptor);
+
+		if (event != null) {
+			reflectionLookupEvent.commit(
+					event, "mappedMethod", clazz.getName(), namespace + ":" + name,
+					method != null
+			);
+		}
+
+		return method;
+	}
+
+	/**
+	 * Quietly retrieves the method with the specified intermediary name and descriptor in the
+	 * specified class.
+	 *
+	 * @param clazz a class.
+	 * @param name an intermediary method name, for example {@code method_1234}.
+	 * @param descriptor an intermediary method descriptor, for example
+	 * {@code (Lnet/minecraft/class_1234;)Z}.
+	 * @return the {@link Method} with the specified name and descriptor.
+	 * @throws IllegalArgumentException if the specified method is not found.
+	 * @see #findMappedMethodNullable(Class, String, String)
+	 */
+	public static Method findMappedMethod(Class<?> clazz, String name, String descriptor) {
+		final Method method = findMappedMethodNullable(clazz, name, descriptor);
+
+		if (method == null) {
+			throw new IllegalArgumentException(
+					"No such method " + name + descriptor + " in: " + clazz.getName()
+			);
+		}
+
+		return method;
+	}
+
+	/**
+	 * Quietly retrieves the method with the specified name and parameter types in the
+	 * specified class as a {@link MethodHandle}.
+	 * The returned {@link MethodHandle} should be stored in a {@code static final} field so that
+	 * invocations can be inlined.
+	 *
+	 * @param clazz a class.
+	 * @param name a method name.
+	 * @param parameterTypes an array of parameter types.
+	 * @return a {@link MethodHandle} for the method that matches the specified parameters,
+	 * or otherwise {@code null}.
+	 */
+	@SuppressWarnings("GrazieInspection")
+	@Nullable
+	public static MethodHandle findMethodHandleNullable(
+			Class<?> clazz, String name, Class<?>... parameterTypes
+	) {
+		return findMethodHandleNullable(clazz, name, name, parameterTypes);
+	}
+
+	/**
+	 * Quietly retrieves the method with the specified name or obfuscated name and parameter types
+	 * in the specified class as a {@link MethodHandle}.
+	 * The returned {@link MethodHandle} should be stored in a {@code static final} field so that
+	 * invocations can be inlined.
+	 *
+	 * @param clazz a class.
+	 * @param name a method name.
+	 * @param obfuscatedName an obfuscated method name.
+	 * @param parameterTypes an array of parameter types.
+	 * @return a {@link MethodHandle} for the method that matches the specified parameters,
+	 * or otherwise {@code null}.
+	 */
+	@SuppressWarnings("GrazieInspection")
+	@Nullable
+	public static MethodHandle findMethodHandleNullable(
+			Class<?> clazz, String name, String obfuscatedName, Class<?>... parameterTypes
+	) {
+		final Method method = findMethodNullable(clazz, name, obfuscatedName, parameterTypes);
+		return method == null ? null : InvokerFactory.unreflect(method);
+	}
+
+	/**
+	 * Quietly retrieves the method with the specified name and parameter types in the
+	 * specified class as a {@link MethodHandle}.
+	 * The returned {@link MethodHandle} should be stored in a {@code static final} field so that
+	 * invocations can be inlined.
+	 *
+	 * @param clazz a class.
+	 * @param name a method name.
+	 * @param parameterTypes an array of parameter types.
+	 * @return a {@link MethodHandle} for the method that matches the specified parameters.
+	 * @throws IllegalArgumentException if the specified method is not found.
+	 */
+	@SuppressWarnings("GrazieInspection")
+	public static MethodHandle findMethodHandle(
+			Class<?> clazz, String name, Class<?>... parameterTypes
+	) {
+		return InvokerFactory.unreflect(findMethod(clazz, name, parameterTypes));
+	}
+
+	/**
+	 * Quietly retrieves the method with the specified name or obfuscated name and parameter types
+	 * in the specified class as a {@link MethodHandle}.
+	 * The returned {@link MethodHandle} should be stored in a {@code static final} field so that
+	 * invocations can be inlined.
+	 *
+	 * @param clazz a class.
+	 * @param name a method name.
+	 * @param obfuscatedName an obfuscated method name.
+	 * @param parameterTypes an array of parameter types.
+	 * @return a {@link MethodHandle} for the method that matches the specified parameters.
+	 * @throws IllegalArgumentException if the specified method is not found.
+	 */
+	@SuppressWarnings("GrazieInspection")
+	public static MethodHandle findMethodHandle(
+			Class<?> clazz, String name, String obfuscatedName, Class<?>... parameterTypes
+	) {
+		return InvokerFactory.unreflect(findMethod(clazz, name, obfuscatedName, parameterTypes));
+	}
+
+	/**
+	 * Creates an implementation of the specified functional interface that invokes the method
+	 * with the specified name and parameter types in the specified class.
+	 * For instance methods, the first parameter of the functional interface method is the
+	 * receiver. Where possible, the implementation is generated using {@link LambdaMetafactory},
+	 * so invocations are as fast as direct method calls.
+	 *
+	 * @param functionalInterface a functional interface.
+	 * @param clazz a class.
+	 * @param name a method name.
+	 * @param parameterTypes an array of parameter types.
+	 * @param <T> the type of the functional interface.
+	 * @return an implementation of the specified functional interface.
+	 * @throws IllegalArgumentException if the specified method is not found or if the specified
+	 * class is not a functional interface.
+	 */
+	@SuppressWarnings("GrazieInspection")
+	public static <T> T createInvoker(
+			Class<T> functionalInterface, Class<?> clazz, String name, Class<?>... parameterTypes
+	) {
+		return createInvoker(functionalInterface, clazz, name, name, parameterTypes);
+	}
+
+	/**
+	 * Creates an implementation of the specified functional interface that invokes the method
+	 * with the specified name or obfuscated name and parameter types in the specified class.
+	 * For instance methods, the first parameter of the functional interface method is the
+	 * receiver. Where possible, the implementation is generated using {@link LambdaMetafactory},
+	 * so invocations are as fast as direct method calls.
+	 *
+	 * @param functionalInterface a functional interface.
+	 * @param clazz a class.
+	 * @param name a method name.
+	 * @param obfuscatedName an obfuscated method name.
+	 * @param parameterTypes an array of parameter types.
+	 * @param <T> the type of the functional interface.
+	 * @return an implementation of the specified functional interface.
+	 * @throws IllegalArgumentException if the specified method is not found or if the specified
+	 * class is not a functional interface.
+	 */
+	@SuppressWarnings("GrazieInspection")
+	public static <T> T createInvoker(
+			Class<T> functionalInterface, Class<?> clazz, String name, String obfuscatedName,
+			Class<?>... parameterTypes
+	) {
+		Preconditions.checkNotNull(functionalInterface, "functionalInterface should not be null");
+		return InvokerFactory.createInvoker(
+				functionalInterface, findMethod(clazz, name, obfuscatedName, parameterTypes)
+		);
+	}
+
+	/**
+	 * Quietly retrieves the members described by the specified {@link MemberSpec}s in the
+	 * specified class. The declared members of the class are indexed in a single pass, so this
+	 * is cheaper than calling {@link #findFieldNullable(Class, String...)} and
+	 * {@link #findMethodNullable(Class, String, String, Class[])} for each member.
+	 *
+	 * @param clazz a class.
+	 * @param specs an array of {@link MemberSpec}s.
+	 * @return a {@link Map} of {@link MemberSpec}s to the retrieved {@link Field}s and
+	 * {@link Method}s. {@link MemberSpec}s that describe missing members are not present.
+	 */
+	public static Map<MemberSpec, Member> findMembersNullable(
+			Class<?> clazz, MemberSpec... specs
+	) {
+		Preconditions.checkNotNull(specs, "specs should not be null");
+		return findMembersNullable(clazz, Arrays.asList(specs));
+	}
+
+	/**
+	 * Quietly retrieves the members described by the specified {@link MemberSpec}s in the
+	 * specified class. The declared members of the class are indexed in a single pass, so this
+	 * is cheaper than calling {@link #findFieldNullable(Class, String...)} and
+	 * {@link #findMethodNullable(Class, String, String, Class[])} for each member.
+	 *
+	 * @param clazz a class.
+	 * @param specs a {@link Collection} of {@link MemberSpec}s.
+	 * @return a {@link Map} of {@link MemberSpec}s to the retrieved {@link Field}s and
+	 * {@link Method}s. {@link MemberSpec}s that describe missing members are not present.
+	 */
+	public static Map<MemberSpec, Member> findMembersNullable(
+			Class<?> clazz, Collection<MemberSpec> specs
+	) {
+		Preconditions.checkNotNull(clazz, "clazz should not be null");
+		Preconditions.checkNotNull(specs, "specs should not be null");
+
+		final MemberCache cache = MemberCache.get(clazz);
+		final Map<MemberSpec, Member> members = new HashMap<>(specs.size() * 2);
+
+		for (MemberSpec spec : specs) {
+			Preconditions.checkNotNull(spec, "specs should not contain null elements");
+			final Member member = cache.find(spec);
+
+			if (member != null) {
+				members.put(spec, member);
+			}
+		}
+
+		return members;
+	}
+
+	/**
+	 * Quietly retrieves the members described by the specified {@link MemberSpec}s in the
+	 * specified class. The declared members of the class are indexed in a single pass, so this
+	 * is cheaper than calling {@link #findField(Class, String...)} and
+	 * {@link #findMethod(Class, String, String, Class[])} for each member.
+	 *
+	 * @param clazz a class.
+	 * @param specs an array of {@link MemberSpec}s.
+	 * @return a {@link Map} of {@link MemberSpec}s to the retrieved {@link Field}s and
+	 * {@link Method}s.
+	 * @throws IllegalArgumentException if any of the specified members are not found.
+	 * The exception message lists every missing member.
+	 */
+	public static Map<MemberSpec, Member> findMembers(Class<?> clazz, MemberSpec... specs) {
+		Preconditions.checkNotNull(specs, "specs should not be null");
+		return findMembers(clazz, Arrays.asList(specs));
+	}
+
+	/**
+	 * Quietly retrieves the members described by the specified {@link MemberSpec}s in the
+	 * specified class. The declared members of the class are indexed in a single pass, so this
+	 * is cheaper than calling {@link #findField(Class, String...)} and
+	 * {@link #findMethod(Class, String, String, Class[])} for each member.
+	 *
+	 * @param clazz a class.
+	 * @param specs a {@link Collection} of {@link MemberSpec}s.
+	 * @return a {@link Map} of {@link MemberSpec}s to the retrieved {@link Field}s and
+	 * {@link Method}s.
+	 * @throws IllegalArgumentException if any of the specified members are not found.
+	 * The exception message lists every missing member.
+	 */
+	public static Map<MemberSpec, Member> findMembers(
+			Class<?> clazz, Collection<MemberSpec> specs
+	) {
+		final Map<MemberSpec, Member> members = findMembersNullable(clazz, specs);
+
+		if (members.size() != new HashSet<>(specs).size()) {
+			final List<String> missing = new ArrayList<>();
+
+			for (MemberSpec spec : specs) {
+				if (!members.containsKey(spec)) {
+					missing.add(spec.toString());
+				}
+			}
+
+			throw new IllegalArgumentException(
+					"No such members " + missing + " in: " + clazz.getName()
+			);
+		}
+
+		return members;
+	}
+
+	/**
+	 * Returns the number of {@link #findFieldNullable(Class, String...)} and
+	 * {@link #findMethodNullable(Class, String, String, Class[])} lookups that have been
+	 * answered from the member cache.
+	 *
+	 * @return the number of member cache hits.
+	 */
+	public static long getMemberCacheHits() {
+		return MemberCache.getHits();
+	}
+
+	/**
+	 * Returns the number of {@link #findFieldNullable(Class, String...)} and
+	 * {@link #findMethodNullable(Class, String, String, Class[])} lookups that required the
+	 * declared members of a class to be scanned.
+	 *
+	 * @return the number of member cache misses.
+	 */
+	public static long getMemberCacheMisses() {
+		return MemberCache.getMisses();
+	}
+
 	/**
 	 * Quietly retrieves the class with the specified name.
+	 * Results, including missing classes, are cached, so repeated lookups are cheap.
 	 *
 	 * @param name a class name.
 	 * @return the class with the specified name as returned by {@link Class#forName(String)},
@@ -375,11 +1059,113 @@ public final class FabricUtils {
 	public static Class<?> getClass(String name) {
 		Preconditions.checkNotNull(name, "name should not be null");
 
-		try {
-			return Class.forName(name);
-		} catch (ClassNotFoundException ignored) {}
+		final Object event = reflectionLookupEvent.begin();
+		final Class<?> clazz = ClassCache.get(name);
+
+		if (event != null) {
+			reflectionLookupEvent.commit(event, "class", name, "", clazz != null);
+		}
+
+		return clazz;
+	}
 
-		return null;
+	/**
+	 * Returns whether the class with the specified name is available without loading or
+	 * initializing it. Results are cached.
+	 *
+	 * @param name a class name.
+	 * @return {@code true} if the class with the specified name is available,
+	 * or otherwise {@code false}.
+	 */
+	public static boolean isClassPresent(String name) {
+		Preconditions.checkNotNull(name, "name should not be null");
+		return ClassCache.isPresent(name);
+	}
+
+	/**
+	 * Returns whether the class with the specified name is available without loading or
+	 * initializing it. If the mod with the specified ID is not loaded, {@code false} is returned
+	 * without the class being looked up.
+	 *
+	 * @param modID the ID of the mod that provides the class.
+	 * @param name a class name.
+	 * @return {@code true} if the specified mod is loaded and the class with the specified name is
+	 * available, or otherwise {@code false}.
+	 */
+	public static boolean isClassPresent(String modID, String name) {
+		Preconditions.checkNotNull(modID, "modID should not be null");
+		Preconditions.checkNotNull(name, "name should not be null");
+		return LOADER.isModLoaded(modID) && ClassCache.isPresent(name);
+	}
+
+	/**
+	 * Returns which of the classes with the specified names are available without loading or
+	 * initializing them. Results are cached.
+	 *
+	 * @param names an array of class names.
+	 * @return a {@link Set} containing the names of the available classes.
+	 */
+	public static Set<String> getPresentClasses(String... names) {
+		Preconditions.checkNotNull(names, "names should not be null");
+		return getPresentClasses(Arrays.asList(names));
+	}
+
+	/**
+	 * Returns which of the classes with the specified names are available without loading or
+	 * initializing them. Results are cached.
+	 *
+	 * @param names a {@link Collection} of class names.
+	 * @return a {@link Set} containing the names of the available classes.
+	 */
+	public static Set<String> getPresentClasses(Collection<String> names) {
+		Preconditions.checkNotNull(names, "names should not be null");
+
+		final Set<String> present = new HashSet<>();
+
+		for (String name : names) {
+			Preconditions.checkNotNull(name, "names should not contain null elements");
+
+			if (ClassCache.isPresent(name)) {
+				present.add(name);
+			}
+		}
+
+		return present;
+	}
+
+	/**
+	 * Returns which of the classes with the specified names are available without loading or
+	 * initializing them. If the mod with the specified ID is not loaded, an empty {@link Set}
+	 * is returned without any classes being looked up.
+	 *
+	 * @param modID the ID of the mod that provides the classes.
+	 * @param names a {@link Collection} of class names.
+	 * @return a {@link Set} containing the names of the available classes.
+	 */
+	public static Set<String> getPresentClasses(String modID, Collection<String> names) {
+		Preconditions.checkNotNull(modID, "modID should not be null");
+		Preconditions.checkNotNull(names, "names should not be null");
+		return LOADER.isModLoaded(modID) ? getPresentClasses(names) : new HashSet<>();
+	}
+
+	/**
+	 * Returns the number of {@link #getClass(String)} and {@link #isClassPresent(String)}
+	 * lookups that have been answered from the class cache.
+	 *
+	 * @return the number of class cache hits.
+	 */
+	public static long getClassCacheHits() {
+		return ClassCache.getHits();
+	}
+
+	/**
+	 * Returns the number of {@link #getClass(String)} and {@link #isClassPresent(String)}
+	 * lookups that required the class loader to be queried.
+	 *
+	 * @return the number of class cache misses.
+	 */
+	public static long getClassCacheMisses() {
+		return ClassCache.getMisses();
 	}
 
 	/**
@@ -406,4 +1192,26 @@ public final class FabricUtils {
 		Preconditions.checkNotNull(throwable, "throwable should not be null");
 		throw new CrashException(new CrashReport(message, throwable));
 	}
+
+	//Like the original instanceof checks, this throws an IllegalArgumentException rather than a
+	//NullPointerException for null arrays.
+	private static ArrayConverter getBoxedArrayConverter(@Nullable Object[] array) {
+		final ArrayConverter converter = array == null ? null : ArrayConverter.forArray(array);
+
+		if (converter == null) {
+			throw new IllegalArgumentException("array should be a boxed array");
+		}
+
+		return converter;
+	}
+
+	private static ArrayConverter getPrimitiveArrayConverter(Object array) {
+		final ArrayConverter converter = ArrayConverter.forArray(array);
+
+		if (converter == null || !array.getClass().getComponentType().isPrimitive()) {
+			throw new IllegalArgumentException("array should be a primitive array");
+		}
+
+		return converter;
+	}
 }
@@ -0,0 +1,1131 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Provides typed access to a field retrieved using
+ * {@link FabricUtils#findField(Class, String...)} without boxing primitive values.
+ * <p>
+ * Each accessor supports plain, opaque and volatile access through {@link MethodHandle}s.
+ * Plain access uses the handles returned by {@code MethodHandles.Lookup#unreflectGetter} and
+ * {@code MethodHandles.Lookup#unreflectSetter}. Opaque and volatile access uses the access modes
+ * of {@code VarHandle} on Java 9 and newer. On Java 8, where {@code VarHandle} is unavailable,
+ * it falls back to {@code sun.misc.Unsafe}, which performs opaque reads as volatile reads and
+ * opaque writes as ordered writes, both of which are at least as strong as their opaque
+ * counterparts.
+ * <p>
+ * For static fields, the {@code instance} arguments are ignored and may be {@code null}.
+ * As with {@link Field#set(Object, Object)}, {@code static final} fields cannot be written, and
+ * their setters throw an {@link IllegalStateException}.
+ * Accessors should be stored in {@code static final} fields.
+ */
+public abstract class FieldAccessor {
+	final MethodHandle getter;
+	final MethodHandle setter;
+	final MethodHandle opaqueGetter;
+	final MethodHandle opaqueSetter;
+	final MethodHandle volatileGetter;
+	final MethodHandle volatileSetter;
+
+	private final Field field;
+	private final Class<?> declaringClass;
+	private final boolean isStatic;
+	private final boolean writable;
+
+	FieldAccessor(Field field) {
+		this.field = field;
+		declaringClass = field.getDeclaringClass();
+
+		final int modifiers = field.getModifiers();
+		isStatic = Modifier.isStatic(modifiers);
+		writable = !isStatic || !Modifier.isFinal(modifiers);
+
+		final FieldHandles handles = new FieldHandles(field);
+		getter = handles.getter();
+		setter = handles.setter(writable);
+		opaqueGetter = handles.opaqueGetter();
+		opaqueSetter = handles.opaqueSetter(writable);
+		volatileGetter = handles.volatileGetter();
+		volatileSetter = handles.volatileSetter(writable);
+	}
+
+	/**
+	 * Returns the {@link Field} that this {@link FieldAccessor} accesses.
+	 *
+	 * @return the {@link Field} that this {@link FieldAccessor} accesses.
+	 */
+	public final Field getField() {
+		return field;
+	}
+
+	/**
+	 * Returns whether the field that this {@link FieldAccessor} accesses is static.
+	 *
+	 * @return {@code true} if the field is static, or otherwise {@code false}.
+	 */
+	public final boolean isStatic() {
+		return isStatic;
+	}
+
+	/**
+	 * Returns whether the field that this {@link FieldAccessor} accesses can be written.
+	 * Like {@link Field#set(Object, Object)}, this is {@code false} only for
+	 * {@code static final} fields.
+	 *
+	 * @return {@code true} if the field can be written, or otherwise {@code false}.
+	 */
+	public final boolean isWritable() {
+		return writable;
+	}
+
+	@Nullable
+	final Object instance(@Nullable Object instance) {
+		//On Java 8, this check is necessary as an incorrect instance would read or corrupt
+		//arbitrary memory.
+		if (!isStatic && !declaringClass.isInstance(instance)) {
+			throw new IllegalArgumentException(
+					"Expected instance of " + declaringClass.getName() + " but found: " +
+							(instance == null ? "null" : instance.getClass().getName())
+			);
+		}
+
+		return instance;
+	}
+
+	@Nullable
+	final Object writableInstance(@Nullable Object instance) {
+		if (!writable) {
+			throw new IllegalStateException(
+					"Cannot set static final field " + field.getName() + " in: " +
+							declaringClass.getName()
+			);
+		}
+
+		return instance(instance);
+	}
+
+	/**
+	 * Returns an {@link OfInt} for the {@code int} field with any of the specified names in the
+	 * specified class.
+	 *
+	 * @param clazz a class.
+	 * @param names an array of possible field names.
+	 * @return an {@link OfInt}.
+	 * @throws IllegalArgumentException if the specified field is not found or is not an
+	 * {@code int} field.
+	 */
+	public static OfInt ofInt(Class<?> clazz, String... names) {
+		return new OfInt(findField(clazz, int.class, names));
+	}
+
+	/**
+	 * Returns an {@link OfLong} for the {@code long} field with any of the specified names in the
+	 * specified class.
+	 *
+	 * @param clazz a class.
+	 * @param names an array of possible field names.
+	 * @return an {@link OfLong}.
+	 * @throws IllegalArgumentException if the specified field is not found or is not a
+	 * {@code long} field.
+	 */
+	public static OfLong ofLong(Class<?> clazz, String... names) {
+		return new OfLong(findField(clazz, long.class, names));
+	}
+
+	/**
+	 * Returns an {@link OfFloat} for the {@code float} field with any of the specified names in
+	 * the specified class.
+	 *
+	 * @param clazz a class.
+	 * @param names an array of possible field names.
+	 * @return an {@link OfFloat}.
+	 * @throws IllegalArgumentException if the specified field is not found or is not a
+	 * {@code float} field.
+	 */
+	public static OfFloat ofFloat(Class<?> clazz, String... names) {
+		return new OfFloat(findField(clazz, float.class, names));
+	}
+
+	/**
+	 * Returns an {@link OfDouble} for the {@code double} field with any of the specified names in
+	 * the specified class.
+	 *
+	 * @param clazz a class.
+	 * @param names an array of possible field names.
+	 * @return an {@link OfDouble}.
+	 * @throws IllegalArgumentException if the specified field is not found or is not a
+	 * {@code double} field.
+	 */
+	public static OfDouble ofDouble(Class<?> clazz, String... names) {
+		return new OfDouble(findField(clazz, double.class, names));
+	}
+
+	/**
+	 * Returns an {@link OfBoolean} for the {@code boolean} field with any of the specified names
+	 * in the specified class.
+	 *
+	 * @param clazz a class.
+	 * @param names an array of possible field names.
+	 * @return an {@link OfBoolean}.
+	 * @throws IllegalArgumentException if the specified field is not found or is not a
+	 * {@code boolean} field.
+	 */
+	public static OfBoolean ofBoolean(Class<?> clazz, String... names) {
+		return new OfBoolean(findField(clazz, boolean.class, names));
+	}
+
+	/**
+	 * Returns an {@link OfByte} for the {@code byte} field with any of the specified names
+	 * in the specified class.
+	 *
+	 * @param clazz a class.
+	 * @param names an array of possible field names.
+	 * @return an {@link OfByte}.
+	 * @throws IllegalArgumentException if the specified field is not found or is not a
+	 * {@code byte} field.
+	 */
+	public static OfByte ofByte(Class<?> clazz, String... names) {
+		return new OfByte(findField(clazz, byte.class, names));
+	}
+
+	/**
+	 * Returns an {@link OfShort} for the {@code short} field with any of the specified names
+	 * in the specified class.
+	 *
+	 * @param clazz a class.
+	 * @param names an array of possible field names.
+	 * @return an {@link OfShort}.
+	 * @throws IllegalArgumentException if the specified field is not found or is not a
+	 * {@code short} field.
+	 */
+	public static OfShort ofShort(Class<?> clazz, String... names) {
+		return new OfShort(findField(clazz, short.class, names));
+	}
+
+	/**
+	 * Returns an {@link OfChar} for the {@code char} field with any of the specified names
+	 * in the specified class.
+	 *
+	 * @param clazz a class.
+	 * @param names an array of possible field names.
+	 * @return an {@link OfChar}.
+	 * @throws IllegalArgumentException if the specified field is not found or is not a
+	 * {@code char} field.
+	 */
+	public static OfChar ofChar(Class<?> clazz, String... names) {
+		return new OfChar(findField(clazz, char.class, names));
+	}
+
+	/**
+	 * Returns an {@link OfObject} for the reference field with any of the specified names in
+	 * the specified class.
+	 *
+	 * @param clazz a class.
+	 * @param type the type of the field.
+	 * @param names an array of possible field names.
+	 * @param <T> the type of the field.
+	 * @return an {@link OfObject}.
+	 * @throws IllegalArgumentException if the specified field is not found or if its type is not
+	 * the specified type.
+	 */
+	public static <T> OfObject<T> ofObject(Class<?> clazz, Class<T> type, String... names) {
+		Preconditions.checkNotNull(type, "type should not be null");
+		Preconditions.checkArgument(!type.isPrimitive(), "type should not be primitive");
+		return new OfObject<>(findField(clazz, type, names), type);
+	}
+
+	private static Field findField(Class<?> clazz, Class<?> type, String... names) {
+		final Field field = FabricUtils.findField(clazz, names);
+
+		if (field.getType() != type) {
+			throw new IllegalArgumentException(
+					"Field " + field.getName() + " in " + clazz.getName() + " is of type " +
+							field.getType().getName() + ", not " + type.getName()
+			);
+		}
+
+		return field;
+	}
+
+	static RuntimeException propagate(Throwable throwable) {
+		Throwables.throwIfUnchecked(throwable);
+		throw new IllegalStateException(throwable);
+	}
+
+	/**
+	 * A {@link FieldAccessor} for {@code int} fields.
+	 */
+	public static final class OfInt extends FieldAccessor {
+		OfInt(Field field) {
+			super(field);
+		}
+
+		/**
+		 * Returns the value of the field using plain access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @return the value of the field.
+		 */
+		public int get(@Nullable Object instance) {
+			try {
+				return (int) getter.invokeExact(instance(instance));
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Sets the value of the field using plain access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @param value a value.
+		 */
+		public void set(@Nullable Object instance, int value) {
+			try {
+				setter.invokeExact(writableInstance(instance), value);
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Returns the value of the field using opaque access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @return the value of the field.
+		 */
+		public int getOpaque(@Nullable Object instance) {
+			try {
+				return (int) opaqueGetter.invokeExact(instance(instance));
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Sets the value of the field using opaque access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @param value a value.
+		 */
+		public void setOpaque(@Nullable Object instance, int value) {
+			try {
+				opaqueSetter.invokeExact(writableInstance(instance), value);
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Returns the value of the field using volatile access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @return the value of the field.
+		 */
+		public int getVolatile(@Nullable Object instance) {
+			try {
+				return (int) volatileGetter.invokeExact(instance(instance));
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Sets the value of the field using volatile access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @param value a value.
+		 */
+		public void setVolatile(@Nullable Object instance, int value) {
+			try {
+				volatileSetter.invokeExact(writableInstance(instance), value);
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+	}
+
+	/**
+	 * A {@link FieldAccessor} for {@code long} fields.
+	 */
+	public static final class OfLong extends FieldAccessor {
+		OfLong(Field field) {
+			super(field);
+		}
+
+		/**
+		 * Returns the value of the field using plain access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @return the value of the field.
+		 */
+		public long get(@Nullable Object instance) {
+			try {
+				return (long) getter.invokeExact(instance(instance));
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Sets the value of the field using plain access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @param value a value.
+		 */
+		public void set(@Nullable Object instance, long value) {
+			try {
+				setter.invokeExact(writableInstance(instance), value);
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Returns the value of the field using opaque access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @return the value of the field.
+		 */
+		public long getOpaque(@Nullable Object instance) {
+			try {
+				return (long) opaqueGetter.invokeExact(instance(instance));
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Sets the value of the field using opaque access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @param value a value.
+		 */
+		public void setOpaque(@Nullable Object instance, long value) {
+			try {
+				opaqueSetter.invokeExact(writableInstance(instance), value);
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Returns the value of the field using volatile access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @return the value of the field.
+		 */
+		public long getVolatile(@Nullable Object instance) {
+			try {
+				return (long) volatileGetter.invokeExact(instance(instance));
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Sets the value of the field using volatile access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @param value a value.
+		 */
+		public void setVolatile(@Nullable Object instance, long value) {
+			try {
+				volatileSetter.invokeExact(writableInstance(instance), value);
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+	}
+
+	/**
+	 * A {@link FieldAccessor} for {@code float} fields.
+	 */
+	public static final class OfFloat extends FieldAccessor {
+		OfFloat(Field field) {
+			super(field);
+		}
+
+		/**
+		 * Returns the value of the field using plain access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @return the value of the field.
+		 */
+		public float get(@Nullable Object instance) {
+			try {
+				return (float) getter.invokeExact(instance(instance));
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Sets the value of the field using plain access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @param value a value.
+		 */
+		public void set(@Nullable Object instance, float value) {
+			try {
+				setter.invokeExact(writableInstance(instance), value);
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Returns the value of the field using opaque access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @return the value of the field.
+		 */
+		public float getOpaque(@Nullable Object instance) {
+			try {
+				return (float) opaqueGetter.invokeExact(instance(instance));
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Sets the value of the field using opaque access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @param value a value.
+		 */
+		public void setOpaque(@Nullable Object instance, float value) {
+			try {
+				opaqueSetter.invokeExact(writableInstance(instance), value);
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Returns the value of the field using volatile access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @return the value of the field.
+		 */
+		public float getVolatile(@Nullable Object instance) {
+			try {
+				return (float) volatileGetter.invokeExact(instance(instance));
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Sets the value of the field using volatile access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @param value a value.
+		 */
+		public void setVolatile(@Nullable Object instance, float value) {
+			try {
+				volatileSetter.invokeExact(writableInstance(instance), value);
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+	}
+
+	/**
+	 * A {@link FieldAccessor} for {@code double} fields.
+	 */
+	public static final class OfDouble extends FieldAccessor {
+		OfDouble(Field field) {
+			super(field);
+		}
+
+		/**
+		 * Returns the value of the field using plain access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @return the value of the field.
+		 */
+		public double get(@Nullable Object instance) {
+			try {
+				return (double) getter.invokeExact(instance(instance));
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Sets the value of the field using plain access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @param value a value.
+		 */
+		public void set(@Nullable Object instance, double value) {
+			try {
+				setter.invokeExact(writableInstance(instance), value);
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Returns the value of the field using opaque access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @return the value of the field.
+		 */
+		public double getOpaque(@Nullable Object instance) {
+			try {
+				return (double) opaqueGetter.invokeExact(instance(instance));
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Sets the value of the field using opaque access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @param value a value.
+		 */
+		public void setOpaque(@Nullable Object instance, double value) {
+			try {
+				opaqueSetter.invokeExact(writableInstance(instance), value);
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Returns the value of the field using volatile access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @return the value of the field.
+		 */
+		public double getVolatile(@Nullable Object instance) {
+			try {
+				return (double) volatileGetter.invokeExact(instance(instance));
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Sets the value of the field using volatile access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @param value a value.
+		 */
+		public void setVolatile(@Nullable Object instance, double value) {
+			try {
+				volatileSetter.invokeExact(writableInstance(instance), value);
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+	}
+
+	/**
+	 * A {@link FieldAccessor} for {@code boolean} fields.
+	 */
+	public static final class OfBoolean extends FieldAccessor {
+		OfBoolean(Field field) {
+			super(field);
+		}
+
+		/**
+		 * Returns the value of the field using plain access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @return the value of the field.
+		 */
+		public boolean get(@Nullable Object instance) {
+			try {
+				return (boolean) getter.invokeExact(instance(instance));
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Sets the value of the field using plain access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @param value a value.
+		 */
+		public void set(@Nullable Object instance, boolean value) {
+			try {
+				setter.invokeExact(writableInstance(instance), value);
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Returns the value of the field using opaque access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @return the value of the field.
+		 */
+		public boolean getOpaque(@Nullable Object instance) {
+			try {
+				return (boolean) opaqueGetter.invokeExact(instance(instance));
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Sets the value of the field using opaque access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @param value a value.
+		 */
+		public void setOpaque(@Nullable Object instance, boolean value) {
+			try {
+				opaqueSetter.invokeExact(writableInstance(instance), value);
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Returns the value of the field using volatile access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @return the value of the field.
+		 */
+		public boolean getVolatile(@Nullable Object instance) {
+			try {
+				return (boolean) volatileGetter.invokeExact(instance(instance));
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Sets the value of the field using volatile access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @param value a value.
+		 */
+		public void setVolatile(@Nullable Object instance, boolean value) {
+			try {
+				volatileSetter.invokeExact(writableInstance(instance), value);
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+	}
+
+	/**
+	 * A {@link FieldAccessor} for {@code byte} fields.
+	 */
+	public static final class OfByte extends FieldAccessor {
+		OfByte(Field field) {
+			super(field);
+		}
+
+		/**
+		 * Returns the value of the field using plain access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @return the value of the field.
+		 */
+		public byte get(@Nullable Object instance) {
+			try {
+				return (byte) getter.invokeExact(instance(instance));
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Sets the value of the field using plain access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @param value a value.
+		 */
+		public void set(@Nullable Object instance, byte value) {
+			try {
+				setter.invokeExact(writableInstance(instance), value);
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Returns the value of the field using opaque access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @return the value of the field.
+		 */
+		public byte getOpaque(@Nullable Object instance) {
+			try {
+				return (byte) opaqueGetter.invokeExact(instance(instance));
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Sets the value of the field using opaque access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @param value a value.
+		 */
+		public void setOpaque(@Nullable Object instance, byte value) {
+			try {
+				opaqueSetter.invokeExact(writableInstance(instance), value);
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Returns the value of the field using volatile access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @return the value of the field.
+		 */
+		public byte getVolatile(@Nullable Object instance) {
+			try {
+				return (byte) volatileGetter.invokeExact(instance(instance));
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Sets the value of the field using volatile access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @param value a value.
+		 */
+		public void setVolatile(@Nullable Object instance, byte value) {
+			try {
+				volatileSetter.invokeExact(writableInstance(instance), value);
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+	}
+
+	/**
+	 * A {@link FieldAccessor} for {@code short} fields.
+	 */
+	public static final class OfShort extends FieldAccessor {
+		OfShort(Field field) {
+			super(field);
+		}
+
+		/**
+		 * Returns the value of the field using plain access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @return the value of the field.
+		 */
+		public short get(@Nullable Object instance) {
+			try {
+				return (short) getter.invokeExact(instance(instance));
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Sets the value of the field using plain access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @param value a value.
+		 */
+		public void set(@Nullable Object instance, short value) {
+			try {
+				setter.invokeExact(writableInstance(instance), value);
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Returns the value of the field using opaque access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @return the value of the field.
+		 */
+		public short getOpaque(@Nullable Object instance) {
+			try {
+				return (short) opaqueGetter.invokeExact(instance(instance));
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Sets the value of the field using opaque access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @param value a value.
+		 */
+		public void setOpaque(@Nullable Object instance, short value) {
+			try {
+				opaqueSetter.invokeExact(writableInstance(instance), value);
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Returns the value of the field using volatile access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @return the value of the field.
+		 */
+		public short getVolatile(@Nullable Object instance) {
+			try {
+				return (short) volatileGetter.invokeExact(instance(instance));
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Sets the value of the field using volatile access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @param value a value.
+		 */
+		public void setVolatile(@Nullable Object instance, short value) {
+			try {
+				volatileSetter.invokeExact(writableInstance(instance), value);
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+	}
+
+	/**
+	 * A {@link FieldAccessor} for {@code char} fields.
+	 */
+	public static final class OfChar extends FieldAccessor {
+		OfChar(Field field) {
+			super(field);
+		}
+
+		/**
+		 * Returns the value of the field using plain access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @return the value of the field.
+		 */
+		public char get(@Nullable Object instance) {
+			try {
+				return (char) getter.invokeExact(instance(instance));
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Sets the value of the field using plain access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @param value a value.
+		 */
+		public void set(@Nullable Object instance, char value) {
+			try {
+				setter.invokeExact(writableInstance(instance), value);
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Returns the value of the field using opaque access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @return the value of the field.
+		 */
+		public char getOpaque(@Nullable Object instance) {
+			try {
+				return (char) opaqueGetter.invokeExact(instance(instance));
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Sets the value of the field using opaque access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @param value a value.
+		 */
+		public void setOpaque(@Nullable Object instance, char value) {
+			try {
+				opaqueSetter.invokeExact(writableInstance(instance), value);
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Returns the value of the field using volatile access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @return the value of the field.
+		 */
+		public char getVolatile(@Nullable Object instance) {
+			try {
+				return (char) volatileGetter.invokeExact(instance(instance));
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Sets the value of the field using volatile access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @param value a value.
+		 */
+		public void setVolatile(@Nullable Object instance, char value) {
+			try {
+				volatileSetter.invokeExact(writableInstance(instance), value);
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+	}
+
+	/**
+	 * A {@link FieldAccessor} for reference fields.
+	 *
+	 * @param <T> the type of the field.
+	 */
+	public static final class OfObject<T> extends FieldAccessor {
+		private final Class<T> type;
+
+		OfObject(Field field, Class<T> type) {
+			super(field);
+			this.type = type;
+		}
+
+		/**
+		 * Returns the value of the field using plain access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @return the value of the field.
+		 */
+		@SuppressWarnings("unchecked")
+		@Nullable
+		public T get(@Nullable Object instance) {
+			try {
+				return (T) getter.invokeExact(instance(instance));
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Sets the value of the field using plain access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @param value a value.
+		 */
+		public void set(@Nullable Object instance, @Nullable T value) {
+			try {
+				setter.invokeExact(writableInstance(instance), (Object) type.cast(value));
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Returns the value of the field using opaque access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @return the value of the field.
+		 */
+		@SuppressWarnings("unchecked")
+		@Nullable
+		public T getOpaque(@Nullable Object instance) {
+			try {
+				return (T) opaqueGetter.invokeExact(instance(instance));
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Sets the value of the field using opaque access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @param value a value.
+		 */
+		public void setOpaque(@Nullable Object instance, @Nullable T value) {
+			try {
+				opaqueSetter.invokeExact(writableInstance(instance), (Object) type.cast(value));
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Returns the value of the field using volatile access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @return the value of the field.
+		 */
+		@SuppressWarnings("unchecked")
+		@Nullable
+		public T getVolatile(@Nullable Object instance) {
+			try {
+				return (T) volatileGetter.invokeExact(instance(instance));
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		/**
+		 * Sets the value of the field using volatile access.
+		 *
+		 * @param instance an instance of the declaring class, or {@code null} for static fields.
+		 * @param value a value.
+		 */
+		public void setVolatile(@Nullable Object instance, @Nullable T value) {
+			try {
+				volatileSetter.invokeExact(writableInstance(instance), (Object) type.cast(value));
+			} catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+	}
+}
@@ -0,0 +1,198 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import com.google.common.base.Throwables;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Creates the {@link MethodHandle}s that back {@link FieldAccessor}s.
+ * All handles take the instance as their first argument, which is ignored for static fields.
+ * <p>
+ * Plain access uses {@link MethodHandles.Lookup#unreflectGetter(Field)} and
+ * {@link MethodHandles.Lookup#unreflectSetter(Field)}. Opaque and volatile access uses the
+ * access modes of {@code VarHandle} on Java 9 and newer. Since {@code VarHandle} cannot be
+ * referenced at compile time on Java 8, it is only used reflectively, and {@link UnsafeAccess} is
+ * used instead where it is unavailable.
+ */
+final class FieldHandles {
+	private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+	@Nullable
+	private static final Class<?> varHandleClass = getClass("java.lang.invoke.VarHandle");
+	@Nullable
+	private static final Class<?> accessModeClass =
+			getClass("java.lang.invoke.VarHandle$AccessMode");
+	@Nullable
+	private static final MethodHandle unreflectVarHandle = varHandleClass == null ?
+			null : findVirtual(
+					MethodHandles.Lookup.class, "unreflectVarHandle",
+					MethodType.methodType(varHandleClass, Field.class)
+			);
+	@Nullable
+	private static final MethodHandle toMethodHandle =
+			varHandleClass == null || accessModeClass == null ? null : findVirtual(
+					varHandleClass, "toMethodHandle",
+					MethodType.methodType(MethodHandle.class, accessModeClass)
+			);
+
+	private final Field field;
+	private final boolean isStatic;
+	private final MethodType getterType;
+	private final MethodType setterType;
+	@Nullable
+	private final Object varHandle;
+
+	FieldHandles(Field field) {
+		this.field = field;
+		isStatic = Modifier.isStatic(field.getModifiers());
+
+		final Class<?> type = field.getType().isPrimitive() ? field.getType() : Object.class;
+		getterType = MethodType.methodType(type, Object.class);
+		setterType = MethodType.methodType(void.class, Object.class, type);
+
+		varHandle = getVarHandle(field);
+	}
+
+	MethodHandle getter() {
+		try {
+			return adapt(lookup.unreflectGetter(field), getterType);
+		} catch (IllegalAccessException ex) {
+			throw new IllegalArgumentException("Failed to access field: " + field, ex);
+		}
+	}
+
+	MethodHandle setter(boolean writable) {
+		if (!writable) {
+			return unsupported();
+		}
+
+		try {
+			return adapt(lookup.unreflectSetter(field), setterType);
+		} catch (IllegalAccessException ex) {
+			throw new IllegalArgumentException("Failed to access field: " + field, ex);
+		}
+	}
+
+	MethodHandle opaqueGetter() {
+		return varHandle == null ?
+				UnsafeAccess.getVolatile(field) : accessMode("GET_OPAQUE", getterType);
+	}
+
+	MethodHandle opaqueSetter(boolean writable) {
+		if (!writable) {
+			return unsupported();
+		}
+
+		return varHandle == null ?
+				UnsafeAccess.putOrdered(field) : accessMode("SET_OPAQUE", setterType);
+	}
+
+	MethodHandle volatileGetter() {
+		return varHandle == null ?
+				UnsafeAccess.getVolatile(field) : accessMode("GET_VOLATILE", getterType);
+	}
+
+	MethodHandle volatileSetter(boolean writable) {
+		if (!writable) {
+			return unsupported();
+		}
+
+		return varHandle == null ?
+				UnsafeAccess.putVolatile(field) : accessMode("SET_VOLATILE", setterType);
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private MethodHandle accessMode(String name, MethodType type) {
+		try {
+			//The fields are never null if varHandle is not null.
+			return adapt((MethodHandle) toMethodHandle.invoke(
+					varHandle, Enum.valueOf((Class<? extends Enum>) accessModeClass, name)
+			), type);
+		} catch (Throwable throwable) {
+			Throwables.throwIfUnchecked(throwable);
+			throw new IllegalStateException(throwable);
+		}
+	}
+
+	private MethodHandle adapt(MethodHandle handle, MethodType type) {
+		if (isStatic) {
+			handle = MethodHandles.dropArguments(handle, 0, Object.class);
+		}
+
+		return handle.asType(type);
+	}
+
+	//FieldAccessor throws before the setters of static final fields are called.
+	private MethodHandle unsupported() {
+		return MethodHandles.dropArguments(
+				MethodHandles.constant(Object.class, null), 0, setterType.parameterList()
+		).asType(setterType);
+	}
+
+	@Nullable
+	private static Object getVarHandle(Field field) {
+		if (unreflectVarHandle == null || toMethodHandle == null) {
+			return null;
+		}
+
+		//Unlike unreflectGetter, unreflectVarHandle ignores whether the field is accessible.
+		final MethodHandles.Lookup privateLookup =
+				InvokerFactory.getPrivateLookup(field.getDeclaringClass());
+
+		if (privateLookup == null) {
+			return null;
+		}
+
+		try {
+			return unreflectVarHandle.invoke(privateLookup, field);
+		} catch (Throwable throwable) {
+			Throwables.throwIfUnchecked(throwable);
+			throw new IllegalStateException(throwable);
+		}
+	}
+
+	@Nullable
+	private static Class<?> getClass(String name) {
+		try {
+			return Class.forName(name);
+		} catch (ClassNotFoundException ex) {
+			return null;
+		}
+	}
+
+	private static MethodHandle findVirtual(Class<?> clazz, String name, MethodType type) {
+		try {
+			return MethodHandles.publicLookup().findVirtual(clazz, name, type);
+		} catch (ReflectiveOperationException ex) {
+			throw new IllegalStateException("Failed to find " + clazz.getName() + "#" + name, ex);
+		}
+	}
+}
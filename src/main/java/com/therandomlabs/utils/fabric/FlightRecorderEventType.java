@@ -0,0 +1,312 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Represents a Java Flight Recorder event type that is defined at runtime using
+ * {@code jdk.jfr.EventFactory}, so that it does not have to be referenced at compile time.
+ * On Java versions without Java Flight Recorder, {@link #isEnabled()} always returns
+ * {@code false}.
+ * <p>
+ * Events should be recorded as follows so that nothing is allocated when no recording is
+ * running:
+ * <pre>
+ * final Object event = EVENT_TYPE.begin();
+ * //Do something.
+ * if (event != null) {
+ *     EVENT_TYPE.commit(event, value1, value2);
+ * }
+ * </pre>
+ */
+public final class FlightRecorderEventType {
+	private static final String CATEGORY = "TRLUtils-Fabric";
+
+	@Nullable
+	private static final Api api = Api.create();
+
+	@Nullable
+	private final MethodHandle newEvent;
+	@Nullable
+	private final MethodHandle isEnabled;
+	private final int valueCount;
+
+	private FlightRecorderEventType(
+			@Nullable MethodHandle newEvent, @Nullable MethodHandle isEnabled, int valueCount
+	) {
+		this.newEvent = newEvent;
+		this.isEnabled = isEnabled;
+		this.valueCount = valueCount;
+	}
+
+	/**
+	 * Returns whether events of this type are enabled and a recording is running.
+	 *
+	 * @return {@code true} if events of this type should be recorded, or otherwise
+	 * {@code false}.
+	 */
+	public boolean isEnabled() {
+		if (isEnabled == null) {
+			return false;
+		}
+
+		try {
+			return (boolean) isEnabled.invokeExact();
+		} catch (Throwable throwable) {
+			throw propagate(throwable);
+		}
+	}
+
+	/**
+	 * Creates and begins timing an event if events of this type are enabled.
+	 *
+	 * @return an event, or {@code null} if events of this type are not enabled.
+	 */
+	@SuppressWarnings("NullAway")
+	@Nullable
+	public Object begin() {
+		if (!isEnabled()) {
+			return null;
+		}
+
+		try {
+			final Object event = (Object) newEvent.invokeExact();
+			api.begin.invokeExact(event);
+			return event;
+		} catch (Throwable throwable) {
+			throw propagate(throwable);
+		}
+	}
+
+	/**
+	 * Sets the values of the specified event and commits it.
+	 *
+	 * @param event an event returned by {@link #begin()}.
+	 * @param values the values of the event in the order in which they were defined.
+	 */
+	@SuppressWarnings("NullAway")
+	public void commit(Object event, Object... values) {
+		Preconditions.checkNotNull(event, "event should not be null");
+		Preconditions.checkNotNull(values, "values should not be null");
+		Preconditions.checkArgument(
+				values.length == valueCount, "values should contain %s values", valueCount
+		);
+
+		try {
+			for (int i = 0; i < values.length; i++) {
+				api.set.invokeExact(event, i, values[i]);
+			}
+
+			api.commit.invokeExact(event);
+		} catch (Throwable throwable) {
+			throw propagate(throwable);
+		}
+	}
+
+	/**
+	 * Creates a {@link FlightRecorderEventType}. Event types created by TRLUtils-Fabric and
+	 * the mods that use it are placed in the {@code TRLUtils-Fabric} category.
+	 *
+	 * @param name the unique name of the event type, for example
+	 * {@code com.example.ConfigReload}.
+	 * @param label the human-readable name of the event type.
+	 * @param values the values of the event type.
+	 * @return a {@link FlightRecorderEventType}.
+	 */
+	public static FlightRecorderEventType create(String name, String label, Value... values) {
+		Preconditions.checkNotNull(name, "name should not be null");
+		Preconditions.checkNotNull(label, "label should not be null");
+		Preconditions.checkNotNull(values, "values should not be null");
+
+		if (api == null) {
+			return new FlightRecorderEventType(null, null, values.length);
+		}
+
+		try {
+			return api.createEventType(name, label, values);
+		} catch (Throwable throwable) {
+			throw propagate(throwable);
+		}
+	}
+
+	private static RuntimeException propagate(Throwable throwable) {
+		Throwables.throwIfUnchecked(throwable);
+		throw new IllegalStateException(throwable);
+	}
+
+	/**
+	 * Describes a value of a {@link FlightRecorderEventType}.
+	 */
+	public static final class Value {
+		private final String name;
+		private final Class<?> type;
+		private final boolean timespan;
+
+		private Value(String name, Class<?> type, boolean timespan) {
+			this.name = name;
+			this.type = type;
+			this.timespan = timespan;
+		}
+
+		/**
+		 * Returns a {@link Value} with the specified name and type.
+		 *
+		 * @param name a value name.
+		 * @param type a primitive type or {@link String}.
+		 * @return a {@link Value} with the specified name and type.
+		 */
+		public static Value of(String name, Class<?> type) {
+			Preconditions.checkNotNull(name, "name should not be null");
+			Preconditions.checkNotNull(type, "type should not be null");
+			Preconditions.checkArgument(
+					type.isPrimitive() || type == String.class,
+					"type should be a primitive type or String"
+			);
+			return new Value(name, type, false);
+		}
+
+		/**
+		 * Returns a {@link Value} with the specified name that contains a duration
+		 * in nanoseconds as a {@code long}.
+		 *
+		 * @param name a value name.
+		 * @return a {@link Value} with the specified name that contains a duration.
+		 */
+		public static Value timespan(String name) {
+			Preconditions.checkNotNull(name, "name should not be null");
+			return new Value(name, long.class, true);
+		}
+	}
+
+	private static final class Api {
+		final MethodHandle newAnnotationElement;
+		final MethodHandle newValueDescriptor;
+		final MethodHandle createEventFactory;
+		final MethodHandle newEvent;
+		final MethodHandle getEventType;
+		final MethodHandle isEnabled;
+		final MethodHandle begin;
+		final MethodHandle set;
+		final MethodHandle commit;
+		final Class<?> nameClass;
+		final Class<?> labelClass;
+		final Class<?> categoryClass;
+		final Class<?> timespanClass;
+
+		Api() throws ReflectiveOperationException {
+			final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+			final Class<?> annotationElementClass = Class.forName("jdk.jfr.AnnotationElement");
+			final Class<?> valueDescriptorClass = Class.forName("jdk.jfr.ValueDescriptor");
+			final Class<?> eventFactoryClass = Class.forName("jdk.jfr.EventFactory");
+			final Class<?> eventTypeClass = Class.forName("jdk.jfr.EventType");
+			final Class<?> eventClass = Class.forName("jdk.jfr.Event");
+
+			newAnnotationElement = lookup.findConstructor(
+					annotationElementClass,
+					MethodType.methodType(void.class, Class.class, Object.class)
+			).asType(MethodType.methodType(Object.class, Class.class, Object.class));
+			newValueDescriptor = lookup.findConstructor(
+					valueDescriptorClass,
+					MethodType.methodType(void.class, Class.class, String.class, List.class)
+			).asType(MethodType.methodType(Object.class, Class.class, String.class, List.class));
+			createEventFactory = lookup.findStatic(
+					eventFactoryClass, "create",
+					MethodType.methodType(eventFactoryClass, List.class, List.class)
+			).asType(MethodType.methodType(Object.class, List.class, List.class));
+			newEvent = lookup.findVirtual(
+					eventFactoryClass, "newEvent", MethodType.methodType(eventClass)
+			);
+			getEventType = lookup.findVirtual(
+					eventFactoryClass, "getEventType", MethodType.methodType(eventTypeClass)
+			);
+			isEnabled = lookup.findVirtual(
+					eventTypeClass, "isEnabled", MethodType.methodType(boolean.class)
+			);
+			begin = lookup.findVirtual(eventClass, "begin", MethodType.methodType(void.class)).
+					asType(MethodType.methodType(void.class, Object.class));
+			set = lookup.findVirtual(
+					eventClass, "set", MethodType.methodType(void.class, int.class, Object.class)
+			).asType(MethodType.methodType(void.class, Object.class, int.class, Object.class));
+			commit = lookup.findVirtual(eventClass, "commit", MethodType.methodType(void.class)).
+					asType(MethodType.methodType(void.class, Object.class));
+			nameClass = Class.forName("jdk.jfr.Name");
+			labelClass = Class.forName("jdk.jfr.Label");
+			categoryClass = Class.forName("jdk.jfr.Category");
+			timespanClass = Class.forName("jdk.jfr.Timespan");
+		}
+
+		FlightRecorderEventType createEventType(String name, String label, Value[] values)
+				throws Throwable {
+			final List<Object> annotations = new ArrayList<>();
+			annotations.add(newAnnotation(nameClass, name));
+			annotations.add(newAnnotation(labelClass, label));
+			annotations.add(newAnnotation(categoryClass, new String[] {CATEGORY}));
+
+			final List<Object> valueDescriptors = new ArrayList<>(values.length);
+
+			for (Value value : values) {
+				final List<Object> valueAnnotations = value.timespan ?
+						Collections.singletonList(newAnnotation(timespanClass, "NANOSECONDS")) :
+						Collections.emptyList();
+				valueDescriptors.add(newValueDescriptor.invokeExact(
+						value.type, value.name, (List<?>) valueAnnotations
+				));
+			}
+
+			final Object factory = (Object) createEventFactory.invokeExact(
+					(List<?>) annotations, (List<?>) valueDescriptors
+			);
+			final Object eventType = getEventType.invoke(factory);
+
+			return new FlightRecorderEventType(
+					newEvent.bindTo(factory).asType(MethodType.methodType(Object.class)),
+					isEnabled.bindTo(eventType),
+					values.length
+			);
+		}
+
+		private Object newAnnotation(Class<?> annotationClass, Object value) throws Throwable {
+			return (Object) newAnnotationElement.invokeExact(annotationClass, value);
+		}
+
+		@Nullable
+		static Api create() {
+			try {
+				return new Api();
+			} catch (ReflectiveOperationException | LinkageError ex) {
+				return null;
+			}
+		}
+	}
+}
@@ -0,0 +1,217 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandleProxies;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Creates {@link MethodHandle}s and functional interface implementations for methods retrieved
+ * using {@link FabricUtils#findMethod(Class, String, String, Class[])}.
+ */
+final class InvokerFactory {
+	private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+	//MethodHandles#privateLookupIn is only available on Java 9 and newer. It is looked up
+	//directly rather than through MemberCache so that it does not count towards the hit and miss
+	//statistics of mapped lookups.
+	@Nullable
+	private static final Method privateLookupIn = getPrivateLookupIn();
+
+	private InvokerFactory() {}
+
+	static MethodHandle unreflect(Method method) {
+		try {
+			return lookup.unreflect(method);
+		} catch (IllegalAccessException ex) {
+			throw new IllegalStateException("Failed to unreflect method: " + method, ex);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	static <T> T createInvoker(Class<T> functionalInterface, Method method) {
+		final Method samMethod = getSingleAbstractMethod(functionalInterface);
+		final MethodHandle handle = unreflect(method);
+		final MethodType samType =
+				MethodType.methodType(samMethod.getReturnType(), samMethod.getParameterTypes());
+		MethodHandles.Lookup callerLookup = getPrivateLookup(method.getDeclaringClass());
+
+		if (callerLookup == null) {
+			//Without a private lookup, the generated class is defined in this package, so it can
+			//only call public methods whose signatures only contain public types. Otherwise,
+			//it would be created successfully but fail with an IllegalAccessError when it is
+			//first called.
+			if (!isPubliclyAccessible(method)) {
+				return createProxy(functionalInterface, handle, samType);
+			}
+
+			callerLookup = lookup;
+		}
+
+		try {
+			final CallSite callSite = LambdaMetafactory.metafactory(
+					callerLookup,
+					samMethod.getName(),
+					MethodType.methodType(functionalInterface),
+					samType,
+					handle,
+					getInstantiatedType(samType, handle.type())
+			);
+			return (T) callSite.getTarget().invoke();
+		} catch (LambdaConversionException | IllegalArgumentException | IllegalAccessError ex) {
+			//The method is not accessible from a generated class or its signature cannot be
+			//adapted directly, so we fall back to a slower proxy.
+			return createProxy(functionalInterface, handle, samType);
+		} catch (Throwable throwable) {
+			throw new IllegalStateException(
+					"Failed to create invoker for method: " + method, throwable
+			);
+		}
+	}
+
+	private static <T> T createProxy(
+			Class<T> functionalInterface, MethodHandle handle, MethodType samType
+	) {
+		return MethodHandleProxies.asInterfaceInstance(functionalInterface, handle.asType(samType));
+	}
+
+	private static Method getSingleAbstractMethod(Class<?> functionalInterface) {
+		if (!functionalInterface.isInterface()) {
+			throw new IllegalArgumentException(
+					functionalInterface.getName() + " is not an interface"
+			);
+		}
+
+		Method samMethod = null;
+
+		for (Method method : functionalInterface.getMethods()) {
+			if (!Modifier.isAbstract(method.getModifiers()) || isObjectMethod(method)) {
+				continue;
+			}
+
+			if (samMethod != null) {
+				throw new IllegalArgumentException(
+						functionalInterface.getName() + " is not a functional interface"
+				);
+			}
+
+			samMethod = method;
+		}
+
+		if (samMethod == null) {
+			throw new IllegalArgumentException(
+					functionalInterface.getName() + " is not a functional interface"
+			);
+		}
+
+		return samMethod;
+	}
+
+	private static boolean isObjectMethod(Method method) {
+		try {
+			Object.class.getMethod(method.getName(), method.getParameterTypes());
+			return true;
+		} catch (NoSuchMethodException ignored) {}
+
+		return false;
+	}
+
+	private static MethodType getInstantiatedType(MethodType samType, MethodType implType) {
+		if (samType.parameterCount() != implType.parameterCount()) {
+			return samType;
+		}
+
+		MethodType instantiatedType = samType;
+
+		//Reference parameters are narrowed to the implementation types so that, for example,
+		//a functional interface may accept Object where the method expects Entity or int.
+		for (int i = 0; i < samType.parameterCount(); i++) {
+			final Class<?> samParameter = samType.parameterType(i);
+			final Class<?> implParameter =
+					MethodType.methodType(implType.parameterType(i)).wrap().returnType();
+
+			if (!samParameter.isPrimitive() && samParameter.isAssignableFrom(implParameter)) {
+				instantiatedType = instantiatedType.changeParameterType(i, implParameter);
+			}
+		}
+
+		return instantiatedType;
+	}
+
+	//Returns null on Java 8 or if the class is in a module that is not open to this one.
+	@Nullable
+	static MethodHandles.Lookup getPrivateLookup(Class<?> clazz) {
+		if (privateLookupIn != null) {
+			try {
+				return (MethodHandles.Lookup) privateLookupIn.invoke(null, clazz, lookup);
+			} catch (ReflectiveOperationException ignored) {}
+		}
+
+		return null;
+	}
+
+	@Nullable
+	private static Method getPrivateLookupIn() {
+		try {
+			return MethodHandles.class.getMethod(
+					"privateLookupIn", Class.class, MethodHandles.Lookup.class
+			);
+		} catch (NoSuchMethodException ex) {
+			return null;
+		}
+	}
+
+	private static boolean isPubliclyAccessible(Method method) {
+		if (!Modifier.isPublic(method.getModifiers()) || !isPublic(method.getDeclaringClass()) ||
+				!isPublic(method.getReturnType())) {
+			return false;
+		}
+
+		for (Class<?> parameterType : method.getParameterTypes()) {
+			if (!isPublic(parameterType)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	//Protected nested classes are treated as inaccessible, which is only ever overly cautious.
+	private static boolean isPublic(Class<?> clazz) {
+		while (clazz.isArray()) {
+			clazz = clazz.getComponentType();
+		}
+
+		return clazz.isPrimitive() || Modifier.isPublic(clazz.getModifiers());
+	}
+}
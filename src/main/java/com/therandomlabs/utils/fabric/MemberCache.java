@@ -0,0 +1,465 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import net.fabricmc.loader.api.MappingResolver;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Memoizes the results of {@link FabricUtils#findFieldNullable(Class, String...)} and
+ * {@link FabricUtils#findMethodNullable(Class, String, String, Class[])}.
+ * Both found and missing members are cached, as the declared members of a class never change.
+ * Cache misses are resolved using a name index that is built in a single pass over the
+ * declared members of the class.
+ * <p>
+ * Members can also be looked up by their names and descriptors in a mapping namespace such as
+ * {@code intermediary}, which are mapped to their runtime names and descriptors using the
+ * {@link MappingResolver} of {@link FabricUtils#LOADER}. These lookups are resolved using a
+ * separate index of the declared members by runtime name and descriptor.
+ */
+final class MemberCache {
+	private static final ClassValue<MemberCache> caches = new ClassValue<MemberCache>() {
+		@Override
+		protected MemberCache computeValue(Class<?> type) {
+			return new MemberCache(type);
+		}
+	};
+
+	private static final LongAdder hits = new LongAdder();
+	private static final LongAdder misses = new LongAdder();
+
+	//Cache hits are looked up using a reusable key for each thread so that they do not
+	//allocate. The keys that are stored in the caches are never modified.
+	private static final ThreadLocal<FieldKey> fieldProbes = ThreadLocal.withInitial(FieldKey::new);
+	private static final ThreadLocal<MethodKey> methodProbes =
+			ThreadLocal.withInitial(MethodKey::new);
+
+	private final Class<?> clazz;
+	private final ConcurrentMap<FieldKey, Optional<Field>> fields = new ConcurrentHashMap<>();
+	private final ConcurrentMap<MethodKey, Optional<Method>> methods = new ConcurrentHashMap<>();
+	//Mapped lookups are keyed by namespace, name and descriptor.
+	private final ConcurrentMap<String, Optional<Member>> mappedMembers = new ConcurrentHashMap<>();
+
+	@Nullable
+	private volatile FieldIndex fieldIndex;
+	@Nullable
+	private volatile MethodIndex methodIndex;
+	//Fields are keyed by name, a colon and descriptor, and methods by name and descriptor.
+	@Nullable
+	private volatile Map<String, Member> descriptorIndex;
+
+	private MemberCache(Class<?> clazz) {
+		this.clazz = clazz;
+	}
+
+	@Nullable
+	Field findField(String[] names) {
+		final FieldKey probe = fieldProbes.get().set(names);
+		final Optional<Field> field = fields.get(probe);
+		//The probe should not keep the names reachable.
+		probe.set(null);
+
+		if (field != null) {
+			hits.increment();
+			return field.orElse(null);
+		}
+
+		misses.increment();
+		//The names array is copied so that callers cannot modify the key after it is cached.
+		return fields.computeIfAbsent(
+				new FieldKey().set(names.clone()), key -> Optional.ofNullable(scanField(key.names))
+		).orElse(null);
+	}
+
+	@Nullable
+	Method findMethod(String name, String obfuscatedName, Class<?>[] parameterTypes) {
+		final MethodKey probe = methodProbes.get().set(name, obfuscatedName, parameterTypes);
+		final Optional<Method> method = methods.get(probe);
+		probe.set(null, null, null);
+
+		if (method != null) {
+			hits.increment();
+			return method.orElse(null);
+		}
+
+		misses.increment();
+		return methods.computeIfAbsent(
+				new MethodKey().set(name, obfuscatedName, parameterTypes.clone()),
+				key -> Optional.ofNullable(
+						scanMethod(key.name, key.obfuscatedName, key.parameterTypes)
+				)
+		).orElse(null);
+	}
+
+	@Nullable
+	Field findMappedField(String namespace, String name, String descriptor) {
+		return (Field) findMapped(namespace, name, descriptor, true);
+	}
+
+	@Nullable
+	Method findMappedMethod(String namespace, String name, String descriptor) {
+		return (Method) findMapped(namespace, name, descriptor, false);
+	}
+
+	@Nullable
+	Member find(MemberSpec spec) {
+		return spec.isField() ?
+				findField(spec.getNames()) :
+				findMethod(spec.getName(), spec.getObfuscatedName(), spec.getParameterTypes());
+	}
+
+	@Nullable
+	private Member findMapped(String namespace, String name, String descriptor, boolean field) {
+		final String key = namespace + ' ' + name + (field ? ":" : "") + descriptor;
+		final Optional<Member> member = mappedMembers.get(key);
+
+		if (member != null) {
+			hits.increment();
+			return member.orElse(null);
+		}
+
+		misses.increment();
+		return mappedMembers.computeIfAbsent(
+				key, k -> Optional.ofNullable(scanMapped(namespace, name, descriptor, field))
+		).orElse(null);
+	}
+
+	@Nullable
+	private Member scanMapped(String namespace, String name, String descriptor, boolean field) {
+		final MappingResolver resolver = FabricUtils.LOADER.getMappingResolver();
+		String runtimeName = name;
+		String runtimeDescriptor = descriptor;
+
+		if (!namespace.equals(resolver.getCurrentRuntimeNamespace())) {
+			//Names in namespaces that are unavailable, such as named in production
+			//environments, cannot be mapped.
+			if (!resolver.getNamespaces().contains(namespace)) {
+				return null;
+			}
+
+			final String owner = resolver.unmapClassName(namespace, clazz.getName());
+			runtimeName = field ?
+					resolver.mapFieldName(namespace, owner, name, descriptor) :
+					resolver.mapMethodName(namespace, owner, name, descriptor);
+			runtimeDescriptor = mapDescriptor(resolver, namespace, descriptor);
+		}
+
+		Map<String, Member> index = descriptorIndex;
+
+		if (index == null) {
+			final Field[] declaredFields = clazz.getDeclaredFields();
+			final Method[] declaredMethods = clazz.getDeclaredMethods();
+			index = new HashMap<>((declaredFields.length + declaredMethods.length) * 2);
+
+			for (Field declaredField : declaredFields) {
+				index.put(
+						declaredField.getName() + ':' + getDescriptor(declaredField.getType()),
+						declaredField
+				);
+			}
+
+			for (Method method : declaredMethods) {
+				index.putIfAbsent(method.getName() + getDescriptor(method), method);
+			}
+
+			descriptorIndex = index;
+		}
+
+		final Member member =
+				index.get(runtimeName + (field ? ":" : "") + runtimeDescriptor);
+
+		if (member instanceof Field) {
+			((Field) member).setAccessible(true);
+		} else if (member instanceof Method) {
+			((Method) member).setAccessible(true);
+		}
+
+		return member;
+	}
+
+	@Nullable
+	private Field scanField(String[] names) {
+		FieldIndex index = fieldIndex;
+
+		if (index == null) {
+			index = new FieldIndex(clazz.getDeclaredFields());
+			fieldIndex = index;
+		}
+
+		final Field field = index.get(names);
+
+		if (field != null) {
+			field.setAccessible(true);
+		}
+
+		return field;
+	}
+
+	@Nullable
+	private Method scanMethod(String name, String obfuscatedName, Class<?>[] parameterTypes) {
+		MethodIndex index = methodIndex;
+
+		if (index == null) {
+			index = new MethodIndex(clazz.getDeclaredMethods());
+			methodIndex = index;
+		}
+
+		final Method method = index.get(name, obfuscatedName, parameterTypes);
+
+		if (method != null) {
+			method.setAccessible(true);
+		}
+
+		return method;
+	}
+
+	//Maps the class names in the specified descriptor to the runtime namespace.
+	private static String mapDescriptor(
+			MappingResolver resolver, String namespace, String descriptor
+	) {
+		final StringBuilder builder = new StringBuilder(descriptor.length() + 16);
+		int index = 0;
+
+		while (index < descriptor.length()) {
+			final char character = descriptor.charAt(index);
+
+			if (character != 'L') {
+				builder.append(character);
+				index++;
+				continue;
+			}
+
+			final int end = descriptor.indexOf(';', index);
+
+			if (end == -1) {
+				throw new IllegalArgumentException("Invalid descriptor: " + descriptor);
+			}
+
+			final String className = descriptor.substring(index + 1, end).replace('/', '.');
+			builder.append('L').
+					append(resolver.mapClassName(namespace, className).replace('.', '/')).
+					append(';');
+			index = end + 1;
+		}
+
+		return builder.toString();
+	}
+
+	private static String getDescriptor(Method method) {
+		final StringBuilder builder = new StringBuilder("(");
+
+		for (Class<?> parameterType : method.getParameterTypes()) {
+			builder.append(getDescriptor(parameterType));
+		}
+
+		return builder.append(')').append(getDescriptor(method.getReturnType())).toString();
+	}
+
+	private static String getDescriptor(Class<?> type) {
+		if (type.isArray()) {
+			//The names of array classes are already in descriptor format.
+			return type.getName().replace('.', '/');
+		}
+
+		if (type.isPrimitive()) {
+			if (type == void.class) {
+				return "V";
+			}
+
+			if (type == boolean.class) {
+				return "Z";
+			}
+
+			if (type == long.class) {
+				return "J";
+			}
+
+			//The other primitive descriptors are the first letter of the type name.
+			return String.valueOf(Character.toUpperCase(type.getName().charAt(0)));
+		}
+
+		return 'L' + type.getName().replace('.', '/') + ';';
+	}
+
+	static MemberCache get(Class<?> clazz) {
+		return caches.get(clazz);
+	}
+
+	static long getHits() {
+		return hits.sum();
+	}
+
+	static long getMisses() {
+		return misses.sum();
+	}
+
+	private static final class FieldIndex {
+		private final Field[] fields;
+		private final Map<String, Integer> indices;
+
+		FieldIndex(Field[] fields) {
+			this.fields = fields;
+			indices = new HashMap<>(fields.length * 2);
+
+			for (int i = 0; i < fields.length; i++) {
+				indices.putIfAbsent(fields[i].getName(), i);
+			}
+		}
+
+		@Nullable
+		Field get(String[] names) {
+			//The first declared field that matches any of the names is returned.
+			int index = Integer.MAX_VALUE;
+
+			for (String name : names) {
+				final Integer fieldIndex = indices.get(name);
+
+				if (fieldIndex != null && fieldIndex < index) {
+					index = fieldIndex;
+				}
+			}
+
+			return index == Integer.MAX_VALUE ? null : fields[index];
+		}
+	}
+
+	private static final class MethodIndex {
+		private final Method[] methods;
+		private final Map<String, List<Integer>> indices;
+
+		MethodIndex(Method[] methods) {
+			this.methods = methods;
+			indices = new HashMap<>(methods.length * 2);
+
+			for (int i = 0; i < methods.length; i++) {
+				indices.computeIfAbsent(methods[i].getName(), key -> new ArrayList<>(1)).add(i);
+			}
+		}
+
+		@Nullable
+		Method get(String name, String obfuscatedName, Class<?>[] parameterTypes) {
+			//Like FieldIndex, the first declared method that matches either name is returned.
+			final int index = Math.min(
+					get(name, parameterTypes),
+					name.equals(obfuscatedName) ?
+							Integer.MAX_VALUE : get(obfuscatedName, parameterTypes)
+			);
+			return index == Integer.MAX_VALUE ? null : methods[index];
+		}
+
+		private int get(String name, Class<?>[] parameterTypes) {
+			final List<Integer> candidates = indices.get(name);
+
+			if (candidates != null) {
+				for (int index : candidates) {
+					if (Arrays.equals(methods[index].getParameterTypes(), parameterTypes)) {
+						return index;
+					}
+				}
+			}
+
+			return Integer.MAX_VALUE;
+		}
+	}
+
+	private static final class FieldKey {
+		@Nullable
+		private String[] names;
+		private int hashCode;
+
+		FieldKey set(@Nullable String[] names) {
+			this.names = names;
+			hashCode = Arrays.hashCode(names);
+			return this;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			return object == this ||
+					(object instanceof FieldKey && Arrays.equals(names, ((FieldKey) object).names));
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+
+	private static final class MethodKey {
+		@Nullable
+		private String name;
+		@Nullable
+		private String obfuscatedName;
+		@Nullable
+		private Class<?>[] parameterTypes;
+		private int hashCode;
+
+		MethodKey set(
+				@Nullable String name, @Nullable String obfuscatedName,
+				@Nullable Class<?>[] parameterTypes
+		) {
+			this.name = name;
+			this.obfuscatedName = obfuscatedName;
+			this.parameterTypes = parameterTypes;
+			hashCode = 31 * (31 * Objects.hashCode(name) + Objects.hashCode(obfuscatedName)) +
+					Arrays.hashCode(parameterTypes);
+			return this;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (object == this) {
+				return true;
+			}
+
+			if (!(object instanceof MethodKey)) {
+				return false;
+			}
+
+			final MethodKey key = (MethodKey) object;
+			return Objects.equals(name, key.name) &&
+					Objects.equals(obfuscatedName, key.obfuscatedName) &&
+					Arrays.equals(parameterTypes, key.parameterTypes);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+}
@@ -0,0 +1,174 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric;
+
+import java.util.Arrays;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Describes a field or method to be retrieved using
+ * {@link FabricUtils#findMembers(Class, MemberSpec...)}.
+ */
+public final class MemberSpec {
+	private static final Class<?>[] NO_PARAMETER_TYPES = new Class<?>[0];
+
+	private final boolean field;
+	private final String[] names;
+	private final Class<?>[] parameterTypes;
+	private final int hashCode;
+
+	private MemberSpec(boolean field, String[] names, Class<?>[] parameterTypes) {
+		this.field = field;
+		this.names = names;
+		this.parameterTypes = parameterTypes;
+		hashCode = 31 * (31 * Boolean.hashCode(field) + Arrays.hashCode(names)) +
+				Arrays.hashCode(parameterTypes);
+	}
+
+	/**
+	 * Returns whether this {@link MemberSpec} describes a field.
+	 *
+	 * @return {@code true} if this {@link MemberSpec} describes a field, or {@code false} if it
+	 * describes a method.
+	 */
+	public boolean isField() {
+		return field;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(Object object) {
+		if (object == this) {
+			return true;
+		}
+
+		if (!(object instanceof MemberSpec)) {
+			return false;
+		}
+
+		final MemberSpec spec = (MemberSpec) object;
+		return field == spec.field && Arrays.equals(names, spec.names) &&
+				Arrays.equals(parameterTypes, spec.parameterTypes);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	/**
+	 * Returns a string representation of this {@link MemberSpec}.
+	 *
+	 * @return a string representation of this {@link MemberSpec}.
+	 */
+	@Override
+	public String toString() {
+		if (field) {
+			return "field " + Arrays.toString(names);
+		}
+
+		final StringBuilder builder = new StringBuilder("method ").append(names[0]);
+
+		if (!names[0].equals(names[1])) {
+			builder.append('/').append(names[1]);
+		}
+
+		builder.append('(');
+
+		for (int i = 0; i < parameterTypes.length; i++) {
+			if (i != 0) {
+				builder.append(", ");
+			}
+
+			builder.append(parameterTypes[i].getName());
+		}
+
+		return builder.append(')').toString();
+	}
+
+	String[] getNames() {
+		return names;
+	}
+
+	String getName() {
+		return names[0];
+	}
+
+	String getObfuscatedName() {
+		return names[1];
+	}
+
+	Class<?>[] getParameterTypes() {
+		return parameterTypes;
+	}
+
+	/**
+	 * Returns a {@link MemberSpec} that describes the field with any of the specified names.
+	 *
+	 * @param names an array of possible field names.
+	 * @return a {@link MemberSpec} that describes the field with any of the specified names.
+	 */
+	public static MemberSpec field(String... names) {
+		Preconditions.checkNotNull(names, "names should not be null");
+		return new MemberSpec(true, names.clone(), NO_PARAMETER_TYPES);
+	}
+
+	/**
+	 * Returns a {@link MemberSpec} that describes the method with the specified name and
+	 * parameter types.
+	 *
+	 * @param name a method name.
+	 * @param parameterTypes an array of parameter types.
+	 * @return a {@link MemberSpec} that describes the method with the specified name and
+	 * parameter types.
+	 */
+	public static MemberSpec method(String name, Class<?>... parameterTypes) {
+		return method(name, name, parameterTypes);
+	}
+
+	/**
+	 * Returns a {@link MemberSpec} that describes the method with the specified name or
+	 * obfuscated name and parameter types.
+	 *
+	 * @param name a method name.
+	 * @param obfuscatedName an obfuscated method name.
+	 * @param parameterTypes an array of parameter types.
+	 * @return a {@link MemberSpec} that describes the method with the specified name or
+	 * obfuscated name and parameter types.
+	 */
+	public static MemberSpec method(
+			String name, String obfuscatedName, Class<?>... parameterTypes
+	) {
+		Preconditions.checkNotNull(name, "name should not be null");
+		Preconditions.checkNotNull(obfuscatedName, "obfuscatedName should not be null");
+		Preconditions.checkNotNull(parameterTypes, "parameterTypes should not be null");
+		return new MemberSpec(false, new String[] {name, obfuscatedName}, parameterTypes.clone());
+	}
+}
@@ -0,0 +1,186 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import com.google.common.base.Preconditions;
+import com.therandomlabs.utils.fabric.internal.CommandFeedback;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Records how long TRLUtils-Fabric and the mods that use it take to initialize.
+ * Times are measured using {@link System#nanoTime()}. Phases with the same name are added
+ * together.
+ * <p>
+ * TRLUtils-Fabric records the initialization of {@link FabricUtils}, the setup of
+ * TRLUtils-Config and the registration of every configuration. Mods may record their own
+ * phases using {@link #record(String, long)} or {@link #time(String, Runnable)}.
+ */
+public final class StartupTimings {
+	private static final Logger logger = LogManager.getLogger("TRLUtils-Fabric");
+
+	private static final Map<String, Long> phases = new LinkedHashMap<>();
+	private static final Map<Class<?>, Long> configs = new LinkedHashMap<>();
+
+	private StartupTimings() {}
+
+	/**
+	 * Records the time taken by the specified phase.
+	 *
+	 * @param phase a phase name.
+	 * @param nanos the time taken in nanoseconds.
+	 */
+	public static void record(String phase, long nanos) {
+		Preconditions.checkNotNull(phase, "phase should not be null");
+
+		synchronized (phases) {
+			phases.merge(phase, nanos, Long::sum);
+		}
+	}
+
+	/**
+	 * Records the time taken to register or load the specified configuration.
+	 *
+	 * @param configClass a TRLUtils-Config configuration class.
+	 * @param nanos the time taken in nanoseconds.
+	 */
+	public static void recordConfig(Class<?> configClass, long nanos) {
+		Preconditions.checkNotNull(configClass, "configClass should not be null");
+
+		synchronized (configs) {
+			configs.merge(configClass, nanos, Long::sum);
+		}
+	}
+
+	/**
+	 * Runs the specified {@link Runnable} and records the time it takes.
+	 *
+	 * @param phase a phase name.
+	 * @param runnable a {@link Runnable}.
+	 */
+	public static void time(String phase, Runnable runnable) {
+		Preconditions.checkNotNull(runnable, "runnable should not be null");
+
+		final long startTime = System.nanoTime();
+
+		try {
+			runnable.run();
+		} finally {
+			record(phase, System.nanoTime() - startTime);
+		}
+	}
+
+	/**
+	 * Calls the specified {@link Supplier} and records the time it takes.
+	 *
+	 * @param phase a phase name.
+	 * @param supplier a {@link Supplier}.
+	 * @param <T> the type of the value returned by the {@link Supplier}.
+	 * @return the value returned by the {@link Supplier}.
+	 */
+	public static <T> T time(String phase, Supplier<T> supplier) {
+		Preconditions.checkNotNull(supplier, "supplier should not be null");
+
+		final long startTime = System.nanoTime();
+
+		try {
+			return supplier.get();
+		} finally {
+			record(phase, System.nanoTime() - startTime);
+		}
+	}
+
+	/**
+	 * Returns an immutable snapshot of the recorded phases and the time they took in
+	 * nanoseconds, in the order in which they were first recorded.
+	 *
+	 * @return a {@link Map} of phase names to times in nanoseconds.
+	 */
+	public static Map<String, Long> getPhases() {
+		synchronized (phases) {
+			return Collections.unmodifiableMap(new LinkedHashMap<>(phases));
+		}
+	}
+
+	/**
+	 * Returns an immutable snapshot of the recorded configurations and the time they took to
+	 * register in nanoseconds, in the order in which they were first recorded.
+	 *
+	 * @return a {@link Map} of configuration classes to times in nanoseconds.
+	 */
+	public static Map<Class<?>, Long> getConfigTimes() {
+		synchronized (configs) {
+			return Collections.unmodifiableMap(new LinkedHashMap<>(configs));
+		}
+	}
+
+	/**
+	 * Returns a human-readable summary of the recorded times. Configurations are sorted by the
+	 * time they took, slowest first.
+	 *
+	 * @return a {@link List} of lines.
+	 */
+	public static List<String> getSummary() {
+		final List<String> summary = new ArrayList<>();
+		summary.add("TRLUtils-Fabric startup timings:");
+
+		for (Map.Entry<String, Long> phase : getPhases().entrySet()) {
+			summary.add(
+					"  " + phase.getKey() + ": " + CommandFeedback.toMillis(phase.getValue()) +
+							" ms"
+			);
+		}
+
+		final List<Map.Entry<Class<?>, Long>> configTimes =
+				new ArrayList<>(getConfigTimes().entrySet());
+
+		if (!configTimes.isEmpty()) {
+			configTimes.sort(Map.Entry.<Class<?>, Long>comparingByValue().reversed());
+			summary.add("  Configurations:");
+
+			for (Map.Entry<Class<?>, Long> config : configTimes) {
+				summary.add(
+						"    " + config.getKey().getName() + ": " +
+								CommandFeedback.toMillis(config.getValue()) + " ms"
+				);
+			}
+		}
+
+		return summary;
+	}
+
+	/**
+	 * Logs the summary returned by {@link #getSummary()}.
+	 */
+	public static void logSummary() {
+		logger.info(String.join(System.lineSeparator(), getSummary()));
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric;
+
+import com.google.common.base.Preconditions;
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import com.therandomlabs.utils.fabric.internal.CommandFeedback;
+import net.minecraft.server.command.CommandSource;
+
+/**
+ * Represents a command that displays the times recorded by {@link StartupTimings}.
+ */
+public final class StartupTimingsCommand {
+	private final String name;
+	private final String clientName;
+
+	/**
+	 * Creates a {@link StartupTimingsCommand} with the specified name and client-sided name.
+	 *
+	 * @param name a server-sided command name.
+	 * @param clientName a client-sided command name.
+	 */
+	public StartupTimingsCommand(String name, String clientName) {
+		Preconditions.checkNotNull(name, "name should not be null");
+		Preconditions.checkNotNull(clientName, "clientName should not be null");
+		this.name = name;
+		this.clientName = clientName;
+	}
+
+	/**
+	 * Registers the client-sided version of this command to the specified
+	 * {@link CommandDispatcher}.
+	 *
+	 * @param dispatcher a {@link CommandDispatcher}.
+	 */
+	public void registerClient(CommandDispatcher<? extends CommandSource> dispatcher) {
+		Preconditions.checkNotNull(dispatcher, "dispatcher should not be null");
+		register(dispatcher, clientName, 0);
+	}
+
+	/**
+	 * Registers the server-sided version of this command to the specified
+	 * {@link CommandDispatcher}.
+	 *
+	 * @param dispatcher a {@link CommandDispatcher}.
+	 */
+	public void registerServer(CommandDispatcher<? extends CommandSource> dispatcher) {
+		Preconditions.checkNotNull(dispatcher, "dispatcher should not be null");
+		register(dispatcher, name, 4);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void register(
+			CommandDispatcher<? extends CommandSource> dispatcher, String name, int permissionLevel
+	) {
+		((CommandDispatcher<CommandSource>) dispatcher).register(
+				LiteralArgumentBuilder.<CommandSource>literal(name).
+						requires(source -> source.hasPermissionLevel(permissionLevel)).
+						executes(this::execute)
+		);
+	}
+
+	private int execute(CommandContext<CommandSource> context) {
+		final CommandSource source = context.getSource();
+
+		for (String line : StartupTimings.getSummary()) {
+			CommandFeedback.send(source, line);
+		}
+
+		return Command.SINGLE_SUCCESS;
+	}
+}
@@ -0,0 +1,175 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import com.google.common.base.Throwables;
+
+/**
+ * Creates {@link MethodHandle}s that access fields with {@code sun.misc.Unsafe} so that it
+ * does not have to be referenced at compile time.
+ * This is only used on Java 8, where {@code VarHandle} is unavailable. Newer versions of Java
+ * never load this class, as {@code Unsafe#staticFieldBase} and
+ * {@code Unsafe#ensureClassInitialized} are deprecated for removal there.
+ * <p>
+ * The returned handles take the instance as their first argument, which is ignored for static
+ * fields. For instance fields, the instance must be checked by the caller, as an incorrect
+ * instance would read or corrupt arbitrary memory.
+ */
+final class UnsafeAccess {
+	private static final Object unsafe = getUnsafe();
+
+	private static final MethodHandle STATIC_FIELD_BASE =
+			handle("staticFieldBase", MethodType.methodType(Object.class, Field.class));
+	private static final MethodHandle STATIC_FIELD_OFFSET =
+			handle("staticFieldOffset", MethodType.methodType(long.class, Field.class));
+	private static final MethodHandle OBJECT_FIELD_OFFSET =
+			handle("objectFieldOffset", MethodType.methodType(long.class, Field.class));
+
+	private static final MethodHandle FLOAT_TO_RAW_INT_BITS = findStatic(
+			Float.class, "floatToRawIntBits", MethodType.methodType(int.class, float.class)
+	);
+	private static final MethodHandle DOUBLE_TO_RAW_LONG_BITS = findStatic(
+			Double.class, "doubleToRawLongBits", MethodType.methodType(long.class, double.class)
+	);
+
+	private UnsafeAccess() {}
+
+	static MethodHandle getVolatile(Field field) {
+		final Class<?> type = getType(field);
+		return bind(field, handle(
+				"get" + getSuffix(type) + "Volatile",
+				MethodType.methodType(type, Object.class, long.class)
+		));
+	}
+
+	static MethodHandle putVolatile(Field field) {
+		final Class<?> type = getType(field);
+		return bind(field, handle(
+				"put" + getSuffix(type) + "Volatile",
+				MethodType.methodType(void.class, Object.class, long.class, type)
+		));
+	}
+
+	//Ordered writes are at least as strong as opaque writes.
+	static MethodHandle putOrdered(Field field) {
+		final Class<?> type = getType(field);
+
+		if (type == int.class || type == long.class || type == Object.class) {
+			return bind(field, handle(
+					"putOrdered" + getSuffix(type),
+					MethodType.methodType(void.class, Object.class, long.class, type)
+			));
+		}
+
+		//Unsafe has no ordered float and double writes, so the raw bits are written instead.
+		if (type == float.class) {
+			return MethodHandles.filterArguments(
+					bind(field, handle(
+							"putOrderedInt",
+							MethodType.methodType(void.class, Object.class, long.class, int.class)
+					)), 1, FLOAT_TO_RAW_INT_BITS
+			);
+		}
+
+		if (type == double.class) {
+			return MethodHandles.filterArguments(
+					bind(field, handle(
+							"putOrderedLong",
+							MethodType.methodType(
+									void.class, Object.class, long.class, long.class
+							)
+					)), 1, DOUBLE_TO_RAW_LONG_BITS
+			);
+		}
+
+		//Unsafe has no other ordered writes, so volatile writes are used instead.
+		return putVolatile(field);
+	}
+
+	private static MethodHandle bind(Field field, MethodHandle handle) {
+		try {
+			if (!Modifier.isStatic(field.getModifiers())) {
+				return MethodHandles.insertArguments(
+						handle, 1, (long) OBJECT_FIELD_OFFSET.invokeExact(field)
+				);
+			}
+
+			//The static initializer must run first, or the static fields would be read before
+			//they are assigned and later overwritten by it.
+			final Class<?> declaringClass = field.getDeclaringClass();
+			Class.forName(declaringClass.getName(), true, declaringClass.getClassLoader());
+
+			final Object base = (Object) STATIC_FIELD_BASE.invokeExact(field);
+			final long offset = (long) STATIC_FIELD_OFFSET.invokeExact(field);
+			return MethodHandles.dropArguments(
+					MethodHandles.insertArguments(handle, 0, base, offset), 0, Object.class
+			);
+		} catch (Throwable throwable) {
+			Throwables.throwIfUnchecked(throwable);
+			throw new IllegalStateException(throwable);
+		}
+	}
+
+	private static Class<?> getType(Field field) {
+		final Class<?> type = field.getType();
+		return type.isPrimitive() ? type : Object.class;
+	}
+
+	private static String getSuffix(Class<?> type) {
+		final String name = type.getSimpleName();
+		return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+	}
+
+	private static Object getUnsafe() {
+		try {
+			final Field field = Class.forName("sun.misc.Unsafe").getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			return field.get(null);
+		} catch (ReflectiveOperationException ex) {
+			throw new IllegalStateException("Failed to retrieve Unsafe", ex);
+		}
+	}
+
+	private static MethodHandle handle(String name, MethodType type) {
+		try {
+			return MethodHandles.publicLookup().bind(unsafe, name, type);
+		} catch (ReflectiveOperationException ex) {
+			throw new IllegalStateException("Failed to find Unsafe#" + name, ex);
+		}
+	}
+
+	private static MethodHandle findStatic(Class<?> clazz, String name, MethodType type) {
+		try {
+			return MethodHandles.publicLookup().findStatic(clazz, name, type);
+		} catch (ReflectiveOperationException ex) {
+			throw new IllegalStateException("Failed to find " + clazz.getName() + "#" + name, ex);
+		}
+	}
+}
@@ -0,0 +1,521 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric.config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.therandomlabs.utils.config.ConfigManager;
+import com.therandomlabs.utils.fabric.FabricUtils;
+import net.fabricmc.fabric.api.event.registry.RegistryEntryAddedCallback;
+import net.fabricmc.fabric.api.event.registry.RegistryIdRemapCallback;
+import net.minecraft.util.registry.Registry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Caches the resolved property values of configurations in a binary format so that unchanged
+ * configurations can be loaded at startup without being parsed.
+ * <p>
+ * A cache file is only used if the configuration file has the same modification time and
+ * content hash as when the cache file was written, and if the configuration class, including
+ * the annotations on its properties, and the contents of the registries used by it have not
+ * changed. Registry entries are stored as raw IDs.
+ * <p>
+ * Configurations that are loaded from a cache file are not registered with TRLUtils-Config
+ * until they are first reloaded or {@link FabricConfig#ensureRegistered(Class)} is called, as
+ * registering a configuration parses its file.
+ */
+final class ConfigCache {
+	private static final int MAGIC = 0x54554643;
+	private static final int VERSION = 1;
+
+	private static final Logger logger = LogManager.getLogger("TRLUtils-Fabric");
+
+	//Configurations that have been loaded from a cache file but not registered with
+	//TRLUtils-Config yet.
+	private static final Set<Class<?>> unregistered = ConcurrentHashMap.newKeySet();
+
+	//The fingerprints of the registries used by configurations, which are discarded whenever
+	//a registry is modified.
+	private static final Map<Registry<?>, Long> registryFingerprints = new ConcurrentHashMap<>();
+	private static final Set<Registry<?>> listenedRegistries = ConcurrentHashMap.newKeySet();
+
+	//This is only set by tests that run without Fabric Loader.
+	@Nullable
+	private static volatile Path cacheDirectory;
+
+	private ConfigCache() {}
+
+	/**
+	 * Loads the specified configuration from its cache file if possible. Otherwise, it is
+	 * registered with TRLUtils-Config and the cache file is written.
+	 *
+	 * @param configClass a TRLUtils-Config configuration class.
+	 */
+	static void register(Class<?> configClass) {
+		final ConfigSchema schema = ConfigSchema.get(configClass);
+
+		if (!schema.supportsAsyncReload()) {
+			ConfigManager.register(configClass);
+			return;
+		}
+
+		final Object[] values = read(schema);
+
+		if (values != null) {
+			apply(schema, values);
+			return;
+		}
+
+		ConfigManager.register(configClass);
+		write(schema);
+	}
+
+	/**
+	 * Applies the specified values to the specified configuration, which is then registered
+	 * with TRLUtils-Config the first time it is reloaded.
+	 *
+	 * @param schema a {@link ConfigSchema}.
+	 * @param values the property values.
+	 */
+	static void apply(ConfigSchema schema, Object[] values) {
+		final List<ConfigSchema.Property> properties = schema.getProperties();
+
+		try {
+			for (int i = 0; i < values.length; i++) {
+				properties.get(i).getField().set(null, values[i]);
+			}
+		} catch (IllegalAccessException ex) {
+			throw new IllegalStateException("Failed to apply configuration: " + schema.getID(), ex);
+		}
+
+		deferRegistration(schema.getConfigClass());
+	}
+
+	static void deferRegistration(Class<?> configClass) {
+		unregistered.add(configClass);
+	}
+
+	/**
+	 * Registers the specified configuration with TRLUtils-Config if it has been loaded from a
+	 * cache file and not registered yet, which also reloads it.
+	 *
+	 * @param configClass a TRLUtils-Config configuration class.
+	 * @return {@code true} if the configuration has been registered and reloaded,
+	 * or otherwise {@code false}.
+	 */
+	static boolean completeRegistration(Class<?> configClass) {
+		if (!unregistered.remove(configClass)) {
+			return false;
+		}
+
+		ConfigManager.register(configClass);
+		return true;
+	}
+
+	/**
+	 * Reads the property values of the specified configuration from its cache file.
+	 * This may be called from any thread.
+	 *
+	 * @param schema a {@link ConfigSchema}.
+	 * @return the property values, or {@code null} if the cache file does not exist or is
+	 * out of date.
+	 */
+	@Nullable
+	static Object[] read(ConfigSchema schema) {
+		final Path path = schema.getPath();
+		final Path cachePath = getCachePath(schema);
+
+		if (!Files.exists(path) || !Files.exists(cachePath)) {
+			return null;
+		}
+
+		final List<ConfigSchema.Property> properties = schema.getProperties();
+		final Object[] values = new Object[properties.size()];
+
+		try {
+			//The file is not memory-mapped, as mapped files cannot be replaced on Windows
+			//until the mapping is garbage collected.
+			final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(cachePath));
+
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION ||
+					buffer.getLong() != getSchemaFingerprint(schema) ||
+					buffer.getLong() != getRegistryFingerprint(schema) ||
+					buffer.getLong() != Files.getLastModifiedTime(path).toMillis() ||
+					buffer.getLong() != getContentHash(path) ||
+					buffer.getInt() != values.length) {
+				return null;
+			}
+
+			for (int i = 0; i < values.length; i++) {
+				final Field field = properties.get(i).getField();
+				values[i] = decode(buffer, field.getType(), field);
+			}
+
+			if (buffer.hasRemaining()) {
+				return null;
+			}
+		} catch (IOException | RuntimeException | IllegalAccessException ex) {
+			return null;
+		}
+
+		return values;
+	}
+
+	static void write(ConfigSchema schema) {
+		final List<ConfigSchema.Property> properties = schema.getProperties();
+		final Object[] values = new Object[properties.size()];
+
+		for (int i = 0; i < values.length; i++) {
+			values[i] = properties.get(i).getValue();
+		}
+
+		write(schema, values);
+	}
+
+	/**
+	 * Writes the specified property values to the cache file of the specified configuration.
+	 * This may be called from any thread.
+	 *
+	 * @param schema a {@link ConfigSchema}.
+	 * @param values the property values.
+	 */
+	static void write(ConfigSchema schema, Object[] values) {
+		final Path path = schema.getPath();
+		final Path cachePath = getCachePath(schema);
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		try (DataOutputStream output = new DataOutputStream(bytes)) {
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeLong(getSchemaFingerprint(schema));
+			output.writeLong(getRegistryFingerprint(schema));
+			output.writeLong(Files.getLastModifiedTime(path).toMillis());
+			output.writeLong(getContentHash(path));
+
+			final List<ConfigSchema.Property> properties = schema.getProperties();
+			output.writeInt(values.length);
+
+			for (int i = 0; i < values.length; i++) {
+				//Null values are only set by TRLUtils-Config for invalid values, so the
+				//configuration is not cached.
+				if (values[i] == null ||
+						!encode(output, properties.get(i).getField().getType(), values[i])) {
+					return;
+				}
+			}
+		} catch (IOException | RuntimeException ex) {
+			return;
+		}
+
+		try {
+			Files.createDirectories(cachePath.getParent());
+
+			final Path temporaryPath = cachePath.resolveSibling(cachePath.getFileName() + ".tmp");
+			Files.write(temporaryPath, bytes.toByteArray());
+			Files.move(temporaryPath, cachePath, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException ex) {
+			//The cache is only an optimization, so the configuration is loaded normally
+			//next time.
+			logger.warn("Failed to write configuration cache: {}", cachePath, ex);
+		}
+	}
+
+	static void setCacheDirectory(Path directory) {
+		cacheDirectory = directory;
+	}
+
+	private static Path getCachePath(ConfigSchema schema) {
+		final Path directory = cacheDirectory;
+		return (directory == null ? FabricUtils.MC_DIRECTORY.resolve(".trlutils-fabric").
+				resolve("config-cache") : directory).resolve(schema.getID() + ".bin");
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static boolean encode(DataOutputStream output, Class<?> type, Object value)
+			throws IOException {
+		if (type == RegistryEntrySet.class) {
+			final RegistryEntrySet<Object> set = (RegistryEntrySet<Object>) value;
+			output.writeInt(set.size());
+
+			for (Object entry : set) {
+				output.writeInt(set.getRegistry().getRawId(entry));
+			}
+
+			return true;
+		}
+
+		if (type.isArray()) {
+			final int length = Array.getLength(value);
+			output.writeInt(length);
+
+			for (int i = 0; i < length; i++) {
+				final Object element = Array.get(value, i);
+
+				if (element == null || !encode(output, type.getComponentType(), element)) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+		final Registry<Object> registry = (Registry<Object>) RegistryIndex.get(type);
+
+		if (registry != null) {
+			output.writeInt(registry.getRawId(value));
+		} else if (type == boolean.class || type == Boolean.class) {
+			output.writeBoolean((Boolean) value);
+		} else if (type == int.class || type == Integer.class) {
+			output.writeInt((Integer) value);
+		} else if (type == long.class || type == Long.class) {
+			output.writeLong((Long) value);
+		} else if (type == float.class || type == Float.class) {
+			output.writeFloat((Float) value);
+		} else if (type == double.class || type == Double.class) {
+			output.writeDouble((Double) value);
+		} else if (type == String.class) {
+			final byte[] string = ((String) value).getBytes(StandardCharsets.UTF_8);
+			output.writeInt(string.length);
+			output.write(string);
+		} else if (type.isEnum()) {
+			output.writeInt(((Enum) value).ordinal());
+		} else {
+			return false;
+		}
+
+		return true;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Object decode(ByteBuffer buffer, Class<?> type, Field field)
+			throws IllegalAccessException {
+		if (type == RegistryEntrySet.class) {
+			final Registry<Object> registry =
+					((RegistryEntrySet<Object>) field.get(null)).getRegistry();
+			final int size = buffer.getInt();
+			final List<Object> entries = new ArrayList<>(size);
+
+			for (int i = 0; i < size; i++) {
+				entries.add(getEntry(registry, buffer.getInt()));
+			}
+
+			return RegistryEntrySet.of(registry, entries);
+		}
+
+		if (type.isArray()) {
+			final Object array = Array.newInstance(type.getComponentType(), buffer.getInt());
+
+			for (int i = 0; i < Array.getLength(array); i++) {
+				Array.set(array, i, decode(buffer, type.getComponentType(), field));
+			}
+
+			return array;
+		}
+
+		final Registry<?> registry = RegistryIndex.get(type);
+
+		if (registry != null) {
+			return getEntry(registry, buffer.getInt());
+		}
+
+		if (type == boolean.class || type == Boolean.class) {
+			return buffer.get() != 0;
+		}
+
+		if (type == int.class || type == Integer.class) {
+			return buffer.getInt();
+		}
+
+		if (type == long.class || type == Long.class) {
+			return buffer.getLong();
+		}
+
+		if (type == float.class || type == Float.class) {
+			return buffer.getFloat();
+		}
+
+		if (type == double.class || type == Double.class) {
+			return buffer.getDouble();
+		}
+
+		if (type == String.class) {
+			final byte[] string = new byte[buffer.getInt()];
+			buffer.get(string);
+			return new String(string, StandardCharsets.UTF_8);
+		}
+
+		if (type.isEnum()) {
+			return type.getEnumConstants()[buffer.getInt()];
+		}
+
+		throw new IllegalStateException("Unsupported type: " + type.getName());
+	}
+
+	private static Object getEntry(Registry<?> registry, int rawID) {
+		final Object entry = registry.get(rawID);
+
+		if (entry == null) {
+			throw new IllegalStateException("Invalid raw ID: " + rawID);
+		}
+
+		return entry;
+	}
+
+	static long getSchemaFingerprint(ConfigSchema schema) {
+		long fingerprint = 17L;
+
+		for (ConfigSchema.Property property : schema.getProperties()) {
+			final Field field = property.getField();
+			fingerprint = 31L * fingerprint + property.getPath().hashCode();
+			fingerprint = 31L * fingerprint + field.getGenericType().getTypeName().hashCode();
+
+			//Annotations such as blacklists and ranges affect how values are read. The string
+			//representation of an annotation contains all of its values. Its format depends on
+			//the Java version, but a different format only causes the cache to be rewritten.
+			final Annotation[] annotations = field.getDeclaredAnnotations();
+			Arrays.sort(annotations, Comparator.comparing(
+					annotation -> annotation.annotationType().getName()
+			));
+
+			for (Annotation annotation : annotations) {
+				fingerprint = 31L * fingerprint + annotation.toString().hashCode();
+			}
+
+			Class<?> type = field.getType();
+
+			while (type.isArray()) {
+				type = type.getComponentType();
+			}
+
+			if (type.isEnum()) {
+				for (Object constant : type.getEnumConstants()) {
+					fingerprint = 31L * fingerprint + ((Enum<?>) constant).name().hashCode();
+				}
+			}
+		}
+
+		return fingerprint;
+	}
+
+	//Raw IDs are only valid if the registries contain the same entries in the same order.
+	@SuppressWarnings("unchecked")
+	private static long getRegistryFingerprint(ConfigSchema schema) {
+		final Set<Registry<Object>> registries = new LinkedHashSet<>();
+
+		for (ConfigSchema.Property property : schema.getProperties()) {
+			final Registry<Object> registry = (Registry<Object>) getRegistry(property);
+
+			if (registry != null) {
+				registries.add(registry);
+			}
+		}
+
+		long fingerprint = 17L;
+
+		for (Registry<Object> registry : registries) {
+			fingerprint = 31L * fingerprint + getRegistryFingerprint(registry);
+		}
+
+		return fingerprint;
+	}
+
+	//Registries are usually shared by many configurations, so their fingerprints are cached
+	//until they are modified rather than calculated once for each configuration.
+	private static long getRegistryFingerprint(Registry<Object> registry) {
+		final Long cachedFingerprint = registryFingerprints.get(registry);
+
+		if (cachedFingerprint != null) {
+			return cachedFingerprint;
+		}
+
+		if (RegistryIndex.isListening() && listenedRegistries.add(registry)) {
+			RegistryEntryAddedCallback.event(registry).register(
+					(rawID, identifier, entry) -> registryFingerprints.remove(registry)
+			);
+			RegistryIdRemapCallback.event(registry).register(
+					state -> registryFingerprints.remove(registry)
+			);
+		}
+
+		long fingerprint = 17L;
+
+		for (Object entry : registry) {
+			fingerprint = 31L * fingerprint + registry.getRawId(entry);
+			fingerprint = 31L * fingerprint + registry.getId(entry).hashCode();
+		}
+
+		registryFingerprints.put(registry, fingerprint);
+		return fingerprint;
+	}
+
+	@Nullable
+	private static Registry<?> getRegistry(ConfigSchema.Property property) {
+		Class<?> type = property.getField().getType();
+
+		if (type == RegistryEntrySet.class) {
+			final RegistryEntrySet<?> set = (RegistryEntrySet<?>) property.getValue();
+			return set == null ? null : set.getRegistry();
+		}
+
+		while (type.isArray()) {
+			type = type.getComponentType();
+		}
+
+		return RegistryIndex.get(type);
+	}
+
+	static long getContentHash(Path path) throws IOException {
+		final MessageDigest digest;
+
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException("SHA-256 is not supported", ex);
+		}
+
+		return ByteBuffer.wrap(digest.digest(Files.readAllBytes(path))).getLong();
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric.config;
+
+import java.util.Collections;
+import java.util.Map;
+
+import com.google.common.base.Preconditions;
+import com.therandomlabs.utils.fabric.internal.CommandFeedback;
+
+/**
+ * Contains the time taken to load a set of configurations using
+ * {@link FabricConfig#registerAll(Class[])}. All times are in nanoseconds.
+ */
+public final class ConfigLoadReport {
+	private final long totalTime;
+	private final Map<Class<?>, Long> times;
+
+	ConfigLoadReport(long totalTime, Map<Class<?>, Long> times) {
+		this.totalTime = totalTime;
+		this.times = Collections.unmodifiableMap(times);
+	}
+
+	/**
+	 * Returns the total time taken to load all configurations in nanoseconds.
+	 *
+	 * @return the total time taken to load all configurations in nanoseconds.
+	 */
+	public long getTotalTime() {
+		return totalTime;
+	}
+
+	/**
+	 * Returns the time taken to load the specified configuration in nanoseconds.
+	 * Since configurations are loaded in parallel, the sum of these times may be greater than
+	 * the total time.
+	 *
+	 * @param configClass a TRLUtils-Config configuration class.
+	 * @return the time taken to load the specified configuration in nanoseconds.
+	 * @throws IllegalArgumentException if the specified configuration was not loaded.
+	 */
+	public long getTime(Class<?> configClass) {
+		Preconditions.checkNotNull(configClass, "configClass should not be null");
+
+		final Long time = times.get(configClass);
+
+		if (time == null) {
+			throw new IllegalArgumentException(configClass.getName() + " was not loaded");
+		}
+
+		return time;
+	}
+
+	/**
+	 * Returns an immutable {@link Map} of configuration classes to the time taken to load them
+	 * in nanoseconds. The iteration order is the order in which the configurations were
+	 * specified.
+	 *
+	 * @return a {@link Map} of configuration classes to the time taken to load them.
+	 */
+	public Map<Class<?>, Long> getTimes() {
+		return times;
+	}
+
+	/**
+	 * Returns a string representation of this {@link ConfigLoadReport}.
+	 *
+	 * @return a string representation of this {@link ConfigLoadReport}.
+	 */
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder("Loaded ").append(times.size()).
+				append(" configurations in ").append(CommandFeedback.toMillis(totalTime)).
+				append(" ms");
+
+		if (!times.isEmpty()) {
+			builder.append(" (");
+			boolean first = true;
+
+			for (Map.Entry<Class<?>, Long> entry : times.entrySet()) {
+				if (!first) {
+					builder.append(", ");
+				}
+
+				builder.append(entry.getKey().getName()).append(": ").
+						append(CommandFeedback.toMillis(entry.getValue())).append(" ms");
+				first = false;
+			}
+
+			builder.append(')');
+		}
+
+		return builder.toString();
+	}
+}
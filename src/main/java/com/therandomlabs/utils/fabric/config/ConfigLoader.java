@@ -0,0 +1,396 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric.config;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import com.electronwill.nightconfig.core.CommentedConfig;
+import com.electronwill.nightconfig.toml.TomlFormat;
+import com.therandomlabs.utils.config.ConfigManager;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Reads and parses TRLUtils-Config configuration files on a worker thread so that the values
+ * can later be applied on the main thread.
+ */
+final class ConfigLoader {
+	private static final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+		final Thread thread = new Thread(runnable, "TRLUtils-Fabric Config Loader");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	//The raw and converted values that were last applied for each configuration.
+	private static final Map<ConfigSchema, RawValues> rawValues = new ConcurrentHashMap<>();
+
+	private ConfigLoader() {}
+
+	/**
+	 * Reads and parses the configuration files for the specified configuration classes in a
+	 * single pass on a worker thread.
+	 *
+	 * @param configClasses a {@link List} of TRLUtils-Config configuration classes.
+	 * @return a {@link CompletableFuture} that is completed with the loaded configurations in
+	 * the same order as the configuration classes.
+	 */
+	static CompletableFuture<List<LoadedConfig>> load(List<Class<?>> configClasses) {
+		final List<ConfigSchema> schemas = new ArrayList<>(configClasses.size());
+
+		for (Class<?> configClass : configClasses) {
+			schemas.add(ConfigSchema.get(configClass));
+		}
+
+		return CompletableFuture.supplyAsync(() -> {
+			final List<LoadedConfig> configs = new ArrayList<>(schemas.size());
+
+			for (ConfigSchema schema : schemas) {
+				configs.add(read(schema));
+			}
+
+			return configs;
+		}, executor);
+	}
+
+	/**
+	 * Reads and parses the configuration files for the specified configuration classes on a
+	 * worker thread, then applies them together using the specified main thread
+	 * {@link Executor}.
+	 *
+	 * @param configClasses a {@link List} of TRLUtils-Config configuration classes.
+	 * @param mainThread the {@link Executor} of the main thread.
+	 * @param onReload a {@link Consumer} that is called on the main thread with the loaded
+	 * configurations after they are applied.
+	 * @param onError a {@link Consumer} that is called on the main thread if the configurations
+	 * could not be reloaded.
+	 */
+	static void reload(
+			List<Class<?>> configClasses, Executor mainThread,
+			Consumer<? super List<LoadedConfig>> onReload, Consumer<? super Throwable> onError
+	) {
+		load(configClasses).whenComplete((configs, throwable) -> mainThread.execute(() -> {
+			if (throwable != null) {
+				onError.accept(
+						throwable instanceof CompletionException ? throwable.getCause() : throwable
+				);
+				return;
+			}
+
+			try {
+				for (LoadedConfig config : configs) {
+					config.apply();
+				}
+			} catch (RuntimeException ex) {
+				onError.accept(ex);
+				return;
+			}
+
+			onReload.accept(configs);
+		}));
+	}
+
+	/**
+	 * Reloads the specified configuration synchronously using TRLUtils-Config.
+	 * This should be called on the main thread.
+	 *
+	 * @param configClass a TRLUtils-Config configuration class.
+	 */
+	static void reloadFromDisk(Class<?> configClass) {
+		//Configurations that were loaded from the cache at startup are registered with
+		//TRLUtils-Config the first time they are reloaded.
+		if (!ConfigCache.completeRegistration(configClass)) {
+			ConfigManager.reloadFromDisk(configClass);
+		}
+
+		onReloadedFromDisk(configClass);
+	}
+
+	/**
+	 * Registers the specified configuration with TRLUtils-Config if it has been loaded from a
+	 * cache file and not registered yet, which also reloads it.
+	 * This should be called on the main thread.
+	 *
+	 * @param configClass a TRLUtils-Config configuration class.
+	 * @return {@code true} if the configuration has been registered, or otherwise {@code false}.
+	 */
+	static boolean ensureRegistered(Class<?> configClass) {
+		if (!ConfigCache.completeRegistration(configClass)) {
+			return false;
+		}
+
+		onReloadedFromDisk(configClass);
+		return true;
+	}
+
+	private static void onReloadedFromDisk(Class<?> configClass) {
+		//TRLUtils-Config may have changed any value, so the next read is not incremental.
+		rawValues.remove(ConfigSchema.get(configClass));
+		ConfigWatcher.onReload(configClass);
+		ConfigSnapshot.onReload(configClass);
+		ConfigSync.onReload(configClass);
+	}
+
+	static LoadedConfig read(ConfigSchema schema) {
+		final Path path = schema.getPath();
+
+		//TRLUtils-Config is responsible for creating missing configuration files.
+		if (!schema.supportsAsyncReload() || !Files.exists(path)) {
+			return LoadedConfig.fallback(schema);
+		}
+
+		//The generation is retrieved before any identifiers are resolved so that if a registry
+		//is modified during the read, the values are resolved again next time.
+		final int identifierGeneration = IdentifierCache.getGeneration();
+		final RawValues previous = rawValues.get(schema);
+		final boolean reusable =
+				previous != null && previous.identifierGeneration == identifierGeneration;
+
+		final List<ConfigSchema.Property> properties = schema.getProperties();
+		final Object[] raw = new Object[properties.size()];
+		final Object[] values = new Object[properties.size()];
+		final List<String> changedProperties = new ArrayList<>();
+
+		final long readStartTime = System.nanoTime();
+		final String contents;
+
+		try {
+			contents = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+		} catch (IOException ex) {
+			throw new UncheckedIOException("Failed to read configuration: " + path, ex);
+		}
+
+		final long parseStartTime = System.nanoTime();
+		final CommentedConfig config = TomlFormat.instance().createParser().parse(contents);
+		final long resolveStartTime = System.nanoTime();
+
+		for (int i = 0; i < values.length; i++) {
+			final ConfigSchema.Property property = properties.get(i);
+			raw[i] = config.get(property.getPath());
+
+			final boolean changed = previous == null || !Objects.equals(raw[i], previous.raw[i]);
+
+			//The first time a configuration is read, the values are compared with the current
+			//values when they are applied instead.
+			if (changed && previous != null) {
+				changedProperties.add(property.getPath());
+			}
+
+			//Only values that have changed are converted again, which avoids resolving
+			//large lists of identifiers when only one line of the file has been modified.
+			if (!changed && reusable) {
+				values[i] = previous.values[i];
+			} else {
+				values[i] = raw[i] == null ? null : property.read(raw[i]);
+			}
+
+			//TRLUtils-Config resets invalid values to their defaults and rewrites the file,
+			//so this is left to it.
+			if (values[i] == null) {
+				return LoadedConfig.fallback(schema);
+			}
+		}
+
+		final long endTime = System.nanoTime();
+		return new LoadedConfig(
+				schema, values, raw,
+				previous == null ? null : Collections.unmodifiableList(changedProperties),
+				identifierGeneration, new long[] {
+						parseStartTime - readStartTime,
+						resolveStartTime - parseStartTime,
+						endTime - resolveStartTime
+				}
+		);
+	}
+
+	/**
+	 * The result of reading a configuration file.
+	 */
+	static final class LoadedConfig {
+		private final ConfigSchema schema;
+		@Nullable
+		private final Object[] values;
+		@Nullable
+		private final Object[] raw;
+		//This is null for configurations that have not been read before until they are
+		//applied.
+		@Nullable
+		private List<String> changedProperties;
+		private final int identifierGeneration;
+		//The times taken to read, parse and resolve the configuration.
+		private final long[] times;
+		private long applyTime;
+
+		LoadedConfig(
+				ConfigSchema schema, @Nullable Object[] values, @Nullable Object[] raw,
+				@Nullable List<String> changedProperties, int identifierGeneration, long[] times
+		) {
+			this.schema = schema;
+			this.values = values;
+			this.raw = raw;
+			this.changedProperties = changedProperties;
+			this.identifierGeneration = identifierGeneration;
+			this.times = times;
+		}
+
+		/**
+		 * Returns whether this configuration is applied by reloading it synchronously using
+		 * TRLUtils-Config.
+		 *
+		 * @return {@code true} if {@link #apply()} calls
+		 * {@link ConfigManager#reloadFromDisk(Class)}, or otherwise {@code false}.
+		 */
+		boolean isFallback() {
+			return values == null;
+		}
+
+		String getID() {
+			return schema.getID();
+		}
+
+		@Nullable
+		Object[] getValues() {
+			return values;
+		}
+
+		long getReadTime() {
+			return times[0];
+		}
+
+		long getParseTime() {
+			return times[1];
+		}
+
+		long getResolveTime() {
+			return times[2];
+		}
+
+		//This is only set once apply() has been called.
+		long getApplyTime() {
+			return applyTime;
+		}
+
+		/**
+		 * Returns the paths of the properties whose values in the configuration file have
+		 * changed since the configuration was last loaded by TRLUtils-Fabric. If it has not been
+		 * loaded by TRLUtils-Fabric before, these are the properties whose values differed from
+		 * the loaded values when they were applied.
+		 *
+		 * @return a {@link List} of property paths, or {@code null} if this is not known because
+		 * the configuration is reloaded by TRLUtils-Config.
+		 */
+		@Nullable
+		List<String> getChangedProperties() {
+			return changedProperties;
+		}
+
+		/**
+		 * Applies the loaded values to the configuration class. Only properties that have been
+		 * modified are assigned. This should be called on the main thread.
+		 */
+		@SuppressWarnings("NullAway")
+		void apply() {
+			final long startTime = System.nanoTime();
+
+			if (values == null) {
+				reloadFromDisk(schema.getConfigClass());
+				applyTime = System.nanoTime() - startTime;
+				return;
+			}
+
+			//Configurations that were loaded from the cache at startup are registered with
+			//TRLUtils-Config the first time they are reloaded, which also reloads them.
+			if (ensureRegistered(schema.getConfigClass())) {
+				applyTime = System.nanoTime() - startTime;
+				return;
+			}
+
+			final List<ConfigSchema.Property> properties = schema.getProperties();
+			final List<String> changedProperties =
+					this.changedProperties == null ? new ArrayList<>() : null;
+
+			try {
+				for (int i = 0; i < values.length; i++) {
+					final Field field = properties.get(i).getField();
+
+					//The field may have also been modified by something other than a reload.
+					//Boxed and newly resolved values are usually not identical to the current
+					//values even if they are equal, so they are compared by value. Unchanged
+					//values are reused, so they are usually identical, which is checked first.
+					if (!Objects.deepEquals(field.get(null), values[i])) {
+						field.set(null, values[i]);
+
+						if (changedProperties != null) {
+							changedProperties.add(properties.get(i).getPath());
+						}
+					}
+				}
+			} catch (IllegalAccessException ex) {
+				throw new IllegalStateException(
+						"Failed to apply configuration: " + schema.getID(), ex
+				);
+			}
+
+			if (changedProperties != null) {
+				this.changedProperties = Collections.unmodifiableList(changedProperties);
+			}
+
+			rawValues.put(schema, new RawValues(identifierGeneration, raw, values));
+			ConfigSnapshot.onReload(schema.getConfigClass());
+			ConfigSync.onReload(schema.getConfigClass());
+			applyTime = System.nanoTime() - startTime;
+		}
+
+		static LoadedConfig fallback(ConfigSchema schema) {
+			return new LoadedConfig(schema, null, null, null, 0, new long[3]);
+		}
+	}
+
+	private static final class RawValues {
+		final int identifierGeneration;
+		final Object[] raw;
+		final Object[] values;
+
+		RawValues(int identifierGeneration, Object[] raw, Object[] values) {
+			this.identifierGeneration = identifierGeneration;
+			this.raw = raw;
+			this.values = values;
+		}
+	}
+}
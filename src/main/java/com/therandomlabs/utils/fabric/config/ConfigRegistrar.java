@@ -0,0 +1,178 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric.config;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import com.therandomlabs.utils.config.ConfigManager;
+import com.therandomlabs.utils.fabric.StartupTimings;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Registers multiple configurations at once. File I/O, parsing and identifier resolution are
+ * done in parallel, after which the values are applied in order on the calling thread.
+ */
+final class ConfigRegistrar {
+	private static final Logger logger = LogManager.getLogger("TRLUtils-Fabric");
+
+	private ConfigRegistrar() {}
+
+	static ConfigLoadReport registerAll(List<Class<?>> configClasses) {
+		final long startTime = System.nanoTime();
+		final List<ForkJoinTask<ReadConfig>> tasks = new ArrayList<>(configClasses.size());
+		final ForkJoinPool pool = new ForkJoinPool(
+				Math.max(
+						1,
+						Math.min(configClasses.size(), Runtime.getRuntime().availableProcessors())
+				),
+				ConfigRegistrar::createWorker, null, false
+		);
+
+		try {
+			for (Class<?> configClass : configClasses) {
+				tasks.add(pool.submit(() -> read(configClass)));
+			}
+
+			final Map<Class<?>, Long> times = new LinkedHashMap<>();
+			RuntimeException failure = null;
+
+			//Values are applied in the order in which the configurations are specified.
+			//A failure does not prevent the other configurations from being registered.
+			for (int i = 0; i < tasks.size(); i++) {
+				try {
+					final ReadConfig config = tasks.get(i).join();
+					final long applyStartTime = System.nanoTime();
+					config.apply();
+					ConfigSnapshot.update(config.schema.getConfigClass());
+					times.put(
+							config.schema.getConfigClass(),
+							config.readTime + System.nanoTime() - applyStartTime
+					);
+				} catch (RuntimeException ex) {
+					final RuntimeException wrapped = new IllegalStateException(
+							"Failed to register configuration: " + configClasses.get(i).getName(),
+							ex
+					);
+
+					if (failure == null) {
+						failure = wrapped;
+					} else {
+						failure.addSuppressed(wrapped);
+					}
+				}
+			}
+
+			final ConfigLoadReport report =
+					new ConfigLoadReport(System.nanoTime() - startTime, times);
+
+			times.forEach(StartupTimings::recordConfig);
+			StartupTimings.record("FabricConfig.registerAll", report.getTotalTime());
+			logger.info(report.toString());
+
+			if (failure != null) {
+				throw failure;
+			}
+
+			return report;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static ReadConfig read(Class<?> configClass) {
+		final long startTime = System.nanoTime();
+		final ConfigSchema schema = ConfigSchema.get(configClass);
+
+		if (!schema.supportsAsyncReload()) {
+			return new ReadConfig(schema, null, null, System.nanoTime() - startTime);
+		}
+
+		final Object[] cachedValues = ConfigCache.read(schema);
+
+		if (cachedValues != null) {
+			return new ReadConfig(schema, cachedValues, null, System.nanoTime() - startTime);
+		}
+
+		final ConfigLoader.LoadedConfig loadedConfig = ConfigLoader.read(schema);
+
+		if (!loadedConfig.isFallback()) {
+			ConfigCache.write(schema, loadedConfig.getValues());
+		}
+
+		return new ReadConfig(schema, null, loadedConfig, System.nanoTime() - startTime);
+	}
+
+	private static ForkJoinWorkerThread createWorker(ForkJoinPool pool) {
+		final ForkJoinWorkerThread thread =
+				ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+		thread.setName("TRLUtils-Fabric Config Registrar " + thread.getPoolIndex());
+		//Worker threads should be able to load mod classes.
+		thread.setContextClassLoader(ConfigRegistrar.class.getClassLoader());
+		return thread;
+	}
+
+	private static final class ReadConfig {
+		final ConfigSchema schema;
+		@Nullable
+		final Object[] cachedValues;
+		@Nullable
+		final ConfigLoader.LoadedConfig loadedConfig;
+		final long readTime;
+
+		ReadConfig(
+				ConfigSchema schema, @Nullable Object[] cachedValues,
+				@Nullable ConfigLoader.LoadedConfig loadedConfig, long readTime
+		) {
+			this.schema = schema;
+			this.cachedValues = cachedValues;
+			this.loadedConfig = loadedConfig;
+			this.readTime = readTime;
+		}
+
+		void apply() {
+			if (cachedValues != null) {
+				ConfigCache.apply(schema, cachedValues);
+			} else if (loadedConfig != null && !loadedConfig.isFallback()) {
+				loadedConfig.apply();
+				ConfigCache.deferRegistration(schema.getConfigClass());
+			} else {
+				//TRLUtils-Config is not necessarily thread-safe, so this is done on the
+				//calling thread.
+				ConfigManager.register(schema.getConfigClass());
+
+				if (schema.supportsAsyncReload()) {
+					ConfigCache.write(schema);
+				}
+			}
+		}
+	}
+}
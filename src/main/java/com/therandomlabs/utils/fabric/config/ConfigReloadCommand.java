@@ -23,6 +23,14 @@
 
 package com.therandomlabs.utils.fabric.config;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 
 import com.google.common.base.Preconditions;
@@ -30,24 +38,46 @@ import com.mojang.brigadier.Command;
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import com.mojang.brigadier.context.CommandContext;
-import com.therandomlabs.utils.config.ConfigManager;
 import com.therandomlabs.utils.fabric.FabricUtils;
+import com.therandomlabs.utils.fabric.FlightRecorderEventType;
+import com.therandomlabs.utils.fabric.internal.CommandFeedback;
 import io.github.cottonmc.clientcommands.CottonClientCommandSource;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ClientPlayNetworkHandler;
 import net.minecraft.server.command.CommandSource;
 import net.minecraft.server.command.ServerCommandSource;
 import net.minecraft.text.LiteralText;
-import net.minecraft.text.Text;
 import net.minecraft.text.TranslatableText;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
- * Represents a command that reloads a TRLUtils-Config configuration.
+ * Represents a command that reloads one or more TRLUtils-Config configurations.
  */
 public final class ConfigReloadCommand {
+	private static final FlightRecorderEventType reloadEvent = FlightRecorderEventType.create(
+			"com.therandomlabs.utils.fabric.ConfigReload", "Configuration Reload",
+			FlightRecorderEventType.Value.of("configClasses", String.class),
+			FlightRecorderEventType.Value.of("async", boolean.class),
+			FlightRecorderEventType.Value.of("requests", int.class),
+			FlightRecorderEventType.Value.of("changedProperties", int.class),
+			FlightRecorderEventType.Value.timespan("preReload"),
+			FlightRecorderEventType.Value.timespan("read"),
+			FlightRecorderEventType.Value.timespan("parse"),
+			FlightRecorderEventType.Value.timespan("resolve"),
+			FlightRecorderEventType.Value.timespan("apply"),
+			FlightRecorderEventType.Value.timespan("reload"),
+			FlightRecorderEventType.Value.timespan("postReload")
+	);
+
+	private static final Logger logger = LogManager.getLogger("TRLUtils-Fabric");
+
 	private final String name;
 	private final String clientName;
 
-	private final Class<?> configClass;
+	private final List<Class<?>> configClasses;
+	private final ReloadStatistics statistics = new ReloadStatistics();
 
 	@Nullable
 	private Consumer<? super CommandSource> preReload;
@@ -57,25 +87,46 @@ public final class ConfigReloadCommand {
 	@Nullable
 	private String serverSuccessMessage;
 
+	private boolean async;
+	private boolean verbose;
+
+	//The asynchronous reloads that are in progress by main thread Executor, which are joined by
+	//any further requests on the same thread. On clients, the integrated server thread and the
+	//client thread may both reload, so each of them has its own entry, which is only accessed
+	//on that thread.
+	private final Map<Executor, PendingReload> pendingReloads = new ConcurrentHashMap<>(2);
+
 	/**
 	 * Creates a {@link ConfigReloadCommand} with the specified name, client-sided name
-	 * and TRLUtils-Config configuration class.
+	 * and TRLUtils-Config configuration classes. If multiple configuration classes are
+	 * specified, they are reloaded together in a single pass.
 	 *
 	 * @param name a server-sided command name.
 	 * @param clientName a client-sided command name.
-	 * @param configClass a TRLUtils-Config configuration class.
+	 * @param configClasses one or more TRLUtils-Config configuration classes.
 	 */
-	public ConfigReloadCommand(String name, String clientName, Class<?> configClass) {
+	public ConfigReloadCommand(String name, String clientName, Class<?>... configClasses) {
 		Preconditions.checkNotNull(name, "name should not be null");
 		Preconditions.checkNotNull(clientName, "clientName should not be null");
-		Preconditions.checkNotNull(configClass, "configClass should not be null");
+		Preconditions.checkNotNull(configClasses, "configClasses should not be null");
+		Preconditions.checkArgument(
+				configClasses.length != 0, "configClasses should not be empty"
+		);
+
+		for (Class<?> configClass : configClasses) {
+			Preconditions.checkNotNull(configClass, "configClasses should not contain null");
+		}
+
 		this.name = name;
 		this.clientName = clientName;
-		this.configClass = configClass;
+		this.configClasses = Collections.unmodifiableList(Arrays.asList(configClasses.clone()));
 	}
 
 	/**
 	 * Sets the {@link Consumer} that is called just before the configuration is reloaded.
+	 * The {@link Consumer} is called with a {@link ServerCommandSource} on servers and a
+	 * {@link CottonClientCommandSource} on clients, including for reloads triggered by
+	 * {@link FabricConfig#watch(ConfigReloadCommand)}.
 	 *
 	 * @param preReload a {@link Consumer} that accepts a {@link CommandSource}.
 	 * @return this {@link ConfigReloadCommand}.
@@ -93,6 +144,8 @@ public final class ConfigReloadCommand {
 
 	/**
 	 * Sets the {@link Consumer} that is called just after the configuration is reloaded.
+	 * As with {@link #preReload(Consumer)}, the {@link Consumer} is called with a
+	 * {@link ServerCommandSource} or a {@link CottonClientCommandSource}.
 	 *
 	 * @param postReload a {@link Consumer} that accepts a {@link CommandSource}.
 	 * @return this {@link ConfigReloadCommand}.
@@ -100,7 +153,7 @@ public final class ConfigReloadCommand {
 	public ConfigReloadCommand postReload(Consumer<? super CommandSource> postReload) {
 		Preconditions.checkNotNull(postReload, "postReload should not be null");
 
-		if (this.preReload != null) {
+		if (this.postReload != null) {
 			throw new IllegalStateException("postReload has already been set");
 		}
 
@@ -126,6 +179,58 @@ public final class ConfigReloadCommand {
 		return this;
 	}
 
+	/**
+	 * Makes this command reload the configuration asynchronously. The configuration file is read
+	 * and parsed on a worker thread, and the values are applied on the main thread once this is
+	 * done, which is usually on the next tick.
+	 * The pre-reload and post-reload {@link Consumer}s are called on the main thread, and the
+	 * success message is sent once the reload is complete.
+	 * <p>
+	 * Reloads are single-flight: if the command is executed while a reload is in progress,
+	 * the request joins that reload rather than starting another one, and its source receives
+	 * the same result and feedback. The pre-reload and post-reload {@link Consumer}s are only
+	 * called with the source of the request that started the reload.
+	 * <p>
+	 * If the configuration uses features that are only supported by TRLUtils-Config, or if the
+	 * configuration file is missing or contains invalid values, it is reloaded synchronously
+	 * on the main thread instead.
+	 *
+	 * @return this {@link ConfigReloadCommand}.
+	 */
+	public ConfigReloadCommand async() {
+		if (async) {
+			throw new IllegalStateException("async has already been set");
+		}
+
+		async = true;
+		return this;
+	}
+
+	/**
+	 * Makes this command send a breakdown of the time taken by each phase of the reload after
+	 * every reload, as well as the statistics returned by {@link #getStatistics()}.
+	 *
+	 * @return this {@link ConfigReloadCommand}.
+	 */
+	public ConfigReloadCommand verbose() {
+		if (verbose) {
+			throw new IllegalStateException("verbose has already been set");
+		}
+
+		verbose = true;
+		return this;
+	}
+
+	/**
+	 * Returns the latency statistics of the reloads performed by this command, including
+	 * those triggered by {@link FabricConfig#watch(ConfigReloadCommand)}.
+	 *
+	 * @return a {@link ReloadStatistics}.
+	 */
+	public ReloadStatistics getStatistics() {
+		return statistics;
+	}
+
 	/**
 	 * Registers the client-sided version of this command to the specified
 	 * {@link CommandDispatcher}.
@@ -162,16 +267,153 @@ public final class ConfigReloadCommand {
 	private int execute(CommandContext<CommandSource> context) {
 		final CommandSource source = context.getSource();
 
+		if (async) {
+			reload(source, getMainThreadExecutor(source), true);
+			return Command.SINGLE_SUCCESS;
+		}
+
+		//Synchronous reloads complete before any other command is executed, so there is never
+		//a reload in progress to join.
+		final PendingReload reload = new PendingReload(source, true);
+
 		if (preReload != null) {
 			preReload.accept(source);
+			reload.phases.put("pre-reload", System.nanoTime() - reload.startTime);
+		}
+
+		final long reloadStartTime = System.nanoTime();
+
+		for (Class<?> configClass : configClasses) {
+			ConfigLoader.reloadFromDisk(configClass);
+		}
+
+		reload.phases.put("reload", System.nanoTime() - reloadStartTime);
+
+		onReload(reload, null);
+		return Command.SINGLE_SUCCESS;
+	}
+
+	List<Class<?>> getConfigClasses() {
+		return configClasses;
+	}
+
+	//This should be called on the thread of the specified main thread Executor. If source is
+	//null, the pre-reload and post-reload Consumers are not called.
+	void reload(@Nullable CommandSource source, Executor mainThread, boolean sendFeedback) {
+		final PendingReload pendingReload = pendingReloads.get(mainThread);
+
+		if (pendingReload != null) {
+			pendingReload.join(source, sendFeedback);
+			return;
+		}
+
+		final PendingReload reload = new PendingReload(source, sendFeedback);
+
+		if (preReload != null && source != null) {
+			preReload.accept(source);
+			reload.phases.put("pre-reload", System.nanoTime() - reload.startTime);
+		}
+
+		pendingReloads.put(mainThread, reload);
+
+		ConfigLoader.reload(
+				configClasses, mainThread,
+				configs -> {
+					pendingReloads.remove(mainThread);
+					onReload(reload, getChangedProperties(reload, configs));
+				},
+				throwable -> {
+					pendingReloads.remove(mainThread);
+
+					//Reloads triggered by the watcher have no one to report the error to,
+					//and an exception would be thrown out of the main thread task.
+					if (reload.feedbackSources.isEmpty()) {
+						logger.error(
+								"Failed to reload configuration: {}", getConfigClassNames(),
+								throwable
+						);
+						return;
+					}
+
+					for (CommandSource feedbackSource : reload.feedbackSources) {
+						CommandFeedback.sendError(
+								feedbackSource, "Failed to reload configuration: " + throwable
+						);
+					}
+				}
+		);
+	}
+
+	//This also records the time taken by each phase of the reload.
+	@Nullable
+	private List<String> getChangedProperties(
+			PendingReload reload, List<ConfigLoader.LoadedConfig> configs
+	) {
+		final List<String> changedProperties = new ArrayList<>();
+		boolean known = true;
+
+		for (ConfigLoader.LoadedConfig config : configs) {
+			if (config.isFallback()) {
+				reload.addTime("reload", config.getApplyTime());
+				known = false;
+				continue;
+			}
+
+			reload.addTime("read", config.getReadTime());
+			reload.addTime("parse", config.getParseTime());
+			reload.addTime("resolve", config.getResolveTime());
+			reload.addTime("apply", config.getApplyTime());
+
+			final List<String> properties = config.getChangedProperties();
+
+			if (properties == null) {
+				known = false;
+				continue;
+			}
+
+			//The configuration ID is only needed to distinguish between multiple configurations.
+			for (String property : properties) {
+				changedProperties.add(configs.size() == 1 ?
+						property : config.getID() + ":" + property);
+			}
+		}
+
+		return known ? changedProperties : null;
+	}
+
+	private void onReload(PendingReload reload, @Nullable List<String> changedProperties) {
+		final Map<String, Long> phases = reload.phases;
+
+		if (postReload != null && reload.source != null) {
+			final long postReloadStartTime = System.nanoTime();
+			postReload.accept(reload.source);
+			phases.put("post-reload", System.nanoTime() - postReloadStartTime);
 		}
 
-		ConfigManager.reloadFromDisk(configClass);
+		//For asynchronous reloads, this includes the time spent waiting for the main thread.
+		final long totalTime = System.nanoTime() - reload.startTime;
+		statistics.add(totalTime);
 
-		if (postReload != null) {
-			postReload.accept(source);
+		if (reload.event != null) {
+			reloadEvent.commit(
+					reload.event, getConfigClassNames(), async, reload.requests,
+					changedProperties == null ? -1 : changedProperties.size(),
+					phases.getOrDefault("pre-reload", 0L), phases.getOrDefault("read", 0L),
+					phases.getOrDefault("parse", 0L), phases.getOrDefault("resolve", 0L),
+					phases.getOrDefault("apply", 0L), phases.getOrDefault("reload", 0L),
+					phases.getOrDefault("post-reload", 0L)
+			);
+		}
+
+		for (CommandSource source : reload.feedbackSources) {
+			sendFeedback(source, reload, changedProperties, totalTime);
 		}
+	}
 
+	private void sendFeedback(
+			CommandSource source, PendingReload reload, @Nullable List<String> changedProperties,
+			long totalTime
+	) {
 		final boolean dedicatedServer = FabricUtils.isDedicatedServer(source);
 
 		//Assume the source is a ServerCommandSource for now
@@ -181,15 +423,130 @@ public final class ConfigReloadCommand {
 			);
 		} else {
 			final String currentName = dedicatedServer ? name : clientName;
-			final Text text = new TranslatableText("commands." + currentName + ".success");
+			CommandFeedback.send(
+					source, new TranslatableText("commands." + currentName + ".success"), true
+			);
+		}
+
+		//This is only known if the configuration was reloaded incrementally.
+		if (changedProperties != null) {
+			CommandFeedback.send(source, changedProperties.isEmpty() ?
+					"No properties were changed" :
+					"Changed properties: " + String.join(", ", changedProperties));
+		}
+
+		if (verbose) {
+			final StringBuilder breakdown = new StringBuilder("Reload took ").
+					append(CommandFeedback.toMillis(totalTime)).append(" ms (");
+			boolean first = true;
 
-			if (source instanceof ServerCommandSource) {
-				((ServerCommandSource) source).sendFeedback(text, true);
-			} else {
-				((CottonClientCommandSource) source).sendFeedback(text);
+			for (Map.Entry<String, Long> phase : reload.phases.entrySet()) {
+				if (!first) {
+					breakdown.append(", ");
+				}
+
+				breakdown.append(phase.getKey()).append(": ").
+						append(CommandFeedback.toMillis(phase.getValue())).append(" ms");
+				first = false;
 			}
+
+			CommandFeedback.send(source, breakdown.append(')').toString());
+
+			if (reload.requests > 1) {
+				CommandFeedback.send(source, reload.requests + " reload requests were coalesced");
+			}
+
+			CommandFeedback.send(source, "Reload latency: " + statistics);
 		}
+	}
 
-		return Command.SINGLE_SUCCESS;
+	private String getConfigClassNames() {
+		final StringBuilder names = new StringBuilder();
+
+		for (Class<?> configClass : configClasses) {
+			if (names.length() != 0) {
+				names.append(", ");
+			}
+
+			names.append(configClass.getName());
+		}
+
+		return names.toString();
+	}
+
+	static Executor getClientExecutor() {
+		return ClientThread.getExecutor();
+	}
+
+	//This should be called on the client thread. Returns null if the client is not in a world.
+	//Like the sources that client-sided commands are executed with, the returned source is a
+	//CottonClientCommandSource.
+	@Nullable
+	static CommandSource getClientCommandSource() {
+		return ClientThread.getCommandSource();
+	}
+
+	private static Executor getMainThreadExecutor(CommandSource source) {
+		if (source instanceof ServerCommandSource) {
+			return ((ServerCommandSource) source).getMinecraftServer();
+		}
+
+		return getClientExecutor();
+	}
+
+	//A reload and the requests that have joined it.
+	private static final class PendingReload {
+		//The source of the request that started the reload.
+		@Nullable
+		final CommandSource source;
+		final List<CommandSource> feedbackSources = new ArrayList<>(1);
+		@Nullable
+		final Object event = reloadEvent.begin();
+		final long startTime = System.nanoTime();
+		final Map<String, Long> phases = new LinkedHashMap<>();
+		int requests;
+
+		PendingReload(@Nullable CommandSource source, boolean sendFeedback) {
+			this.source = source;
+			join(source, sendFeedback);
+		}
+
+		void join(@Nullable CommandSource source, boolean sendFeedback) {
+			requests++;
+
+			if (sendFeedback && source != null) {
+				feedbackSources.add(source);
+			}
+		}
+
+		void addTime(String phase, long time) {
+			phases.merge(phase, time, Long::sum);
+		}
+	}
+
+	//MinecraftClient and ClientPlayNetworkHandler are only referenced from this class so that
+	//they are never loaded on dedicated servers.
+	private static final class ClientThread {
+		private ClientThread() {}
+
+		static Executor getExecutor() {
+			return MinecraftClient.getInstance();
+		}
+
+		@Nullable
+		static CommandSource getCommandSource() {
+			final ClientPlayNetworkHandler networkHandler =
+					MinecraftClient.getInstance().getNetworkHandler();
+
+			if (networkHandler == null) {
+				return null;
+			}
+
+			//Cotton Client Commands makes ClientCommandSource implement
+			//CottonClientCommandSource, and client-sided commands are executed with the same
+			//instance, so consumers that expect a CottonClientCommandSource keep working.
+			final CommandSource source = networkHandler.getCommandSource();
+			return source instanceof CottonClientCommandSource ? source : null;
+		}
 	}
 }
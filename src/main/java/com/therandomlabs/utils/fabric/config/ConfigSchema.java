@@ -0,0 +1,492 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric.config;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.therandomlabs.utils.config.Config;
+import com.therandomlabs.utils.fabric.FabricUtils;
+import net.minecraft.util.registry.Registry;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Describes the properties of a TRLUtils-Config configuration class and how their values are
+ * read from a parsed configuration file. Only a subset of the features supported by
+ * TRLUtils-Config is understood, which is indicated by {@link #supportsAsyncReload()}.
+ * <p>
+ * The conversions performed here mirror those performed by TRLUtils-Config, so they must be
+ * kept in sync with it. Configurations that contain properties with any TRLUtils-Config
+ * annotation other than {@link Config.Property}, {@link Config.Blacklist} and
+ * {@link Config.Category}, for example a range limit, are always reloaded by TRLUtils-Config,
+ * as are configurations containing values that cannot be converted here. In both cases, the
+ * result is the same as if TRLUtils-Fabric did not read the configuration, only slower.
+ * <p>
+ * Schemas are cached for the rest of the session, so anything that depends on the contents of
+ * registries, such as the registry of an entry class or the entries that are blacklisted, is
+ * looked up when values are read rather than when the schema is created.
+ */
+final class ConfigSchema {
+	private static final ClassValue<ConfigSchema> schemas = new ClassValue<ConfigSchema>() {
+		@Override
+		protected ConfigSchema computeValue(Class<?> configClass) {
+			return new ConfigSchema(configClass);
+		}
+	};
+
+	//This is only set by tests that run without Fabric Loader.
+	@Nullable
+	private static volatile Path configDirectory;
+
+	private final Class<?> configClass;
+	private final String id;
+	private final List<Property> properties;
+	private final Map<String, Integer> indices = new HashMap<>();
+	private final boolean asyncReloadSupported;
+
+	private ConfigSchema(Class<?> configClass) {
+		final Config config = configClass.getAnnotation(Config.class);
+
+		if (config == null) {
+			throw new IllegalArgumentException(
+					configClass.getName() + " is not annotated with @Config"
+			);
+		}
+
+		this.configClass = configClass;
+		id = config.id();
+
+		final List<Property> properties = new ArrayList<>();
+		asyncReloadSupported = addProperties(configClass, "", properties);
+		this.properties = Collections.unmodifiableList(properties);
+
+		for (int i = 0; i < properties.size(); i++) {
+			indices.put(properties.get(i).getPath(), i);
+		}
+	}
+
+	Class<?> getConfigClass() {
+		return configClass;
+	}
+
+	String getID() {
+		return id;
+	}
+
+	Path getPath() {
+		final Path directory = configDirectory;
+		return (directory == null ? FabricUtils.MC_DIRECTORY.resolve("config") : directory).
+				resolve(id + ".toml");
+	}
+
+	boolean supportsAsyncReload() {
+		return asyncReloadSupported;
+	}
+
+	List<Property> getProperties() {
+		return properties;
+	}
+
+	int indexOf(String path) {
+		final Integer index = indices.get(path);
+		return index == null ? -1 : index;
+	}
+
+	static ConfigSchema get(Class<?> configClass) {
+		return schemas.get(configClass);
+	}
+
+	static void setConfigDirectory(Path directory) {
+		configDirectory = directory;
+	}
+
+	//Returns whether all properties can be reloaded asynchronously.
+	private static boolean addProperties(Class<?> clazz, String prefix, List<Property> properties) {
+		boolean supported = true;
+
+		for (Field field : clazz.getDeclaredFields()) {
+			if (!Modifier.isStatic(field.getModifiers())) {
+				continue;
+			}
+
+			for (Annotation annotation : field.getAnnotations()) {
+				final Class<? extends Annotation> type = annotation.annotationType();
+
+				//Annotations such as range limits are only understood by TRLUtils-Config.
+				if (type.getEnclosingClass() == Config.class && type != Config.Property.class &&
+						type != Config.Blacklist.class && type != Config.Category.class) {
+					supported = false;
+				}
+			}
+
+			final String path = prefix + field.getName();
+
+			if (field.isAnnotationPresent(Config.Category.class)) {
+				supported &= addProperties(field.getType(), path + ".", properties);
+				continue;
+			}
+
+			if (!field.isAnnotationPresent(Config.Property.class)) {
+				continue;
+			}
+
+			final Property property = Property.create(field, path);
+			supported &= property.supportsAsyncReload();
+			properties.add(property);
+		}
+
+		return supported;
+	}
+
+	/**
+	 * A configuration property and the function used to read its value from a parsed
+	 * configuration file.
+	 */
+	static final class Property {
+		private final Field field;
+		private final String path;
+		@Nullable
+		private final Registry<?> registry;
+		@Nullable
+		private final ValueReader reader;
+
+		private Property(
+				Field field, String path, @Nullable Registry<?> registry,
+				@Nullable ValueReader reader
+		) {
+			this.field = field;
+			this.path = path;
+			this.registry = registry;
+			this.reader = reader;
+		}
+
+		Field getField() {
+			return field;
+		}
+
+		String getPath() {
+			return path;
+		}
+
+		/**
+		 * Returns the registry of this property if it is a {@link RegistryEntrySet}.
+		 * This is taken from the default value, as the element type is erased, so it does not
+		 * depend on the current value.
+		 *
+		 * @return the registry of this property, or {@code null} if it is not a
+		 * {@link RegistryEntrySet} or its default value is {@code null}.
+		 */
+		@Nullable
+		Registry<?> getRegistry() {
+			return registry;
+		}
+
+		boolean supportsAsyncReload() {
+			return reader != null;
+		}
+
+		Object getValue() {
+			try {
+				return field.get(null);
+			} catch (IllegalAccessException ex) {
+				throw new IllegalStateException("Failed to get property value: " + path, ex);
+			}
+		}
+
+		/**
+		 * Converts a raw value from a parsed configuration file to the type of this property.
+		 * This may be called from any thread.
+		 *
+		 * @param raw a raw value.
+		 * @return the converted value, or {@code null} if the value cannot be converted in the
+		 * same way TRLUtils-Config would convert it.
+		 */
+		@Nullable
+		Object read(Object raw) {
+			return reader == null ? null : reader.read(raw);
+		}
+
+		static Property create(Field field, String path) {
+			field.setAccessible(true);
+
+			final Class<?> type = field.getType();
+			final Config.Blacklist blacklist = field.getAnnotation(Config.Blacklist.class);
+			final String[] blacklisted = blacklist == null ? new String[0] : blacklist.value();
+			final Registry<?> registry =
+					type == RegistryEntrySet.class ? getRegistryEntrySetRegistry(field) : null;
+			final ValueReader reader;
+
+			if (Modifier.isFinal(field.getModifiers())) {
+				reader = null;
+			} else if (type == RegistryEntrySet.class) {
+				reader = registry == null ?
+						null : getRegistryEntrySetReader(registry, blacklisted);
+			} else if (type.isArray()) {
+				reader = getArrayReader(type.getComponentType(), blacklisted);
+			} else {
+				reader = getReader(type, blacklisted);
+			}
+
+			return new Property(field, path, registry, reader);
+		}
+
+		@Nullable
+		private static ValueReader getReader(Class<?> type, String[] blacklisted) {
+			final ValueReader reader = getSimpleReader(type);
+
+			if (reader != null) {
+				return blacklisted.length == 0 ? reader : null;
+			}
+
+			//Any other type may be a registry entry class whose registry has not been
+			//indexed yet, so it is only looked up when a value is read. If there is no such
+			//registry, the value cannot be read, and TRLUtils-Config reloads the
+			//configuration instead.
+			final Blacklist blacklist = new Blacklist(blacklisted);
+
+			return raw -> {
+				final Registry<?> registry = RegistryIndex.get(type);
+
+				if (registry == null || !(raw instanceof String) || ((String) raw).isEmpty()) {
+					return null;
+				}
+
+				final Object entry = IdentifierCache.resolve(registry, (String) raw);
+				return blacklist.contains(registry, entry) ? null : entry;
+			};
+		}
+
+		@Nullable
+		private static ValueReader getSimpleReader(Class<?> type) {
+			if (type == boolean.class || type == Boolean.class) {
+				return raw -> raw instanceof Boolean ? raw : null;
+			}
+
+			if (type == String.class) {
+				return raw -> raw instanceof String ? raw : null;
+			}
+
+			if (type == int.class || type == Integer.class) {
+				return raw -> isIntegral(raw, Integer.MIN_VALUE, Integer.MAX_VALUE) ?
+						((Number) raw).intValue() : null;
+			}
+
+			if (type == long.class || type == Long.class) {
+				return raw -> isIntegral(raw, Long.MIN_VALUE, Long.MAX_VALUE) ?
+						((Number) raw).longValue() : null;
+			}
+
+			if (type == double.class || type == Double.class) {
+				return raw -> raw instanceof Number ? ((Number) raw).doubleValue() : null;
+			}
+
+			if (type == float.class || type == Float.class) {
+				return raw -> raw instanceof Number ? ((Number) raw).floatValue() : null;
+			}
+
+			if (type.isEnum()) {
+				final Object[] constants = type.getEnumConstants();
+				return raw -> {
+					if (!(raw instanceof String)) {
+						return null;
+					}
+
+					for (Object constant : constants) {
+						if (((Enum<?>) constant).name().equalsIgnoreCase((String) raw) ||
+								constant.toString().equalsIgnoreCase((String) raw)) {
+							return constant;
+						}
+					}
+
+					return null;
+				};
+			}
+
+			return null;
+		}
+
+		@Nullable
+		private static ValueReader getArrayReader(Class<?> componentType, String[] blacklisted) {
+			final ValueReader reader = getReader(componentType, blacklisted);
+
+			if (reader == null) {
+				return null;
+			}
+
+			return raw -> {
+				if (!(raw instanceof List)) {
+					return null;
+				}
+
+				//Like IdentifierTypeAdapter, invalid registry entries are skipped rather than
+				//causing the whole array to be reset.
+				final boolean skipInvalid = RegistryIndex.get(componentType) != null;
+
+				final Object event =
+						skipInvalid ? IdentifierCache.arrayResolutionEvent.begin() : null;
+				final List<?> list = (List<?>) raw;
+				final List<Object> values = new ArrayList<>(list.size());
+
+				for (Object element : list) {
+					final Object value = reader.read(element);
+
+					if (value != null) {
+						values.add(value);
+					} else if (!skipInvalid) {
+						return null;
+					}
+				}
+
+				if (event != null) {
+					IdentifierCache.arrayResolutionEvent.commit(
+							event, componentType.getName(), list.size(),
+							list.size() - values.size()
+					);
+				}
+
+				final Object array = Array.newInstance(componentType, values.size());
+
+				for (int i = 0; i < values.size(); i++) {
+					Array.set(array, i, values.get(i));
+				}
+
+				return array;
+			};
+		}
+
+		@Nullable
+		private static Registry<?> getRegistryEntrySetRegistry(Field field) {
+			final RegistryEntrySet<?> defaultValue;
+
+			try {
+				defaultValue = (RegistryEntrySet<?>) field.get(null);
+			} catch (IllegalAccessException ex) {
+				return null;
+			}
+
+			return defaultValue == null ? null : defaultValue.getRegistry();
+		}
+
+		@SuppressWarnings("unchecked")
+		private static ValueReader getRegistryEntrySetReader(
+				Registry<?> entryRegistry, String[] blacklisted
+		) {
+			final Registry<Object> registry = (Registry<Object>) entryRegistry;
+			final Blacklist blacklist = new Blacklist(blacklisted);
+
+			return raw -> {
+				if (!(raw instanceof List)) {
+					return null;
+				}
+
+				final List<Object> values = new ArrayList<>();
+
+				for (Object element : (List<?>) raw) {
+					if (element instanceof String) {
+						final Object entry = IdentifierCache.resolve(registry, (String) element);
+
+						if (entry != null && !blacklist.contains(registry, entry)) {
+							values.add(entry);
+						}
+					}
+				}
+
+				return RegistryEntrySet.of(registry, values);
+			};
+		}
+
+		private static boolean isIntegral(Object raw, long min, long max) {
+			if (!(raw instanceof Integer || raw instanceof Long)) {
+				return false;
+			}
+
+			final long value = ((Number) raw).longValue();
+			return value >= min && value <= max;
+		}
+	}
+
+	//Blacklisted entries are resolved again whenever a registry is modified, as they may not
+	//have been registered when the schema was created.
+	private static final class Blacklist {
+		private final String[] identifiers;
+		@Nullable
+		private volatile ResolvedBlacklist resolved;
+
+		Blacklist(String[] identifiers) {
+			this.identifiers = identifiers;
+		}
+
+		boolean contains(Registry<?> registry, @Nullable Object entry) {
+			if (identifiers.length == 0 || entry == null) {
+				return false;
+			}
+
+			final int generation = IdentifierCache.getGeneration();
+			ResolvedBlacklist resolved = this.resolved;
+
+			if (resolved == null || resolved.registry != registry ||
+					resolved.generation != generation) {
+				resolved = new ResolvedBlacklist(registry, generation, identifiers);
+				this.resolved = resolved;
+			}
+
+			return resolved.entries.contains(entry);
+		}
+	}
+
+	private static final class ResolvedBlacklist {
+		final Registry<?> registry;
+		final int generation;
+		final Set<Object> entries = new HashSet<>();
+
+		ResolvedBlacklist(Registry<?> registry, int generation, String[] identifiers) {
+			this.registry = registry;
+			this.generation = generation;
+
+			for (String identifier : identifiers) {
+				final Object entry = IdentifierCache.resolve(registry, identifier);
+
+				if (entry != null) {
+					entries.add(entry);
+				}
+			}
+		}
+	}
+
+	@FunctionalInterface
+	private interface ValueReader {
+		@Nullable
+		Object read(Object raw);
+	}
+}
@@ -0,0 +1,205 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric.config;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.base.Preconditions;
+import com.therandomlabs.utils.fabric.ArrayConverter;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An immutable snapshot of the property values of a TRLUtils-Config configuration.
+ * <p>
+ * Configuration properties are stored in static fields that are assigned one by one when the
+ * configuration is reloaded, so threads other than the main thread may observe a configuration
+ * that has only been partially reloaded. {@link ConfigSnapshot}s are published atomically, so
+ * a {@link ConfigSnapshot} obtained using {@link #get(Class)} always contains either the old or
+ * the new values of every property.
+ * <p>
+ * The first {@link ConfigSnapshot} of a configuration is captured on the registering thread
+ * when it is registered using {@link FabricConfig#register(Class)} or
+ * {@link FabricConfig#registerAll(Class[])}, and a new one is captured on the reloading thread
+ * whenever the configuration is reloaded using {@link FabricConfig#reloadFromDisk(Class)},
+ * {@link ConfigReloadCommand} or {@link FabricConfig#watch(Class)}. Snapshots are never
+ * captured by {@link #get(Class)}, which may therefore be called on any thread, and which returns
+ * {@code null} for configurations that have not been registered using {@link FabricConfig}.
+ * If a configuration is registered or reloaded using
+ * {@link com.therandomlabs.utils.config.ConfigManager} directly, {@link #update(Class)}
+ * should be called afterwards on the same thread.
+ */
+public final class ConfigSnapshot {
+	private static final Map<Class<?>, ConfigSnapshot> snapshots = new ConcurrentHashMap<>();
+
+	private final ConfigSchema schema;
+	private final long generation;
+	private final Object[] values;
+
+	private ConfigSnapshot(ConfigSchema schema, long generation, Object[] values) {
+		this.schema = schema;
+		this.generation = generation;
+		this.values = values;
+	}
+
+	/**
+	 * Returns the configuration class of this {@link ConfigSnapshot}.
+	 *
+	 * @return the configuration class of this {@link ConfigSnapshot}.
+	 */
+	public Class<?> getConfigClass() {
+		return schema.getConfigClass();
+	}
+
+	/**
+	 * Returns the generation of this {@link ConfigSnapshot}. The generation starts at {@code 0}
+	 * and is incremented every time a new {@link ConfigSnapshot} is published for the
+	 * configuration, so it can be used to determine when derived values should be recalculated.
+	 *
+	 * @return the generation of this {@link ConfigSnapshot}.
+	 */
+	public long getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * Returns the value of the property with the specified path, for example
+	 * {@code "test.testItem"} for the property {@code testItem} in the category {@code test}.
+	 * So that the snapshot cannot be modified, the values of array properties are returned as
+	 * unmodifiable {@link List} views, for example a {@code List<Item>} for an {@code Item[]}
+	 * property or a {@code List<Integer>} for an {@code int[]} property. These views are
+	 * created when the snapshot is captured, so this method does not allocate.
+	 *
+	 * @param path a property path.
+	 * @param <T> the type of the property, or a {@link List} of its component type if it is an
+	 * array.
+	 * @return the value of the property with the specified path.
+	 * @throws IllegalArgumentException if there is no property with the specified path.
+	 */
+	@SuppressWarnings("unchecked")
+	@Nullable
+	public <T> T get(String path) {
+		Preconditions.checkNotNull(path, "path should not be null");
+
+		final int index = schema.indexOf(path);
+
+		if (index == -1) {
+			throw new IllegalArgumentException("No such property: " + path);
+		}
+
+		return (T) values[index];
+	}
+
+	/**
+	 * Returns the current {@link ConfigSnapshot} of the specified configuration.
+	 * This may be called on any thread.
+	 *
+	 * @param configClass a TRLUtils-Config configuration class.
+	 * @return the current {@link ConfigSnapshot} of the specified configuration, or
+	 * {@code null} if no {@link ConfigSnapshot} has been captured for it, which is only the case
+	 * if it has not been registered using {@link FabricConfig} and {@link #update(Class)} has
+	 * not been called for it.
+	 */
+	@Nullable
+	public static ConfigSnapshot get(Class<?> configClass) {
+		Preconditions.checkNotNull(configClass, "configClass should not be null");
+		return snapshots.get(configClass);
+	}
+
+	/**
+	 * Returns the generation of the current {@link ConfigSnapshot} of the specified
+	 * configuration. This may be called on any thread.
+	 *
+	 * @param configClass a TRLUtils-Config configuration class.
+	 * @return the generation of the current {@link ConfigSnapshot} of the specified
+	 * configuration, or {@code -1} if no {@link ConfigSnapshot} has been captured for it.
+	 * @see #getGeneration()
+	 */
+	public static long getGeneration(Class<?> configClass) {
+		final ConfigSnapshot snapshot = get(configClass);
+		return snapshot == null ? -1L : snapshot.generation;
+	}
+
+	/**
+	 * Captures and publishes a new {@link ConfigSnapshot} containing the current property
+	 * values of the specified configuration. This should be called on the thread that
+	 * registered or reloaded the configuration.
+	 *
+	 * @param configClass a TRLUtils-Config configuration class.
+	 * @return the new {@link ConfigSnapshot}.
+	 */
+	public static ConfigSnapshot update(Class<?> configClass) {
+		Preconditions.checkNotNull(configClass, "configClass should not be null");
+
+		final ConfigSchema schema = ConfigSchema.get(configClass);
+		final Object[] values = captureValues(schema);
+		return snapshots.compute(
+				configClass,
+				(key, previous) -> new ConfigSnapshot(
+						schema, previous == null ? 0L : previous.generation + 1L, values
+				)
+		);
+	}
+
+	//Updates the snapshot if one has been captured for the specified configuration.
+	static void onReload(Class<?> configClass) {
+		if (snapshots.containsKey(configClass)) {
+			update(configClass);
+		}
+	}
+
+	private static Object[] captureValues(ConfigSchema schema) {
+		final List<ConfigSchema.Property> properties = schema.getProperties();
+		final Object[] values = new Object[properties.size()];
+
+		for (int i = 0; i < values.length; i++) {
+			values[i] = view(properties.get(i).getValue());
+		}
+
+		return values;
+	}
+
+	//Arrays are copied as the configuration field may be modified by the next reload.
+	@Nullable
+	private static Object view(@Nullable Object value) {
+		if (value == null || !value.getClass().isArray()) {
+			return value;
+		}
+
+		final Class<?> componentType = value.getClass().getComponentType();
+		final int length = Array.getLength(value);
+		final Object copy = Array.newInstance(componentType, length);
+		System.arraycopy(value, 0, copy, 0, length);
+
+		if (componentType.isPrimitive()) {
+			return ArrayConverter.forComponentType(componentType).asList(copy, false);
+		}
+
+		return Collections.unmodifiableList(Arrays.asList((Object[]) copy));
+	}
+}
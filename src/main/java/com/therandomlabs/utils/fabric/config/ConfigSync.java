@@ -0,0 +1,736 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric.config;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import com.therandomlabs.utils.fabric.FabricUtils;
+import io.netty.buffer.Unpooled;
+import net.fabricmc.fabric.api.event.client.ClientTickCallback;
+import net.fabricmc.fabric.api.event.network.C2SPacketTypeCallback;
+import net.fabricmc.fabric.api.event.server.ServerStartCallback;
+import net.fabricmc.fabric.api.event.server.ServerStopCallback;
+import net.fabricmc.fabric.api.network.ClientSidePacketRegistry;
+import net.fabricmc.fabric.api.network.ServerSidePacketRegistry;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.PacketByteBuf;
+import net.minecraft.util.registry.Registry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Synchronizes the property values of configurations from the server to its clients.
+ * <p>
+ * Clients are sent the values of every synchronized property when they join, after which only
+ * the properties whose values have changed are sent whenever a configuration is reloaded on
+ * the server. Values are written in a compact binary format in which registry entries are
+ * written as raw IDs, which Fabric API keeps consistent between the server and its clients.
+ * Received values are applied on the client thread in a single task, so the client never
+ * observes a partially synchronized configuration. If the client reloads its local values while
+ * it is connected to a server, the reloaded values are backed up and the values received from the
+ * server are applied again. The local values are restored when the client leaves the server, and
+ * when the client starts an integrated server, they are restored on the client thread before any
+ * values are broadcast.
+ */
+final class ConfigSync {
+	static final Identifier CHANNEL = new Identifier("trlutils-fabric", "config_sync");
+
+	private static final int MAX_STRING_LENGTH = 32767;
+
+	private static final Logger logger = LogManager.getLogger("TRLUtils-Fabric");
+
+	private static final Map<String, SyncedConfig> configs = new ConcurrentHashMap<>();
+	private static final Map<Class<?>, SyncedConfig> configsByClass = new ConcurrentHashMap<>();
+
+	//This is null if no server is running.
+	@Nullable
+	private static volatile Consumer<byte[]> broadcaster;
+	//This is only accessed while holding the lock on ConfigSync.
+	@Nullable
+	private static MinecraftServer runningServer;
+	private static boolean initialized;
+
+	private ConfigSync() {}
+
+	static synchronized void register(Class<?> configClass) {
+		final SyncedConfig config = new SyncedConfig(ConfigSchema.get(configClass));
+
+		if (configsByClass.putIfAbsent(configClass, config) != null) {
+			throw new IllegalStateException(configClass.getName() + " is already synchronized");
+		}
+
+		configs.put(config.schema.getID(), config);
+	}
+
+	static synchronized void initialize() {
+		if (initialized) {
+			return;
+		}
+
+		initialized = true;
+
+		ServerStartCallback.EVENT.register(server -> {
+			setRunningServer(server);
+
+			if (FabricUtils.IS_CLIENT) {
+				//Values received from a server are applied on the client thread, so they must
+				//also be restored on it.
+				ClientReceiver.execute(() -> start(server));
+			} else {
+				start(server);
+			}
+		});
+		ServerStopCallback.EVENT.register(server -> setRunningServer(null));
+
+		C2SPacketTypeCallback.REGISTERED.register((player, types) -> {
+			final MinecraftServer server = player.getServer();
+
+			if (server != null && types.contains(CHANNEL)) {
+				server.execute(() -> {
+					for (SyncedConfig config : configsByClass.values()) {
+						ServerSidePacketRegistry.INSTANCE.sendToPlayer(
+								player, CHANNEL, toBuffer(config.getState())
+						);
+					}
+				});
+			}
+		});
+
+		if (FabricUtils.IS_CLIENT) {
+			ClientReceiver.register();
+		}
+	}
+
+	//This is called after a configuration is reloaded.
+	static void onReload(Class<?> configClass) {
+		final SyncedConfig config = configsByClass.get(configClass);
+
+		if (config == null) {
+			return;
+		}
+
+		final Consumer<byte[]> broadcaster = ConfigSync.broadcaster;
+
+		if (broadcaster == null) {
+			//The local values have been reloaded on a client that is not running a server,
+			//so they are backed up until the client leaves the server it is connected to.
+			config.reapply();
+			return;
+		}
+
+		final byte[] packet = config.update();
+
+		if (packet != null) {
+			broadcaster.accept(packet);
+		}
+	}
+
+	//This is used by tests to restore the local values on the current thread.
+	static void restore(Class<?> configClass) {
+		getConfig(configClass).restore();
+	}
+
+	//This is used by tests to receive packets as if a server were running.
+	static void setBroadcaster(@Nullable Consumer<byte[]> broadcaster) {
+		ConfigSync.broadcaster = broadcaster;
+	}
+
+	//Returns the properties of the specified configuration that are synchronized, in the order
+	//of the indices used in packets.
+	static List<ConfigSchema.Property> getProperties(Class<?> configClass) {
+		return getConfig(configClass).properties;
+	}
+
+	//Returns a packet that contains the values that were last sent to clients.
+	static byte[] getState(Class<?> configClass) {
+		return getConfig(configClass).getState();
+	}
+
+	/**
+	 * Decodes a packet received from the server. This may be called from any thread.
+	 *
+	 * @param buffer a {@link PacketByteBuf}.
+	 * @return the decoded {@link Diff}, or {@code null} if the configuration is not
+	 * synchronized on this side.
+	 * @throws IllegalStateException if the packet is invalid or the configuration differs from
+	 * the configuration on the server.
+	 */
+	@Nullable
+	static Diff decode(PacketByteBuf buffer) {
+		final String id = buffer.readString(MAX_STRING_LENGTH);
+		final SyncedConfig config = configs.get(id);
+
+		if (config == null) {
+			return null;
+		}
+
+		if (buffer.readLong() != config.fingerprint) {
+			throw new IllegalStateException("Configuration differs from the server: " + id);
+		}
+
+		final int size = buffer.readVarInt();
+
+		if (size < 0 || size > config.properties.size()) {
+			throw new IllegalStateException("Invalid property count: " + size);
+		}
+
+		final int[] indices = new int[size];
+		final Object[] values = new Object[size];
+
+		for (int i = 0; i < size; i++) {
+			indices[i] = buffer.readVarInt();
+
+			if (indices[i] < 0 || indices[i] >= config.properties.size()) {
+				throw new IllegalStateException("Invalid property index: " + indices[i]);
+			}
+
+			final ConfigSchema.Property property = config.properties.get(indices[i]);
+			values[i] = decode(buffer, property.getField().getType(), property);
+		}
+
+		if (buffer.isReadable()) {
+			throw new IllegalStateException("Unexpected data after properties: " + id);
+		}
+
+		return new Diff(config, indices, values);
+	}
+
+	private static synchronized void setRunningServer(@Nullable MinecraftServer server) {
+		runningServer = server;
+
+		if (server == null) {
+			broadcaster = null;
+		}
+	}
+
+	private static synchronized void start(MinecraftServer server) {
+		//The server may have been stopped before this task was run on the client thread.
+		if (runningServer != server) {
+			return;
+		}
+
+		//Clients that open a world use their own configuration files again.
+		restoreAll();
+
+		for (SyncedConfig config : configsByClass.values()) {
+			//Raw IDs may have been remapped when the world was loaded.
+			config.capture();
+		}
+
+		broadcaster = packet -> server.execute(() -> sendToAll(server, packet));
+	}
+
+	//This should be called on the client thread.
+	private static void restoreAll() {
+		for (SyncedConfig config : configsByClass.values()) {
+			config.restore();
+		}
+	}
+
+	private static SyncedConfig getConfig(Class<?> configClass) {
+		final SyncedConfig config = configsByClass.get(configClass);
+
+		if (config == null) {
+			throw new IllegalArgumentException(configClass.getName() + " is not synchronized");
+		}
+
+		return config;
+	}
+
+	private static void sendToAll(MinecraftServer server, byte[] packet) {
+		for (ServerPlayerEntity player : server.getPlayerManager().getPlayerList()) {
+			if (ServerSidePacketRegistry.INSTANCE.canPlayerReceive(player, CHANNEL)) {
+				ServerSidePacketRegistry.INSTANCE.sendToPlayer(player, CHANNEL, toBuffer(packet));
+			}
+		}
+	}
+
+	private static PacketByteBuf toBuffer(byte[] packet) {
+		return new PacketByteBuf(Unpooled.wrappedBuffer(packet));
+	}
+
+	private static byte[] toByteArray(PacketByteBuf buffer) {
+		final byte[] bytes = new byte[buffer.readableBytes()];
+		buffer.readBytes(bytes);
+		return bytes;
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static boolean encode(PacketByteBuf buffer, Class<?> type, @Nullable Object value) {
+		//Null values are only set by TRLUtils-Config for invalid values, so they are not sent.
+		if (value == null) {
+			return false;
+		}
+
+		if (type == RegistryEntrySet.class) {
+			final RegistryEntrySet<Object> set = (RegistryEntrySet<Object>) value;
+			buffer.writeVarInt(set.size());
+
+			for (Object entry : set) {
+				if (!encodeEntry(buffer, set.getRegistry(), entry)) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+		if (type.isArray()) {
+			final int length = Array.getLength(value);
+			buffer.writeVarInt(length);
+
+			for (int i = 0; i < length; i++) {
+				if (!encode(buffer, type.getComponentType(), Array.get(value, i))) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+		final Registry<Object> registry = (Registry<Object>) RegistryIndex.get(type);
+
+		if (registry != null) {
+			return encodeEntry(buffer, registry, value);
+		}
+
+		if (type == boolean.class || type == Boolean.class) {
+			buffer.writeBoolean((Boolean) value);
+		} else if (type == int.class || type == Integer.class) {
+			buffer.writeVarInt((Integer) value);
+		} else if (type == long.class || type == Long.class) {
+			buffer.writeVarLong((Long) value);
+		} else if (type == float.class || type == Float.class) {
+			buffer.writeFloat((Float) value);
+		} else if (type == double.class || type == Double.class) {
+			buffer.writeDouble((Double) value);
+		} else if (type == String.class) {
+			if (((String) value).length() > MAX_STRING_LENGTH) {
+				return false;
+			}
+
+			buffer.writeString((String) value);
+		} else if (type.isEnum()) {
+			buffer.writeVarInt(((Enum) value).ordinal());
+		} else {
+			return false;
+		}
+
+		return true;
+	}
+
+	private static boolean encodeEntry(
+			PacketByteBuf buffer, Registry<Object> registry, Object entry
+	) {
+		final int rawID = registry.getRawId(entry);
+
+		if (rawID < 0) {
+			return false;
+		}
+
+		buffer.writeVarInt(rawID);
+		return true;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Object decode(
+			PacketByteBuf buffer, Class<?> type, ConfigSchema.Property property
+	) {
+		if (type == RegistryEntrySet.class) {
+			//Properties are only synchronized if their registry is known, so this is not null.
+			final Registry<Object> registry = (Registry<Object>) property.getRegistry();
+			final int size = readLength(buffer);
+			final List<Object> entries = new ArrayList<>(size);
+
+			for (int i = 0; i < size; i++) {
+				entries.add(decodeEntry(buffer, registry));
+			}
+
+			return RegistryEntrySet.of(registry, entries);
+		}
+
+		if (type.isArray()) {
+			final Object array = Array.newInstance(type.getComponentType(), readLength(buffer));
+
+			for (int i = 0; i < Array.getLength(array); i++) {
+				Array.set(array, i, decode(buffer, type.getComponentType(), property));
+			}
+
+			return array;
+		}
+
+		final Registry<?> registry = RegistryIndex.get(type);
+
+		if (registry != null) {
+			return decodeEntry(buffer, registry);
+		}
+
+		if (type == boolean.class || type == Boolean.class) {
+			return buffer.readBoolean();
+		}
+
+		if (type == int.class || type == Integer.class) {
+			return buffer.readVarInt();
+		}
+
+		if (type == long.class || type == Long.class) {
+			return buffer.readVarLong();
+		}
+
+		if (type == float.class || type == Float.class) {
+			return buffer.readFloat();
+		}
+
+		if (type == double.class || type == Double.class) {
+			return buffer.readDouble();
+		}
+
+		if (type == String.class) {
+			return buffer.readString(MAX_STRING_LENGTH);
+		}
+
+		if (type.isEnum()) {
+			final Object[] constants = type.getEnumConstants();
+			final int ordinal = buffer.readVarInt();
+
+			if (ordinal < 0 || ordinal >= constants.length) {
+				throw new IllegalStateException("Invalid ordinal: " + ordinal);
+			}
+
+			return constants[ordinal];
+		}
+
+		throw new IllegalStateException("Unsupported type: " + type.getName());
+	}
+
+	private static Object decodeEntry(PacketByteBuf buffer, Registry<?> registry) {
+		final int rawID = buffer.readVarInt();
+		final Object entry = registry.get(rawID);
+
+		if (entry == null) {
+			throw new IllegalStateException("Invalid raw ID: " + rawID);
+		}
+
+		return entry;
+	}
+
+	//Lengths are checked against the size of the packet so that an invalid length cannot
+	//cause a large allocation.
+	private static int readLength(PacketByteBuf buffer) {
+		final int length = buffer.readVarInt();
+
+		if (length < 0 || length > buffer.readableBytes()) {
+			throw new IllegalStateException("Invalid length: " + length);
+		}
+
+		return length;
+	}
+
+	/**
+	 * The property values contained in a packet received from the server.
+	 */
+	static final class Diff {
+		private final SyncedConfig config;
+		private final int[] indices;
+		private final Object[] values;
+
+		Diff(SyncedConfig config, int[] indices, Object[] values) {
+			this.config = config;
+			this.indices = indices;
+			this.values = values;
+		}
+
+		/**
+		 * Returns the number of properties in this {@link Diff}.
+		 *
+		 * @return the number of properties in this {@link Diff}.
+		 */
+		int size() {
+			return indices.length;
+		}
+
+		/**
+		 * Assigns the values in this {@link Diff} to the specified array, which is indexed
+		 * in the same way as {@link ConfigSync#getProperties(Class)}.
+		 *
+		 * @param state an array of property values.
+		 */
+		void applyTo(Object[] state) {
+			for (int i = 0; i < indices.length; i++) {
+				state[indices[i]] = values[i];
+			}
+		}
+
+		/**
+		 * Applies the values in this {@link Diff} to the configuration class, backing up the
+		 * local values first if necessary. This should be called on the client thread.
+		 */
+		void apply() {
+			config.receive(indices, values);
+		}
+	}
+
+	private static final class SyncedConfig {
+		final ConfigSchema schema;
+		final List<ConfigSchema.Property> properties;
+		final long fingerprint;
+		//The encoded values that were last sent to clients, which are null for values that
+		//cannot be encoded.
+		final byte[][] sent;
+		//The local values of a client from before it first received values from a server.
+		//This and received are only accessed on the client thread.
+		@Nullable
+		Object[] backup;
+		//The values that have been received from a server, which are null for values that
+		//have not been received.
+		@Nullable
+		Object[] received;
+
+		SyncedConfig(ConfigSchema schema) {
+			this.schema = schema;
+
+			final List<ConfigSchema.Property> properties = new ArrayList<>();
+
+			//Properties that cannot be read by TRLUtils-Fabric may have unsupported types.
+			for (ConfigSchema.Property property : schema.getProperties()) {
+				if (property.supportsAsyncReload()) {
+					properties.add(property);
+				}
+			}
+
+			this.properties = Collections.unmodifiableList(properties);
+			fingerprint = ConfigCache.getSchemaFingerprint(schema);
+			sent = new byte[properties.size()][];
+			capture();
+		}
+
+		synchronized void capture() {
+			for (int i = 0; i < sent.length; i++) {
+				sent[i] = encodeValue(properties.get(i));
+			}
+		}
+
+		//Returns a packet that contains the values that have changed since they were last
+		//sent, or null if none have changed.
+		@Nullable
+		synchronized byte[] update() {
+			final byte[][] changed = new byte[sent.length][];
+			int count = 0;
+
+			for (int i = 0; i < sent.length; i++) {
+				final byte[] value = encodeValue(properties.get(i));
+
+				if (value != null && !Arrays.equals(value, sent[i])) {
+					sent[i] = value;
+					changed[i] = value;
+					count++;
+				}
+			}
+
+			return count == 0 ? null : createPacket(changed, count);
+		}
+
+		synchronized byte[] getState() {
+			int count = 0;
+
+			for (byte[] value : sent) {
+				if (value != null) {
+					count++;
+				}
+			}
+
+			return createPacket(sent, count);
+		}
+
+		Object[] getValues() {
+			final Object[] values = new Object[properties.size()];
+
+			for (int i = 0; i < values.length; i++) {
+				values[i] = properties.get(i).getValue();
+			}
+
+			return values;
+		}
+
+		void setValues(int[] indices, Object[] values) {
+			try {
+				for (int i = 0; i < indices.length; i++) {
+					final Field field = properties.get(indices[i]).getField();
+
+					//Decoded values are never identical to the current values, so they are
+					//compared by value to avoid replacing equal arrays.
+					if (!Objects.deepEquals(field.get(null), values[i])) {
+						field.set(null, values[i]);
+					}
+				}
+			} catch (IllegalAccessException ex) {
+				throw new IllegalStateException(
+						"Failed to apply configuration: " + schema.getID(), ex
+				);
+			}
+
+			ConfigSnapshot.onReload(schema.getConfigClass());
+		}
+
+		void receive(int[] indices, Object[] values) {
+			if (backup == null) {
+				backup = getValues();
+				received = new Object[properties.size()];
+			}
+
+			//Received values are never null.
+			for (int i = 0; i < indices.length; i++) {
+				received[indices[i]] = values[i];
+			}
+
+			setValues(indices, values);
+		}
+
+		//This is called after the local values are reloaded.
+		void reapply() {
+			if (backup == null) {
+				return;
+			}
+
+			backup = getValues();
+
+			int count = 0;
+
+			for (Object value : received) {
+				if (value != null) {
+					count++;
+				}
+			}
+
+			final int[] indices = new int[count];
+			final Object[] values = new Object[count];
+
+			for (int i = 0, j = 0; i < received.length; i++) {
+				if (received[i] != null) {
+					indices[j] = i;
+					values[j++] = received[i];
+				}
+			}
+
+			setValues(indices, values);
+		}
+
+		void restore() {
+			if (backup != null) {
+				final int[] indices = new int[backup.length];
+
+				for (int i = 0; i < indices.length; i++) {
+					indices[i] = i;
+				}
+
+				setValues(indices, backup);
+				backup = null;
+				received = null;
+			}
+		}
+
+		@Nullable
+		private static byte[] encodeValue(ConfigSchema.Property property) {
+			final PacketByteBuf buffer = new PacketByteBuf(Unpooled.buffer());
+			return encode(buffer, property.getField().getType(), property.getValue()) ?
+					toByteArray(buffer) : null;
+		}
+
+		private byte[] createPacket(byte[][] values, int count) {
+			final PacketByteBuf buffer = new PacketByteBuf(Unpooled.buffer());
+			buffer.writeString(schema.getID());
+			buffer.writeLong(fingerprint);
+			buffer.writeVarInt(count);
+
+			for (int i = 0; i < values.length; i++) {
+				if (values[i] != null) {
+					buffer.writeVarInt(i);
+					buffer.writeBytes(values[i]);
+				}
+			}
+
+			return toByteArray(buffer);
+		}
+	}
+
+	//MinecraftClient and ClientSidePacketRegistry are only referenced from this class so that
+	//they are never loaded on dedicated servers.
+	private static final class ClientReceiver {
+		//This is only accessed on the client thread.
+		private static boolean receivedValues;
+
+		private ClientReceiver() {}
+
+		static void execute(Runnable task) {
+			MinecraftClient.getInstance().execute(task);
+		}
+
+		static void register() {
+			ClientSidePacketRegistry.INSTANCE.register(CHANNEL, (context, buffer) -> {
+				//Clients that are running a server already use the same values.
+				if (MinecraftClient.getInstance().isIntegratedServerRunning()) {
+					return;
+				}
+
+				final Diff diff;
+
+				try {
+					diff = decode(buffer);
+				} catch (RuntimeException ex) {
+					logger.warn("Failed to synchronize configuration", ex);
+					return;
+				}
+
+				if (diff != null) {
+					context.getTaskQueue().execute(() -> {
+						diff.apply();
+						receivedValues = true;
+					});
+				}
+			});
+
+			//Fabric API does not provide a disconnect event, so the local values are restored
+			//on the first tick after the client leaves the server.
+			ClientTickCallback.EVENT.register(client -> {
+				if (receivedValues && client.getNetworkHandler() == null) {
+					receivedValues = false;
+					restoreAll();
+				}
+			});
+		}
+	}
+}
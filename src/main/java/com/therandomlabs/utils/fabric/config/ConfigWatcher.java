@@ -0,0 +1,276 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric.config;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import com.therandomlabs.utils.fabric.FabricUtils;
+import net.fabricmc.fabric.api.event.server.ServerStartCallback;
+import net.fabricmc.fabric.api.event.server.ServerStopCallback;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.command.CommandSource;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Reloads configurations when their files are modified. A single {@link WatchService} and
+ * thread is shared by all watched configurations.
+ * <p>
+ * Files are compared by their content hashes rather than their modification times to determine
+ * whether they have been modified externally or only rewritten by a reload, as some file
+ * systems only store modification times to the nearest one or two seconds, and an edit made
+ * shortly after a reload would otherwise be missed.
+ */
+final class ConfigWatcher {
+	//Bursts of modifications within this window cause a single reload.
+	private static final long DEBOUNCE_MILLIS = 500L;
+
+	private static final Logger logger = LogManager.getLogger("TRLUtils-Fabric");
+
+	private static final Map<Path, WatchedConfig> configs = new ConcurrentHashMap<>();
+	private static final Map<Class<?>, WatchedConfig> configsByClass = new ConcurrentHashMap<>();
+	private static final Set<Path> directories = ConcurrentHashMap.newKeySet();
+	private static final Set<WatchedConfig> deferred = ConcurrentHashMap.newKeySet();
+
+	@Nullable
+	private static WatchService watchService;
+	@Nullable
+	private static volatile MinecraftServer server;
+
+	private ConfigWatcher() {}
+
+	static synchronized void watch(Class<?> configClass, @Nullable ConfigReloadCommand command) {
+		final Path path = ConfigSchema.get(configClass).getPath().toAbsolutePath().normalize();
+		final WatchedConfig config = new WatchedConfig(configClass, path, command);
+
+		if (configsByClass.putIfAbsent(configClass, config) != null) {
+			throw new IllegalStateException(configClass.getName() + " is already being watched");
+		}
+
+		if (watchService == null) {
+			start();
+		}
+
+		configs.put(path, config);
+		config.contentHash = getContentHash(path);
+
+		final Path directory = path.getParent();
+
+		if (directories.add(directory)) {
+			try {
+				Files.createDirectories(directory);
+				directory.register(
+						watchService, StandardWatchEventKinds.ENTRY_CREATE,
+						StandardWatchEventKinds.ENTRY_MODIFY
+				);
+			} catch (IOException ex) {
+				throw new UncheckedIOException("Failed to watch directory: " + directory, ex);
+			}
+		}
+	}
+
+	//This is called after TRLUtils-Config reloads a configuration, which rewrites its file,
+	//so that this does not trigger another reload.
+	static void onReload(Class<?> configClass) {
+		final WatchedConfig config = configsByClass.get(configClass);
+
+		if (config != null) {
+			config.contentHash = getContentHash(config.path);
+		}
+	}
+
+	private static void start() {
+		try {
+			watchService = FileSystems.getDefault().newWatchService();
+		} catch (IOException ex) {
+			throw new UncheckedIOException("Failed to create WatchService", ex);
+		}
+
+		ServerStartCallback.EVENT.register(startedServer -> {
+			server = startedServer;
+
+			//Configurations that are modified while no server is running on a dedicated server
+			//are reloaded when the server starts.
+			for (WatchedConfig config : deferred) {
+				if (deferred.remove(config)) {
+					reload(config);
+				}
+			}
+		});
+		ServerStopCallback.EVENT.register(stoppedServer -> server = null);
+
+		final Thread thread = new Thread(ConfigWatcher::run, "TRLUtils-Fabric Config Watcher");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	@SuppressWarnings("NullAway")
+	private static void run() {
+		final Map<WatchedConfig, Long> pending = new HashMap<>();
+
+		while (true) {
+			final WatchKey key;
+
+			try {
+				if (pending.isEmpty()) {
+					key = watchService.take();
+				} else {
+					long timeout = Long.MAX_VALUE;
+
+					for (long deadline : pending.values()) {
+						timeout = Math.min(timeout, deadline - currentTimeMillis());
+					}
+
+					key = watchService.poll(Math.max(timeout, 0L), TimeUnit.MILLISECONDS);
+				}
+			} catch (InterruptedException ex) {
+				return;
+			}
+
+			if (key != null) {
+				final Path directory = (Path) key.watchable();
+				final long deadline = currentTimeMillis() + DEBOUNCE_MILLIS;
+
+				for (WatchEvent<?> event : key.pollEvents()) {
+					if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+						for (WatchedConfig config : configs.values()) {
+							if (config.path.getParent().equals(directory)) {
+								pending.put(config, deadline);
+							}
+						}
+					} else {
+						final WatchedConfig config =
+								configs.get(directory.resolve((Path) event.context()));
+
+						if (config != null) {
+							pending.put(config, deadline);
+						}
+					}
+				}
+
+				key.reset();
+			}
+
+			final long now = currentTimeMillis();
+
+			final Iterator<Map.Entry<WatchedConfig, Long>> it = pending.entrySet().iterator();
+
+			while (it.hasNext()) {
+				final Map.Entry<WatchedConfig, Long> entry = it.next();
+
+				if (entry.getValue() > now) {
+					continue;
+				}
+
+				it.remove();
+
+				final WatchedConfig config = entry.getKey();
+				final long contentHash = getContentHash(config.path);
+
+				//The file may have been rewritten by a reload rather than modified externally.
+				if (contentHash != config.contentHash) {
+					config.contentHash = contentHash;
+					reload(config);
+				}
+			}
+		}
+	}
+
+	private static void reload(WatchedConfig config) {
+		final MinecraftServer server = ConfigWatcher.server;
+		final Executor mainThread;
+
+		if (server != null) {
+			mainThread = server;
+		} else if (FabricUtils.IS_CLIENT) {
+			mainThread = ConfigReloadCommand.getClientExecutor();
+		} else {
+			deferred.add(config);
+			return;
+		}
+
+		mainThread.execute(() -> {
+			if (config.command != null) {
+				//On a client that is not running a server, the client command source is used,
+				//which is only available while the client is in a world.
+				final CommandSource source = server != null ?
+						server.getCommandSource() : ConfigReloadCommand.getClientCommandSource();
+
+				config.command.reload(source, mainThread, false);
+			} else {
+				ConfigLoader.reload(
+						Collections.singletonList(config.configClass), mainThread, loaded -> {},
+						throwable -> logger.error(
+								"Failed to reload configuration: {}",
+								config.configClass.getName(), throwable
+						)
+				);
+			}
+		});
+	}
+
+	//Missing and unreadable files share a hash, so they only cause a single reload.
+	private static long getContentHash(Path path) {
+		try {
+			return ConfigCache.getContentHash(path);
+		} catch (IOException ex) {
+			return 0L;
+		}
+	}
+
+	private static long currentTimeMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+	}
+
+	private static final class WatchedConfig {
+		final Class<?> configClass;
+		final Path path;
+		@Nullable
+		final ConfigReloadCommand command;
+		volatile long contentHash;
+
+		WatchedConfig(Class<?> configClass, Path path, @Nullable ConfigReloadCommand command) {
+			this.configClass = configClass;
+			this.path = path;
+			this.command = command;
+		}
+	}
+}
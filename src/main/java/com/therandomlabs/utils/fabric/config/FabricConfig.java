@@ -23,13 +23,24 @@
 
 package com.therandomlabs.utils.fabric.config;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+
+import com.google.common.base.Preconditions;
 import com.therandomlabs.utils.config.ConfigManager;
 import com.therandomlabs.utils.fabric.FabricUtils;
+import com.therandomlabs.utils.fabric.StartupTimings;
+import net.fabricmc.fabric.api.event.server.ServerStartCallback;
 
 /**
- * At the moment, this class just contains {@link #initialize()}.
+ * Contains utility methods for using TRLUtils-Config in Fabric mods.
  */
 public final class FabricConfig {
+	private static boolean initialized;
+	private static boolean startupTimingsLogged;
+
 	private FabricConfig() {}
 
 	/**
@@ -37,7 +48,173 @@ public final class FabricConfig {
 	 * This should be called before using TRLUtils-Config in a Fabric mod.
 	 */
 	public static void initialize() {
+		final long startTime = System.nanoTime();
+
 		ConfigManager.setClient(FabricUtils.IS_CLIENT);
 		IdentifierTypeAdapter.initialize();
+
+		if (!initialized) {
+			initialized = true;
+			//The startup timings are logged once the game has finished loading on dedicated
+			//servers, or once a world is first opened on clients.
+			ServerStartCallback.EVENT.register(server -> {
+				if (!startupTimingsLogged) {
+					startupTimingsLogged = true;
+					StartupTimings.logSummary();
+				}
+			});
+		}
+
+		StartupTimings.record("FabricConfig.initialize", System.nanoTime() - startTime);
+	}
+
+	/**
+	 * Registers the specified configuration with TRLUtils-Config, or loads it from a binary
+	 * cache if neither the configuration file nor the relevant registries have changed since
+	 * the cache was written. The cache is stored in {@link FabricUtils#MC_DIRECTORY}.
+	 * <p>
+	 * If the configuration is loaded from the cache, it is only registered with TRLUtils-Config
+	 * when it is first reloaded, so it must be reloaded using {@link #reloadFromDisk(Class)},
+	 * {@link #watch(Class)} or a {@link ConfigReloadCommand}. Calling
+	 * {@link ConfigManager#reloadFromDisk(Class)} or any other {@link ConfigManager} method for
+	 * the configuration fails until it is registered, so {@link #ensureRegistered(Class)} must be
+	 * called first. Configurations that use features that are not supported by TRLUtils-Fabric
+	 * are always registered normally.
+	 *
+	 * @param configClass a TRLUtils-Config configuration class.
+	 */
+	public static void register(Class<?> configClass) {
+		Preconditions.checkNotNull(configClass, "configClass should not be null");
+
+		final long startTime = System.nanoTime();
+		ConfigCache.register(configClass);
+		ConfigSnapshot.update(configClass);
+		StartupTimings.recordConfig(configClass, System.nanoTime() - startTime);
+	}
+
+	/**
+	 * Registers the specified configuration with TRLUtils-Config if it was loaded from the
+	 * binary cache by {@link #register(Class)} or {@link #registerAll(Class[])} and has not been
+	 * registered yet, which reloads it from disk. This must be called before
+	 * {@link ConfigManager} is used directly for a configuration registered by TRLUtils-Fabric.
+	 *
+	 * @param configClass a TRLUtils-Config configuration class.
+	 * @return {@code true} if the configuration has been registered by this call,
+	 * or otherwise {@code false}.
+	 */
+	public static boolean ensureRegistered(Class<?> configClass) {
+		Preconditions.checkNotNull(configClass, "configClass should not be null");
+		return ConfigLoader.ensureRegistered(configClass);
+	}
+
+	/**
+	 * Registers the specified configurations as if {@link #register(Class)} were called for
+	 * each of them. Configuration files are read, parsed and resolved in parallel on a bounded
+	 * {@link java.util.concurrent.ForkJoinPool}, after which the property values are applied in
+	 * the specified order on the current thread. Configurations that use features that are not
+	 * supported by TRLUtils-Fabric are registered normally on the current thread.
+	 * <p>
+	 * As with {@link #register(Class)}, {@link #ensureRegistered(Class)} must be called before
+	 * {@link ConfigManager} is used directly for any of the configurations.
+	 * <p>
+	 * If any configuration fails to be registered, the others are still registered, after
+	 * which an exception is thrown for the first failure with the others suppressed.
+	 * <p>
+	 * The time taken is logged and returned.
+	 *
+	 * @param configClasses an array of TRLUtils-Config configuration classes.
+	 * @return a {@link ConfigLoadReport} that contains the total and per-configuration times.
+	 * @throws IllegalStateException if any configuration fails to be registered.
+	 */
+	public static ConfigLoadReport registerAll(Class<?>... configClasses) {
+		Preconditions.checkNotNull(configClasses, "configClasses should not be null");
+		return registerAll(Arrays.asList(configClasses));
+	}
+
+	/**
+	 * Registers the specified configurations as if {@link #register(Class)} were called for
+	 * each of them.
+	 *
+	 * @param configClasses a {@link Collection} of TRLUtils-Config configuration classes.
+	 * @return a {@link ConfigLoadReport} that contains the total and per-configuration times.
+	 * @see #registerAll(Class[])
+	 */
+	public static ConfigLoadReport registerAll(Collection<Class<?>> configClasses) {
+		Preconditions.checkNotNull(configClasses, "configClasses should not be null");
+
+		for (Class<?> configClass : configClasses) {
+			Preconditions.checkNotNull(configClass, "configClasses should not contain null");
+		}
+
+		return ConfigRegistrar.registerAll(new ArrayList<>(new LinkedHashSet<>(configClasses)));
+	}
+
+	/**
+	 * Reloads the specified configuration from disk on the current thread.
+	 *
+	 * @param configClass a TRLUtils-Config configuration class.
+	 */
+	public static void reloadFromDisk(Class<?> configClass) {
+		Preconditions.checkNotNull(configClass, "configClass should not be null");
+		ConfigLoader.reloadFromDisk(configClass);
+	}
+
+	/**
+	 * Synchronizes the specified configuration from the server to its clients. Clients are sent
+	 * the property values when they join, and the values that have changed whenever the
+	 * configuration is reloaded on the server using {@link #reloadFromDisk(Class)},
+	 * {@link #watch(Class)} or a {@link ConfigReloadCommand}. Registry entries are sent as
+	 * raw IDs. Properties that use features that are not supported by TRLUtils-Fabric are not
+	 * synchronized.
+	 * <p>
+	 * Received values are applied together on the client thread. The local values of a client
+	 * are restored when it opens a world, or replaced when the configuration is reloaded on the
+	 * client while no server is running.
+	 * <p>
+	 * This should be called on both sides after the configuration is registered.
+	 *
+	 * @param configClass a TRLUtils-Config configuration class.
+	 */
+	public static void sync(Class<?> configClass) {
+		Preconditions.checkNotNull(configClass, "configClass should not be null");
+		ConfigSync.register(configClass);
+		ConfigSync.initialize();
+	}
+
+	/**
+	 * Reloads the specified configuration whenever its file is modified.
+	 * Modifications made in quick succession only cause a single reload.
+	 * The configuration is read and parsed on a worker thread and applied on the server thread,
+	 * or on the client thread if no server is running. On dedicated servers, modifications made
+	 * before the server starts are applied when it starts.
+	 * <p>
+	 * The configuration should be registered using {@link #register(Class)} or
+	 * {@link ConfigManager#register(Class)} before this method is called.
+	 *
+	 * @param configClass a TRLUtils-Config configuration class.
+	 */
+	public static void watch(Class<?> configClass) {
+		Preconditions.checkNotNull(configClass, "configClass should not be null");
+		ConfigWatcher.watch(configClass, null);
+	}
+
+	/**
+	 * Reloads the configurations reloaded by the specified {@link ConfigReloadCommand} whenever
+	 * any of their files are modified. The pre-reload and post-reload
+	 * {@link java.util.function.Consumer}s of the {@link ConfigReloadCommand} are called with
+	 * the server command source. If no server is running, they are called with the
+	 * {@link io.github.cottonmc.clientcommands.CottonClientCommandSource} of the client instead,
+	 * or are not called if the client is not in a world, for example on the title screen.
+	 * No feedback is sent.
+	 *
+	 * @param command a {@link ConfigReloadCommand}.
+	 * @see #watch(Class)
+	 */
+	public static void watch(ConfigReloadCommand command) {
+		Preconditions.checkNotNull(command, "command should not be null");
+
+		for (Class<?> configClass : command.getConfigClasses()) {
+			ConfigWatcher.watch(configClass, command);
+		}
 	}
 }
@@ -0,0 +1,166 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric.config;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.therandomlabs.utils.fabric.FlightRecorderEventType;
+import net.fabricmc.fabric.api.event.registry.RegistryEntryAddedCallback;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.registry.Registry;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Caches the {@link Identifier}s and registry entries that configuration strings resolve to.
+ * The cache is shared between all {@link IdentifierTypeAdapter}s, and the resolved entries of
+ * a registry are discarded whenever an entry is added to it.
+ * <p>
+ * Since the caches are keyed by arbitrary configuration strings, each of them is cleared once it
+ * holds {@value #MAX_CACHED_STRINGS} strings rather than being allowed to grow without bound.
+ */
+final class IdentifierCache {
+	static final int MAX_CACHED_STRINGS = 65536;
+
+	private static final Map<String, Identifier> identifiers = new ConcurrentHashMap<>();
+	private static final Map<Registry<?>, Map<String, Optional<Object>>> entries =
+			new ConcurrentHashMap<>();
+	private static final AtomicInteger generation = new AtomicInteger();
+
+	//Recorded when an array of identifiers is resolved.
+	static final FlightRecorderEventType arrayResolutionEvent = FlightRecorderEventType.create(
+			"com.therandomlabs.utils.fabric.IdentifierArrayResolution",
+			"Identifier Array Resolution",
+			FlightRecorderEventType.Value.of("entryClass", String.class),
+			FlightRecorderEventType.Value.of("elements", int.class),
+			FlightRecorderEventType.Value.of("misses", int.class)
+	);
+
+	private IdentifierCache() {}
+
+	static Identifier parse(String string) {
+		final Identifier identifier = identifiers.get(string);
+
+		if (identifier != null) {
+			return identifier;
+		}
+
+		final String stripped = stripWhitespace(string);
+
+		ensureCapacity(identifiers);
+
+		//Strings that only differ in whitespace share the same Identifier instance.
+		final Identifier parsed = identifiers.computeIfAbsent(stripped, Identifier::new);
+
+		if (!stripped.equals(string)) {
+			identifiers.putIfAbsent(string, parsed);
+		}
+
+		return parsed;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Nullable
+	static <T> T resolve(Registry<T> registry, String string) {
+		Map<String, Optional<Object>> registryEntries = entries.get(registry);
+
+		if (registryEntries == null) {
+			registryEntries = entries.computeIfAbsent(registry, key -> {
+				if (RegistryIndex.isListening()) {
+					RegistryEntryAddedCallback.event(registry).register(
+							(rawID, identifier, object) -> invalidate(registry)
+					);
+				}
+
+				return new ConcurrentHashMap<>();
+			});
+		}
+
+		Optional<Object> entry = registryEntries.get(string);
+
+		if (entry == null) {
+			entry = Optional.ofNullable(registry.get(parse(string)));
+			ensureCapacity(registryEntries);
+			registryEntries.put(string, entry);
+		}
+
+		return (T) entry.orElse(null);
+	}
+
+	static void invalidate(Registry<?> registry) {
+		generation.incrementAndGet();
+
+		//The map is replaced rather than cleared so that a concurrent miss that looked up an
+		//entry before the registry was modified stores it in the discarded map.
+		//Otherwise, it could store the outdated entry after the map is cleared.
+		entries.replace(registry, new ConcurrentHashMap<>());
+	}
+
+	//This is incremented whenever a registry is modified, which may change how identifiers
+	//are resolved.
+	static int getGeneration() {
+		return generation.get();
+	}
+
+	static String stripWhitespace(String string) {
+		final int length = string.length();
+		int index = 0;
+
+		while (index < length && !isWhitespace(string.charAt(index))) {
+			index++;
+		}
+
+		//Most strings do not contain whitespace, in which case no new string is created.
+		if (index == length) {
+			return string;
+		}
+
+		final StringBuilder builder = new StringBuilder(length - 1);
+		builder.append(string, 0, index);
+
+		for (index++; index < length; index++) {
+			final char character = string.charAt(index);
+
+			if (!isWhitespace(character)) {
+				builder.append(character);
+			}
+		}
+
+		return builder.toString();
+	}
+
+	private static void ensureCapacity(Map<String, ?> cache) {
+		if (cache.size() >= MAX_CACHED_STRINGS) {
+			cache.clear();
+		}
+	}
+
+	//This matches the characters matched by the \s regular expression.
+	private static boolean isWhitespace(char character) {
+		return character == ' ' || character == '\t' || character == '\n' ||
+				character == '\u000B' || character == '\f' || character == '\r';
+	}
+}
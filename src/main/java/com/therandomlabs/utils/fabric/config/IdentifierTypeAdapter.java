@@ -26,35 +26,24 @@ package com.therandomlabs.utils.fabric.config;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 import com.electronwill.nightconfig.core.file.CommentedFileConfig;
 import com.therandomlabs.utils.config.TypeAdapter;
 import com.therandomlabs.utils.config.TypeAdapters;
-import net.minecraft.util.Identifier;
-import net.minecraft.util.registry.MutableRegistry;
 import net.minecraft.util.registry.Registry;
 
 @SuppressWarnings("NullAway")
 final class IdentifierTypeAdapter implements TypeAdapter {
-	private static final Map<Class<?>, MutableRegistry<?>> registries = new HashMap<>();
-
 	private final Class<?> registryEntryClass;
 	private final Registry<Object> registry;
 	private final boolean isArray;
 
-	static {
-		reloadRegistries();
-	}
-
 	@SuppressWarnings("unchecked")
 	IdentifierTypeAdapter(Class<?> registryEntryClass, boolean isArray) {
 		this.registryEntryClass = registryEntryClass;
-		registry = (Registry<Object>) registries.get(registryEntryClass);
+		registry = (Registry<Object>) RegistryIndex.get(registryEntryClass);
 		this.isArray = isArray;
 	}
 
@@ -70,9 +59,7 @@ final class IdentifierTypeAdapter implements TypeAdapter {
 			return defaultValue;
 		}
 
-		final Identifier identifier =
-				new Identifier(identifierString.replaceAll("\\s", ""));
-		final Object value = registry.get(identifier);
+		final Object value = IdentifierCache.resolve(registry, identifierString);
 		return value == null ? defaultValue : value;
 	}
 
@@ -106,52 +93,41 @@ final class IdentifierTypeAdapter implements TypeAdapter {
 	}
 
 	private Object getArrayValue(CommentedFileConfig config, String name) {
+		final Object event = IdentifierCache.arrayResolutionEvent.begin();
 		final List<String> list = config.get(name);
 		final List<Object> values = new ArrayList<>(list.size());
 
 		for (String element : list) {
-			final Object object = registry.get(new Identifier(element.replaceAll("\\s", "")));
+			final Object object = IdentifierCache.resolve(registry, element);
 
 			if (object != null) {
 				values.add(object);
 			}
 		}
 
+		if (event != null) {
+			IdentifierCache.arrayResolutionEvent.commit(
+					event, registryEntryClass.getName(), list.size(), list.size() - values.size()
+			);
+		}
+
 		return values.toArray((Object[]) Array.newInstance(registryEntryClass, 0));
 	}
 
 	static void initialize() {
+		RegistryIndex.initialize();
 		TypeAdapters.registerAutoRegistrar(IdentifierTypeAdapter::registerIfRegistryEntry);
 	}
 
-	private static void reloadRegistries() {
-		registries.clear();
-
-		for (MutableRegistry<?> registry : Registry.REGISTRIES) {
-			final Optional<Identifier> identifier = registry.getIds().stream().findAny();
-
-			if (!identifier.isPresent()) {
-				continue;
-			}
-
-			Class<?> clazz = registry.get(identifier.get()).getClass();
-
-			//We do this so that we get the right base class, e.g. Item instead of AirBlockItem.
-			if (clazz.getSuperclass() != Object.class) {
-				clazz = clazz.getSuperclass();
-			}
-
-			registries.put(clazz, registry);
-		}
-	}
-
 	private static void registerIfRegistryEntry(Class<?> clazz) {
-		if (registries.containsKey(clazz)) {
+		if (clazz == RegistryEntrySet.class) {
+			TypeAdapters.register(clazz, new RegistryEntrySetTypeAdapter());
+		} else if (RegistryIndex.get(clazz) != null) {
 			register(clazz);
 		} else if (clazz.isArray()) {
 			final Class<?> componentType = clazz.getComponentType();
 
-			if (registries.containsKey(clazz)) {
+			if (RegistryIndex.get(componentType) != null) {
 				register(componentType);
 			}
 		}
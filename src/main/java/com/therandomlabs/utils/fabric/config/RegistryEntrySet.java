@@ -0,0 +1,198 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric.config;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.base.Preconditions;
+import net.fabricmc.fabric.api.event.registry.RegistryIdRemapCallback;
+import net.minecraft.util.registry.Registry;
+
+/**
+ * An immutable {@link Set} of registry entries that is stored as a bitset indexed by raw ID,
+ * so {@link #contains(Object)} is a constant-time operation that does not allocate.
+ * <p>
+ * {@link RegistryEntrySet}s can be used as TRLUtils-Config configuration properties,
+ * for example for block blacklists. In this case, the property must be initialized with
+ * {@link #of(Registry)} so that the registry is known, for example:
+ * <pre>
+ * public static RegistryEntrySet&lt;Block&gt; blacklist = RegistryEntrySet.of(Registry.BLOCK);
+ * </pre>
+ * The bitset is rebuilt automatically if the raw IDs of the registry are remapped.
+ *
+ * @param <T> the type of the registry entries.
+ */
+public final class RegistryEntrySet<T> extends AbstractSet<T> {
+	private static final Map<Registry<?>, Boolean> listeningRegistries =
+			new ConcurrentHashMap<>();
+
+	private static final AtomicInteger remapCount = new AtomicInteger();
+
+	private final Registry<T> registry;
+	private final List<T> entries;
+	private volatile Bits bits;
+
+	private RegistryEntrySet(Registry<T> registry, List<T> entries) {
+		this.registry = registry;
+		this.entries = entries;
+		bits = createBits();
+		listenForRemaps(registry);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean contains(Object object) {
+		if (object == null) {
+			return false;
+		}
+
+		Bits bits = this.bits;
+
+		if (bits.remapCount != remapCount.get()) {
+			bits = createBits();
+			this.bits = bits;
+		}
+
+		final int rawID = registry.getRawId((T) object);
+		return rawID >= 0 && (rawID >>> 6) < bits.words.length &&
+				(bits.words[rawID >>> 6] & (1L << rawID)) != 0L;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return entries.iterator();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Returns the {@link Registry} that contains the entries in this {@link RegistryEntrySet}.
+	 *
+	 * @return the {@link Registry} that contains the entries in this {@link RegistryEntrySet}.
+	 */
+	public Registry<T> getRegistry() {
+		return registry;
+	}
+
+	private Bits createBits() {
+		//The remap count is read before the raw IDs so that a concurrent remap causes a rebuild.
+		final int currentRemapCount = remapCount.get();
+		int maxRawID = -1;
+		final int[] rawIDs = new int[entries.size()];
+
+		for (int i = 0; i < rawIDs.length; i++) {
+			rawIDs[i] = registry.getRawId(entries.get(i));
+			maxRawID = Math.max(maxRawID, rawIDs[i]);
+		}
+
+		//maxRawID is -1 if the set is empty or none of its entries are registered.
+		final long[] words = new long[maxRawID < 0 ? 0 : (maxRawID >>> 6) + 1];
+
+		for (int rawID : rawIDs) {
+			if (rawID >= 0) {
+				words[rawID >>> 6] |= 1L << rawID;
+			}
+		}
+
+		return new Bits(currentRemapCount, words);
+	}
+
+	/**
+	 * Returns an empty {@link RegistryEntrySet} for the specified {@link Registry}.
+	 *
+	 * @param registry a {@link Registry}.
+	 * @param <T> the type of the registry entries.
+	 * @return an empty {@link RegistryEntrySet} for the specified {@link Registry}.
+	 */
+	public static <T> RegistryEntrySet<T> of(Registry<T> registry) {
+		return of(registry, Collections.emptyList());
+	}
+
+	/**
+	 * Returns a {@link RegistryEntrySet} for the specified {@link Registry} that contains the
+	 * specified entries. Duplicate and {@code null} entries are ignored.
+	 *
+	 * @param registry a {@link Registry}.
+	 * @param entries a {@link Collection} of registry entries.
+	 * @param <T> the type of the registry entries.
+	 * @return a {@link RegistryEntrySet} that contains the specified entries.
+	 */
+	public static <T> RegistryEntrySet<T> of(
+			Registry<T> registry, Collection<? extends T> entries
+	) {
+		Preconditions.checkNotNull(registry, "registry should not be null");
+		Preconditions.checkNotNull(entries, "entries should not be null");
+
+		final List<T> uniqueEntries = new ArrayList<>(entries.size());
+
+		for (T entry : new LinkedHashSet<>(entries)) {
+			if (entry != null) {
+				uniqueEntries.add(entry);
+			}
+		}
+
+		return new RegistryEntrySet<>(registry, Collections.unmodifiableList(uniqueEntries));
+	}
+
+	private static void listenForRemaps(Registry<?> registry) {
+		if (RegistryIndex.isListening() &&
+				listeningRegistries.putIfAbsent(registry, Boolean.TRUE) == null) {
+			RegistryIdRemapCallback.event(registry).register(
+					state -> remapCount.incrementAndGet()
+			);
+		}
+	}
+
+	private static final class Bits {
+		final int remapCount;
+		final long[] words;
+
+		Bits(int remapCount, long[] words) {
+			this.remapCount = remapCount;
+			this.words = words;
+		}
+	}
+}
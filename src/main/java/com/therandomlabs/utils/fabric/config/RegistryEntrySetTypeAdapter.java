@@ -0,0 +1,89 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.electronwill.nightconfig.core.file.CommentedFileConfig;
+import com.therandomlabs.utils.config.TypeAdapter;
+import net.minecraft.util.registry.Registry;
+
+//The registry is taken from the default value, as the element type of a RegistryEntrySet
+//property is erased.
+@SuppressWarnings("NullAway")
+final class RegistryEntrySetTypeAdapter implements TypeAdapter {
+	@SuppressWarnings("unchecked")
+	@Override
+	public Object getValue(CommentedFileConfig config, String name, Object defaultValue) {
+		final RegistryEntrySet<Object> defaultSet = (RegistryEntrySet<Object>) defaultValue;
+		final List<String> list = config.get(name);
+
+		if (list == null) {
+			return defaultSet;
+		}
+
+		final Registry<Object> registry = defaultSet.getRegistry();
+		final List<Object> values = new ArrayList<>(list.size());
+
+		for (String element : list) {
+			final Object object = IdentifierCache.resolve(registry, element);
+
+			if (object != null) {
+				values.add(object);
+			}
+		}
+
+		return RegistryEntrySet.of(registry, values);
+	}
+
+	@Override
+	public void setValue(CommentedFileConfig config, String name, Object value) {
+		config.set(name, toStrings((RegistryEntrySet<?>) value));
+	}
+
+	@Override
+	public String asString(Object value) {
+		return value == null ? "" : toStrings((RegistryEntrySet<?>) value).toString();
+	}
+
+	@Override
+	public boolean isArray() {
+		return false;
+	}
+
+	@Override
+	public boolean canBeNull() {
+		return false;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<String> toStrings(RegistryEntrySet<?> value) {
+		final RegistryEntrySet<Object> set = (RegistryEntrySet<Object>) value;
+		return set.stream().
+				map(entry -> set.getRegistry().getId(entry).toString()).
+				collect(Collectors.toList());
+	}
+}
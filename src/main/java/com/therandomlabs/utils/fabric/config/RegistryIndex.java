@@ -0,0 +1,187 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric.config;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.base.Preconditions;
+import com.therandomlabs.utils.fabric.StartupTimings;
+import net.fabricmc.fabric.api.event.registry.RegistryEntryAddedCallback;
+import net.minecraft.util.registry.MutableRegistry;
+import net.minecraft.util.registry.Registry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Maps registry entry classes, for example {@code Item}, to the {@link Registry} that contains
+ * them. This is used by TRLUtils-Fabric to determine which configuration properties are
+ * registry entries.
+ * <p>
+ * Registries are indexed by the topmost superclass of their entries below {@link Object} or
+ * {@link Enum}, for example {@code Item} rather than {@code BlockItem}. Subclasses are not
+ * looked up, as a property of type {@code BlockItem} cannot hold every {@code Item}.
+ * Some registries share a base class, for example {@code Feature}, which is the base class of
+ * the entries of both {@code Registry.FEATURE} and {@code Registry.STRUCTURE_FEATURE}.
+ * In this case, the class is mapped to the registry that is indexed first, which is usually the
+ * one that was registered first in {@link Registry#REGISTRIES}, for example
+ * {@code Registry.FEATURE}.
+ * <p>
+ * The index is built lazily the first time it is accessed. Registries that are empty at that
+ * point, as well as registries that are added later, are indexed as soon as their first entry
+ * is registered.
+ */
+public final class RegistryIndex {
+	private static final Logger logger = LogManager.getLogger("TRLUtils-Fabric");
+
+	private static final Map<Class<?>, Registry<?>> registries = new ConcurrentHashMap<>();
+	private static final Map<Registry<?>, Boolean> indexedRegistries = new ConcurrentHashMap<>();
+
+	private static volatile boolean initialized;
+	//Registry events are provided by Fabric API, which is unavailable in headless tests.
+	private static volatile boolean listening = true;
+
+	private RegistryIndex() {}
+
+	/**
+	 * Returns the {@link Registry} that contains entries of the specified class.
+	 *
+	 * @param entryClass a registry entry class, for example {@code Item}.
+	 * @return the {@link Registry} that contains entries of the specified class,
+	 * or {@code null} if there is none.
+	 */
+	@Nullable
+	public static Registry<?> get(Class<?> entryClass) {
+		Preconditions.checkNotNull(entryClass, "entryClass should not be null");
+		initialize();
+		return registries.get(entryClass);
+	}
+
+	/**
+	 * Returns an immutable snapshot of the registry entry classes that have been indexed and the
+	 * {@link Registry}s that contain them.
+	 *
+	 * @return a {@link Map} of registry entry classes to {@link Registry}s.
+	 */
+	public static Map<Class<?>, Registry<?>> getIndexedRegistries() {
+		initialize();
+		return Collections.unmodifiableMap(new HashMap<>(registries));
+	}
+
+	static void initialize() {
+		if (initialized) {
+			return;
+		}
+
+		synchronized (RegistryIndex.class) {
+			if (initialized) {
+				return;
+			}
+
+			final long startTime = System.nanoTime();
+
+			RegistryEntryAddedCallback.event(Registry.REGISTRIES).register(
+					(rawID, identifier, registry) -> index(registry)
+			);
+
+			for (MutableRegistry<?> registry : Registry.REGISTRIES) {
+				index(registry);
+			}
+
+			initialized = true;
+			StartupTimings.record("RegistryIndex.initialize", System.nanoTime() - startTime);
+		}
+	}
+
+	//This is used by tests that run without Fabric Loader. Only the specified registries are
+	//indexed, and they must not be empty as no registry events are listened for.
+	static void initializeHeadless(Iterable<? extends Registry<?>> registries) {
+		synchronized (RegistryIndex.class) {
+			Preconditions.checkState(!initialized, "RegistryIndex has already been initialized");
+			listening = false;
+
+			for (Registry<?> registry : registries) {
+				final Iterator<?> iterator = registry.iterator();
+				Preconditions.checkArgument(iterator.hasNext(), "registries should not be empty");
+				index(registry, iterator.next());
+			}
+
+			initialized = true;
+		}
+	}
+
+	static boolean isListening() {
+		return listening;
+	}
+
+	private static <T> void index(Registry<T> registry) {
+		if (indexedRegistries.putIfAbsent(registry, Boolean.FALSE) != null) {
+			return;
+		}
+
+		final Iterator<T> iterator = registry.iterator();
+
+		if (iterator.hasNext()) {
+			index(registry, iterator.next());
+			return;
+		}
+
+		//The entry class can only be determined once the registry contains an entry.
+		RegistryEntryAddedCallback.event(registry).register((rawID, identifier, entry) -> {
+			if (!indexedRegistries.get(registry)) {
+				index(registry, entry);
+			}
+		});
+	}
+
+	private static void index(Registry<?> registry, Object entry) {
+		Class<?> clazz = entry.getClass();
+
+		//We use the topmost superclass below Object (or Enum) so that we get the right base
+		//class, e.g. Item instead of AirBlockItem or BlockItem.
+		Class<?> superclass = clazz.getSuperclass();
+
+		while (superclass != null && superclass != Object.class && superclass != Enum.class) {
+			clazz = superclass;
+			superclass = clazz.getSuperclass();
+		}
+
+		final Registry<?> previous = registries.putIfAbsent(clazz, registry);
+
+		//The registry that was registered first is usually the one that is intended,
+		//for example FEATURE rather than STRUCTURE_FEATURE.
+		if (previous != null && previous != registry) {
+			logger.info(
+					"Multiple registries contain entries of {}, so the first one is used",
+					clazz.getName()
+			);
+		}
+
+		indexedRegistries.put(registry, Boolean.TRUE);
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric.config;
+
+import java.util.Arrays;
+
+import com.google.common.base.Preconditions;
+import com.therandomlabs.utils.fabric.internal.CommandFeedback;
+
+/**
+ * Keeps track of the latencies of the most recent reloads performed by a
+ * {@link ConfigReloadCommand}. All times are in nanoseconds.
+ */
+public final class ReloadStatistics {
+	private static final int WINDOW_SIZE = 256;
+
+	private final long[] latencies = new long[WINDOW_SIZE];
+	private int size;
+	private int index;
+	private long count;
+
+	ReloadStatistics() {}
+
+	/**
+	 * Returns the total number of reloads that have been recorded, including those that are
+	 * no longer in the rolling window.
+	 *
+	 * @return the total number of reloads that have been recorded.
+	 */
+	public synchronized long getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the specified percentile of the latencies of the most recent reloads using the
+	 * nearest-rank method.
+	 *
+	 * @param percentile a percentile between {@code 0.0} and {@code 100.0}.
+	 * @return the specified percentile in nanoseconds, or {@code 0} if no reloads have been
+	 * recorded.
+	 */
+	public long getPercentile(double percentile) {
+		Preconditions.checkArgument(
+				percentile >= 0.0 && percentile <= 100.0,
+				"percentile should be between 0.0 and 100.0"
+		);
+
+		final long[] sorted;
+
+		synchronized (this) {
+			if (size == 0) {
+				return 0L;
+			}
+
+			sorted = Arrays.copyOf(latencies, size);
+		}
+
+		Arrays.sort(sorted);
+		final int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+		return sorted[Math.max(rank - 1, 0)];
+	}
+
+	/**
+	 * Returns the median latency of the most recent reloads.
+	 *
+	 * @return the median latency in nanoseconds.
+	 */
+	public long getP50() {
+		return getPercentile(50.0);
+	}
+
+	/**
+	 * Returns the 99th percentile latency of the most recent reloads.
+	 *
+	 * @return the 99th percentile latency in nanoseconds.
+	 */
+	public long getP99() {
+		return getPercentile(99.0);
+	}
+
+	/**
+	 * Returns the maximum latency of the most recent reloads.
+	 *
+	 * @return the maximum latency in nanoseconds.
+	 */
+	public long getMax() {
+		return getPercentile(100.0);
+	}
+
+	/**
+	 * Returns a string representation of this {@link ReloadStatistics}.
+	 *
+	 * @return a string representation of this {@link ReloadStatistics}.
+	 */
+	@Override
+	public String toString() {
+		return "p50: " + CommandFeedback.toMillis(getP50()) + " ms, p99: " +
+				CommandFeedback.toMillis(getP99()) + " ms, max: " +
+				CommandFeedback.toMillis(getMax()) + " ms (" + getCount() + " reloads)";
+	}
+
+	synchronized void add(long latency) {
+		latencies[index] = latency;
+		index = (index + 1) % WINDOW_SIZE;
+		size = Math.min(size + 1, WINDOW_SIZE);
+		count++;
+	}
+}
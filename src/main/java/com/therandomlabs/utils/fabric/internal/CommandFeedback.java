@@ -0,0 +1,103 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric.internal;
+
+import java.util.Locale;
+
+import com.google.common.base.Preconditions;
+import io.github.cottonmc.clientcommands.CottonClientCommandSource;
+import net.minecraft.server.command.CommandSource;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.LiteralText;
+import net.minecraft.text.Text;
+
+/**
+ * Contains the helpers that TRLUtils-Fabric commands use to report their results to both
+ * server-sided and client-sided command sources.
+ * <p>
+ * This class is not part of the TRLUtils-Fabric API.
+ */
+public final class CommandFeedback {
+	private CommandFeedback() {}
+
+	/**
+	 * Sends the specified message to the specified command source.
+	 *
+	 * @param source a {@link ServerCommandSource} or a {@link CottonClientCommandSource}.
+	 * @param message a message.
+	 */
+	public static void send(CommandSource source, String message) {
+		send(source, new LiteralText(message), false);
+	}
+
+	/**
+	 * Sends the specified {@link Text} to the specified command source.
+	 *
+	 * @param source a {@link ServerCommandSource} or a {@link CottonClientCommandSource}.
+	 * @param text a {@link Text}.
+	 * @param broadcastToOps whether the {@link Text} should also be sent to operators if the
+	 * command source is a {@link ServerCommandSource}.
+	 */
+	public static void send(CommandSource source, Text text, boolean broadcastToOps) {
+		Preconditions.checkNotNull(source, "source should not be null");
+		Preconditions.checkNotNull(text, "text should not be null");
+
+		if (source instanceof ServerCommandSource) {
+			((ServerCommandSource) source).sendFeedback(text, broadcastToOps);
+		} else {
+			((CottonClientCommandSource) source).sendFeedback(text);
+		}
+	}
+
+	/**
+	 * Sends the specified error message to the specified command source.
+	 *
+	 * @param source a {@link ServerCommandSource} or a {@link CottonClientCommandSource}.
+	 * @param message an error message.
+	 */
+	public static void sendError(CommandSource source, String message) {
+		Preconditions.checkNotNull(source, "source should not be null");
+		Preconditions.checkNotNull(message, "message should not be null");
+
+		final Text text = new LiteralText(message);
+
+		if (source instanceof ServerCommandSource) {
+			((ServerCommandSource) source).sendError(text);
+		} else {
+			((CottonClientCommandSource) source).sendError(text);
+		}
+	}
+
+	/**
+	 * Returns the specified time in nanoseconds as a number of milliseconds with three
+	 * decimal places. {@link Locale#ROOT} is used so that the output does not depend on the
+	 * default locale.
+	 *
+	 * @param nanos a time in nanoseconds.
+	 * @return the specified time in milliseconds.
+	 */
+	public static String toMillis(long nanos) {
+		return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+	}
+}
@@ -0,0 +1,319 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric.config;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Stream;
+
+import com.electronwill.nightconfig.core.file.CommentedFileConfig;
+import com.sun.management.ThreadMXBean;
+import com.therandomlabs.utils.fabric.internal.CommandFeedback;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Generates TRLUtils-Config configuration files with very large identifier lists and runs
+ * repeated reload cycles against {@link HeadlessRegistries} without launching the game.
+ * The throughput, latency and allocation of {@link ConfigReloadCommand} reloads and
+ * {@link IdentifierTypeAdapter} array resolution are then logged.
+ * <p>
+ * Arguments: {@code [registry entries] [list size] [cycles]}. This can be run using
+ * {@code ./gradlew headlessSoak}.
+ */
+public final class ConfigLoadGenerator {
+	private static final Logger logger = LogManager.getLogger("TRLUtils-Fabric");
+
+	private static final ThreadMXBean threadBean =
+			(ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	//Roughly one in a hundred identifiers does not resolve, like entries from a removed mod,
+	//and one in ten contains whitespace.
+	private static final int MISS_INTERVAL = 100;
+	private static final int WHITESPACE_INTERVAL = 10;
+
+	private final int entryCount;
+	private final int listSize;
+	private final int cycles;
+	private final Path path;
+	private final Random random = new Random(0L);
+
+	//The thread that runs the reload cycles acts as the main thread.
+	private final BlockingQueue<Runnable> mainThreadTasks = new LinkedBlockingQueue<>();
+
+	private String blocks;
+	private String items;
+	private String itemSet;
+
+	private ConfigLoadGenerator(int entryCount, int listSize, int cycles, Path path) {
+		this.entryCount = entryCount;
+		this.listSize = listSize;
+		this.cycles = cycles;
+		this.path = path;
+	}
+
+	/**
+	 * Runs the load generator.
+	 *
+	 * @param args the number of entries in each stand-in registry, the number of identifiers
+	 * in each generated list and the number of reload cycles.
+	 * @throws IOException if an I/O error occurs.
+	 * @throws InterruptedException if the thread is interrupted while waiting for a reload.
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		final int entryCount = getArgument(args, 0, 20_000);
+		final int listSize = getArgument(args, 1, 50_000);
+		final int cycles = getArgument(args, 2, 200);
+		final Path directory = Files.createTempDirectory("trlutils-fabric-headless");
+
+		try {
+			HeadlessRegistries.initialize(directory, entryCount);
+			RegistryEntrySetCheck.run();
+			ConfigRegistrarCheck.run(directory);
+			new ConfigLoadGenerator(
+					entryCount, listSize, cycles, ConfigSchema.get(HeadlessConfig.class).getPath()
+			).run();
+		} finally {
+			delete(directory);
+		}
+	}
+
+	private void run() throws IOException, InterruptedException {
+		logger.info(
+				"Running {} reload cycles with {} registry entries and lists of {} identifiers",
+				cycles, entryCount, listSize
+		);
+
+		final ConfigReloadCommand command = new ConfigReloadCommand(
+				"headlessreload", "headlessreloadc", HeadlessConfig.class
+		).async();
+
+		//The first reload resolves every identifier and is not measured.
+		writeConfig(0, true);
+		checkFirstReload();
+		reload(command, 0);
+
+		final ReloadStatistics fullReloads = new ReloadStatistics();
+		final ReloadStatistics incrementalReloads = new ReloadStatistics();
+		long totalTime = 0L;
+		long allocatedBytes = 0L;
+
+		for (int cycle = 1; cycle <= cycles; cycle++) {
+			//Every other cycle only changes a single value so that incremental reloads
+			//are measured as well.
+			final boolean full = cycle % 2 == 1;
+			writeConfig(cycle, full);
+
+			final long startAllocatedBytes = getAllocatedBytes();
+			final long startTime = System.nanoTime();
+			reload(command, cycle);
+			final long time = System.nanoTime() - startTime;
+
+			allocatedBytes += getAllocatedBytes() - startAllocatedBytes;
+			totalTime += time;
+			(full ? fullReloads : incrementalReloads).add(time);
+		}
+
+		logger.info(
+				"Reloaded {} times in {} ms ({} reloads per second, {} KiB allocated per reload)",
+				cycles, CommandFeedback.toMillis(totalTime),
+				String.format("%.1f", cycles * 1_000_000_000.0 / totalTime),
+				allocatedBytes / cycles / 1024
+		);
+		logger.info("Full reload latency: {}", fullReloads);
+		logger.info("Incremental reload latency: {}", incrementalReloads);
+		logger.info("ConfigReloadCommand latency: {}", command.getStatistics());
+
+		runTypeAdapterCycles();
+		reloadUnreadableConfig(command);
+	}
+
+	//The first read of a configuration has no previous values to compare with, so only the
+	//properties whose values differ from the current values should be reported as changed.
+	//The cycle is written as 0, which is also its current value.
+	private void checkFirstReload() throws InterruptedException {
+		final List<List<String>> changedProperties = new ArrayList<>(1);
+
+		ConfigLoader.reload(
+				Collections.singletonList(HeadlessConfig.class), mainThreadTasks::add,
+				configs -> changedProperties.add(configs.get(0).getChangedProperties()),
+				throwable -> {
+					throw new IllegalStateException("Failed to reload configuration", throwable);
+				}
+		);
+		mainThreadTasks.take().run();
+
+		final List<String> properties = changedProperties.get(0);
+
+		if (properties == null || properties.contains("cycle") ||
+				!properties.contains("lists.blocks")) {
+			throw new IllegalStateException(
+					"Unexpected changed properties after the first reload: " + properties
+			);
+		}
+	}
+
+	//Reloads without a feedback source, such as those triggered by the watcher, should log
+	//errors rather than throw them out of the main thread task.
+	private void reloadUnreadableConfig(ConfigReloadCommand command)
+			throws IOException, InterruptedException {
+		Files.delete(path);
+		Files.createDirectory(path);
+
+		try {
+			command.reload(null, mainThreadTasks::add, false);
+			mainThreadTasks.take().run();
+		} finally {
+			Files.delete(path);
+		}
+
+		if (HeadlessConfig.cycle != cycles) {
+			throw new IllegalStateException("A configuration that failed to reload was applied");
+		}
+	}
+
+	private void runTypeAdapterCycles() {
+		final IdentifierTypeAdapter adapter =
+				new IdentifierTypeAdapter(HeadlessRegistries.Block.class, true);
+		final HeadlessRegistries.Block[] defaultValue = new HeadlessRegistries.Block[0];
+		final ReloadStatistics statistics = new ReloadStatistics();
+		final long threadID = Thread.currentThread().getId();
+		long totalTime = 0L;
+		long allocatedBytes = 0L;
+
+		try (CommentedFileConfig config = CommentedFileConfig.of(path)) {
+			config.load();
+
+			for (int cycle = 0; cycle < cycles; cycle++) {
+				final long startAllocatedBytes = threadBean.getThreadAllocatedBytes(threadID);
+				final long startTime = System.nanoTime();
+				adapter.getValue(config, "lists.blocks", defaultValue);
+				final long time = System.nanoTime() - startTime;
+
+				allocatedBytes += threadBean.getThreadAllocatedBytes(threadID) -
+						startAllocatedBytes;
+				totalTime += time;
+				statistics.add(time);
+			}
+		}
+
+		logger.info(
+				"IdentifierTypeAdapter resolved {} identifiers {} times " +
+						"({} identifiers per second, {} KiB allocated per resolution)",
+				listSize, cycles,
+				String.format("%.0f", (double) listSize * cycles * 1_000_000_000.0 / totalTime),
+				allocatedBytes / cycles / 1024
+		);
+		logger.info("IdentifierTypeAdapter latency: {}", statistics);
+	}
+
+	private void reload(ConfigReloadCommand command, int cycle) throws InterruptedException {
+		command.reload(null, mainThreadTasks::add, false);
+
+		//The reload is complete once the task that applies the configuration has run.
+		mainThreadTasks.take().run();
+
+		if (HeadlessConfig.cycle != cycle) {
+			throw new IllegalStateException(
+					"Cycle " + cycle + " was not reloaded asynchronously"
+			);
+		}
+	}
+
+	private void writeConfig(int cycle, boolean regenerateLists) throws IOException {
+		if (regenerateLists) {
+			blocks = generateList("block_", listSize);
+			items = generateList("item_", listSize);
+			itemSet = generateList("item_", listSize / 10);
+		}
+
+		final String contents = "cycle = " + cycle + "\n\n[lists]\nblocks = " + blocks +
+				"\nitems = " + items + "\nitemSet = " + itemSet + "\n";
+		Files.write(path, contents.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private String generateList(String prefix, int size) {
+		final StringBuilder builder = new StringBuilder(size * 24).append('[');
+
+		for (int i = 0; i < size; i++) {
+			if (i != 0) {
+				builder.append(", ");
+			}
+
+			builder.append('"');
+
+			if (random.nextInt(MISS_INTERVAL) == 0) {
+				builder.append(HeadlessRegistries.NAMESPACE).append(":missing_").append(i);
+			} else if (random.nextInt(WHITESPACE_INTERVAL) == 0) {
+				builder.append(' ').append(HeadlessRegistries.NAMESPACE).append(" : ").
+						append(prefix).append(random.nextInt(entryCount));
+			} else {
+				builder.append(HeadlessRegistries.NAMESPACE).append(':').append(prefix).
+						append(random.nextInt(entryCount));
+			}
+
+			builder.append('"');
+		}
+
+		return builder.append(']').toString();
+	}
+
+	private static long getAllocatedBytes() {
+		long allocatedBytes = 0L;
+
+		for (long bytes : threadBean.getThreadAllocatedBytes(threadBean.getAllThreadIds())) {
+			//Threads that have terminated are reported as -1.
+			if (bytes > 0L) {
+				allocatedBytes += bytes;
+			}
+		}
+
+		return allocatedBytes;
+	}
+
+	private static int getArgument(String[] args, int index, int defaultValue) {
+		return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+	}
+
+	private static void delete(Path directory) throws IOException {
+		try (Stream<Path> paths = Files.walk(directory)) {
+			final Path[] sortedPaths =
+					paths.sorted(Comparator.reverseOrder()).toArray(Path[]::new);
+
+			for (Path path : sortedPaths) {
+				Files.deleteIfExists(path);
+			}
+		}
+	}
+}
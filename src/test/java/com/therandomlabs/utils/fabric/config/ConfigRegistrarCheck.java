@@ -0,0 +1,175 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.therandomlabs.utils.config.Config;
+
+/**
+ * Checks that {@link ConfigRegistrar} reads configurations in parallel, applies them in order
+ * and reports every failure without preventing the other configurations from being registered.
+ * {@link HeadlessRegistries} must be initialized first.
+ */
+final class ConfigRegistrarCheck {
+	private static final String WORKER_PREFIX = "TRLUtils-Fabric Config Registrar";
+
+	private ConfigRegistrarCheck() {}
+
+	static void run(Path configDirectory) throws IOException {
+		//The configuration classes must not be loaded before they are registered, as their
+		//paths would otherwise be retrieved using ConfigSchema, which initializes them.
+		write(configDirectory, FirstConfig.ID, 1);
+		write(configDirectory, SecondConfig.ID, 2);
+		write(configDirectory, ThirdConfig.ID, 3);
+
+		try {
+			ConfigRegistrar.registerAll(Arrays.asList(
+					FirstConfig.class, Unannotated.class, SecondConfig.class,
+					AlsoUnannotated.class, ThirdConfig.class
+			));
+			throw new IllegalStateException("Registering an invalid configuration succeeded");
+		} catch (IllegalStateException ex) {
+			checkFailure(ex);
+		}
+
+		checkValues(1, 2, 3);
+
+		//The configurations that were registered are read from their cache files this time.
+		//They are applied in the specified order rather than the order in which they are read.
+		FirstConfig.value = 0;
+		SecondConfig.value = 0;
+		ThirdConfig.value = 0;
+
+		final List<Class<?>> configClasses =
+				Arrays.asList(ThirdConfig.class, FirstConfig.class, SecondConfig.class);
+		final ConfigLoadReport report = ConfigRegistrar.registerAll(configClasses);
+
+		if (!new ArrayList<>(report.getTimes().keySet()).equals(configClasses)) {
+			throw new IllegalStateException(
+					"Configurations were not applied in order: " + report.getTimes().keySet()
+			);
+		}
+
+		checkValues(1, 2, 3);
+	}
+
+	private static void checkFailure(IllegalStateException ex) {
+		final Throwable[] suppressed = ex.getSuppressed();
+
+		if (!ex.getMessage().endsWith(Unannotated.class.getName()) || suppressed.length != 1 ||
+				!suppressed[0].getMessage().endsWith(AlsoUnannotated.class.getName())) {
+			throw new IllegalStateException("Failures were not aggregated correctly", ex);
+		}
+	}
+
+	private static void checkValues(int first, int second, int third) {
+		if (FirstConfig.value != first || SecondConfig.value != second ||
+				ThirdConfig.value != third) {
+			throw new IllegalStateException(
+					"Unexpected values: " + FirstConfig.value + ", " + SecondConfig.value +
+							", " + ThirdConfig.value
+			);
+		}
+
+		for (String thread : Arrays.asList(
+				FirstConfig.initializingThread, SecondConfig.initializingThread,
+				ThirdConfig.initializingThread
+		)) {
+			if (!thread.startsWith(WORKER_PREFIX)) {
+				throw new IllegalStateException("A configuration was read on thread: " + thread);
+			}
+		}
+
+		for (Class<?> configClass : Arrays.asList(
+				FirstConfig.class, SecondConfig.class, ThirdConfig.class
+		)) {
+			if (ConfigSnapshot.get(configClass) == null) {
+				throw new IllegalStateException(
+						"No snapshot was captured for " + configClass.getName()
+				);
+			}
+		}
+	}
+
+	private static void write(Path configDirectory, String id, int value) throws IOException {
+		Files.write(
+				configDirectory.resolve(id + ".toml"),
+				("value = " + value + "\nitems = [\"" + HeadlessRegistries.getItemID(value) +
+						"\"]\n").getBytes(StandardCharsets.UTF_8)
+		);
+	}
+
+	//The default value of a RegistryEntrySet property is retrieved when the schema is created,
+	//which initializes the configuration class on the thread that reads it.
+	@Config(id = FirstConfig.ID, comment = "TRLUtils-Fabric registrar test configuration")
+	static final class FirstConfig {
+		static final String ID = "trlutils-fabric-registrar-first";
+		static final String initializingThread = Thread.currentThread().getName();
+
+		@Config.Property("A value.")
+		public static int value;
+
+		@Config.Property("A set of stand-in items.")
+		public static RegistryEntrySet<HeadlessRegistries.Item> items =
+				RegistryEntrySet.of(HeadlessRegistries.getItems());
+	}
+
+	@Config(id = SecondConfig.ID, comment = "TRLUtils-Fabric registrar test configuration")
+	static final class SecondConfig {
+		static final String ID = "trlutils-fabric-registrar-second";
+		static final String initializingThread = Thread.currentThread().getName();
+
+		@Config.Property("A value.")
+		public static int value;
+
+		@Config.Property("A set of stand-in items.")
+		public static RegistryEntrySet<HeadlessRegistries.Item> items =
+				RegistryEntrySet.of(HeadlessRegistries.getItems());
+	}
+
+	@Config(id = ThirdConfig.ID, comment = "TRLUtils-Fabric registrar test configuration")
+	static final class ThirdConfig {
+		static final String ID = "trlutils-fabric-registrar-third";
+		static final String initializingThread = Thread.currentThread().getName();
+
+		@Config.Property("A value.")
+		public static int value;
+
+		@Config.Property("A set of stand-in items.")
+		public static RegistryEntrySet<HeadlessRegistries.Item> items =
+				RegistryEntrySet.of(HeadlessRegistries.getItems());
+	}
+
+	//This is not annotated with @Config, so it cannot be read.
+	static final class Unannotated {}
+
+	static final class AlsoUnannotated {}
+}
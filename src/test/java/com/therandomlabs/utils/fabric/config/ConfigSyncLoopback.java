@@ -0,0 +1,286 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Stream;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.util.PacketByteBuf;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Exercises {@link ConfigSync} against a stand-in for an integrated server and a connected
+ * client without launching the game. The server side reloads {@link HeadlessConfig} from
+ * generated configuration files, and the packets it broadcasts are decoded and applied to the
+ * client state, which is then compared with the values on the server after every reload.
+ * The sizes of the packets are logged. Finally, the initial state is applied to the
+ * configuration class itself as it would be on a client, the local values are reloaded without
+ * replacing the applied state, and the reloaded local values are restored.
+ * <p>
+ * Arguments: {@code [registry entries] [list size] [cycles]}. This can be run using
+ * {@code ./gradlew headlessSync}.
+ */
+public final class ConfigSyncLoopback {
+	private static final Logger logger = LogManager.getLogger("TRLUtils-Fabric");
+
+	private final int entryCount;
+	private final int listSize;
+	private final int cycles;
+	private final Path path;
+	private final Random random = new Random(0L);
+
+	//The thread that runs the reload cycles acts as the server thread.
+	private final BlockingQueue<Runnable> serverTasks = new LinkedBlockingQueue<>();
+	//The packets that have been sent to the client but not received yet.
+	private final BlockingQueue<byte[]> packets = new LinkedBlockingQueue<>();
+
+	private Object[] clientState;
+	private String blocks;
+	private String items;
+	private String itemSet;
+
+	private ConfigSyncLoopback(int entryCount, int listSize, int cycles, Path path) {
+		this.entryCount = entryCount;
+		this.listSize = listSize;
+		this.cycles = cycles;
+		this.path = path;
+	}
+
+	/**
+	 * Runs the loopback test.
+	 *
+	 * @param args the number of entries in each stand-in registry, the number of identifiers
+	 * in each generated list and the number of reload cycles.
+	 * @throws IOException if an I/O error occurs.
+	 * @throws InterruptedException if the thread is interrupted while waiting for a reload.
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		final int entryCount = getArgument(args, 0, 5_000);
+		final int listSize = getArgument(args, 1, 1_000);
+		final int cycles = getArgument(args, 2, 100);
+		final Path directory = Files.createTempDirectory("trlutils-fabric-headless");
+
+		try {
+			HeadlessRegistries.initialize(directory, entryCount);
+			new ConfigSyncLoopback(
+					entryCount, listSize, cycles, ConfigSchema.get(HeadlessConfig.class).getPath()
+			).run();
+		} finally {
+			ConfigSync.setBroadcaster(null);
+			delete(directory);
+		}
+	}
+
+	private void run() throws IOException, InterruptedException {
+		logger.info(
+				"Running {} synchronization cycles with {} registry entries and lists of {} " +
+						"identifiers",
+				cycles, entryCount, listSize
+		);
+
+		final ConfigReloadCommand command = new ConfigReloadCommand(
+				"headlessreload", "headlessreloadc", HeadlessConfig.class
+		).async();
+
+		writeConfig(0, true);
+		reload(command);
+
+		//The client joins once the configuration has been loaded, and is sent the full state.
+		ConfigSync.register(HeadlessConfig.class);
+		ConfigSync.setBroadcaster(packets::add);
+
+		final byte[] state = ConfigSync.getState(HeadlessConfig.class);
+		clientState = new Object[ConfigSync.getProperties(HeadlessConfig.class).size()];
+		receive(state);
+		verify(0);
+
+		final Object[] initialState = clientState.clone();
+
+		long diffBytes = 0L;
+		long fileBytes = 0L;
+		int diffs = 0;
+		int properties = 0;
+
+		for (int cycle = 1; cycle <= cycles; cycle++) {
+			//Every other cycle only changes a single value.
+			writeConfig(cycle, cycle % 2 == 1);
+			fileBytes += Files.size(path);
+			reload(command);
+
+			byte[] packet;
+
+			while ((packet = packets.poll()) != null) {
+				diffBytes += packet.length;
+				diffs++;
+				properties += receive(packet);
+			}
+
+			verify(cycle);
+		}
+
+		logger.info(
+				"Sent a full state of {} bytes on join and {} diffs containing {} properties",
+				state.length, diffs, properties
+		);
+		logger.info(
+				"Sent {} bytes per reload on average, compared to {} bytes of configuration file",
+				diffBytes / cycles, fileBytes / cycles
+		);
+
+		applyAndRestore(command, state, initialState);
+	}
+
+	private void applyAndRestore(ConfigReloadCommand command, byte[] state, Object[] initialState)
+			throws IOException, InterruptedException {
+		//From now on, this acts as a client that is connected to a remote server.
+		ConfigSync.setBroadcaster(null);
+
+		//The second application must not replace the backup of the local values.
+		decode(state).apply();
+		decode(state).apply();
+		verify(0, initialState, "applying the initial state");
+
+		writeConfig(cycles + 1, true);
+		reload(command);
+		verify(0, initialState, "reloading the local values");
+
+		ConfigSync.restore(HeadlessConfig.class);
+
+		final List<ConfigSchema.Property> properties =
+				ConfigSync.getProperties(HeadlessConfig.class);
+		final Object[] localValues = new Object[properties.size()];
+
+		for (int i = 0; i < localValues.length; i++) {
+			localValues[i] = properties.get(i).getValue();
+		}
+
+		//Reloading the file again must not change the restored values.
+		reload(command);
+		verify(cycles + 1, localValues, "restoring the reloaded local values");
+
+		logger.info("Applied the initial state, reloaded the local values and restored them");
+	}
+
+	private void reload(ConfigReloadCommand command) throws InterruptedException {
+		command.reload(null, serverTasks::add, false);
+
+		//The reload is complete once the task that applies the configuration has run.
+		serverTasks.take().run();
+	}
+
+	//The client decodes packets on the network thread and applies them on the client thread.
+	private int receive(byte[] packet) {
+		final ConfigSync.Diff diff = decode(packet);
+		diff.applyTo(clientState);
+		return diff.size();
+	}
+
+	private void verify(int cycle) {
+		verify(cycle, clientState, "cycle " + cycle);
+	}
+
+	private void verify(int cycle, Object[] values, String stage) {
+		if (HeadlessConfig.cycle != cycle) {
+			throw new IllegalStateException("Expected cycle " + cycle + " after " + stage);
+		}
+
+		final List<ConfigSchema.Property> properties =
+				ConfigSync.getProperties(HeadlessConfig.class);
+
+		for (int i = 0; i < values.length; i++) {
+			final ConfigSchema.Property property = properties.get(i);
+
+			if (!Objects.deepEquals(values[i], property.getValue())) {
+				throw new IllegalStateException(
+						"Client value of " + property.getPath() + " differs from the server " +
+								"after " + stage
+				);
+			}
+		}
+	}
+
+	private static ConfigSync.Diff decode(byte[] packet) {
+		final ConfigSync.Diff diff =
+				ConfigSync.decode(new PacketByteBuf(Unpooled.wrappedBuffer(packet)));
+
+		if (diff == null) {
+			throw new IllegalStateException("Received a packet for an unknown configuration");
+		}
+
+		return diff;
+	}
+
+	private void writeConfig(int cycle, boolean regenerateLists) throws IOException {
+		if (regenerateLists) {
+			blocks = generateList("block_", listSize);
+			items = generateList("item_", listSize);
+			itemSet = generateList("item_", listSize / 10);
+		}
+
+		final String contents = "cycle = " + cycle + "\n\n[lists]\nblocks = " + blocks +
+				"\nitems = " + items + "\nitemSet = " + itemSet + "\n";
+		Files.write(path, contents.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private String generateList(String prefix, int size) {
+		final StringBuilder builder = new StringBuilder(size * 24).append('[');
+
+		for (int i = 0; i < size; i++) {
+			if (i != 0) {
+				builder.append(", ");
+			}
+
+			builder.append('"').append(HeadlessRegistries.NAMESPACE).append(':').append(prefix).
+					append(random.nextInt(entryCount)).append('"');
+		}
+
+		return builder.append(']').toString();
+	}
+
+	private static int getArgument(String[] args, int index, int defaultValue) {
+		return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+	}
+
+	private static void delete(Path directory) throws IOException {
+		try (Stream<Path> paths = Files.walk(directory)) {
+			final Path[] sortedPaths =
+					paths.sorted(Comparator.reverseOrder()).toArray(Path[]::new);
+
+			for (Path path : sortedPaths) {
+				Files.deleteIfExists(path);
+			}
+		}
+	}
+}
@@ -0,0 +1,49 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric.config;
+
+import com.therandomlabs.utils.config.Config;
+
+//HeadlessRegistries must be initialized before this class is loaded.
+@Config(id = "trlutils-fabric-headless", comment = "TRLUtils-Fabric headless test configuration")
+final class HeadlessConfig {
+	static final class Lists {
+		@Config.Property("Stand-in block identifiers.")
+		public static HeadlessRegistries.Block[] blocks = new HeadlessRegistries.Block[0];
+
+		@Config.Property("Stand-in item identifiers.")
+		public static HeadlessRegistries.Item[] items = new HeadlessRegistries.Item[0];
+
+		@Config.Blacklist("headless:item_0")
+		@Config.Property("A set of stand-in items.")
+		public static RegistryEntrySet<HeadlessRegistries.Item> itemSet =
+				RegistryEntrySet.of(HeadlessRegistries.getItems());
+	}
+
+	@Config.Property("The current reload cycle.")
+	public static int cycle;
+
+	@Config.Category("Identifier lists.")
+	public static final Lists lists = null;
+}
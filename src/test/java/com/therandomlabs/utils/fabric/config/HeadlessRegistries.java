@@ -0,0 +1,116 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric.config;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import com.google.common.base.Preconditions;
+import net.minecraft.Bootstrap;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.registry.SimpleRegistry;
+
+/**
+ * Fills in-memory stand-in registries with a configurable number of entries so that
+ * configuration loading can be exercised on a plain JVM without Fabric Loader or Fabric API.
+ * <p>
+ * Registry events are unavailable in this environment, so the registries must not be modified
+ * after {@link #initialize(Path, int)} is called.
+ */
+final class HeadlessRegistries {
+	static final String NAMESPACE = "headless";
+
+	private static SimpleRegistry<Block> blocks;
+	private static SimpleRegistry<Item> items;
+
+	private HeadlessRegistries() {}
+
+	/**
+	 * Creates the stand-in registries and makes TRLUtils-Fabric use them instead of the
+	 * vanilla registries. This may only be called once.
+	 *
+	 * @param configDirectory the directory that configuration files are read from.
+	 * @param entryCount the number of entries in each registry.
+	 */
+	static synchronized void initialize(Path configDirectory, int entryCount) {
+		Preconditions.checkNotNull(configDirectory, "configDirectory should not be null");
+		Preconditions.checkArgument(entryCount > 0, "entryCount should be positive");
+		Preconditions.checkState(blocks == null, "HeadlessRegistries is already initialized");
+
+		//The vanilla registries are still loaded, as the registry classes depend on them.
+		Bootstrap.initialize();
+
+		blocks = new SimpleRegistry<>();
+		items = new SimpleRegistry<>();
+
+		for (int i = 0; i < entryCount; i++) {
+			blocks.add(getBlockID(i), new Block(i));
+			items.add(getItemID(i), new Item(i));
+		}
+
+		RegistryIndex.initializeHeadless(Arrays.asList(blocks, items));
+		ConfigSchema.setConfigDirectory(configDirectory);
+		ConfigCache.setCacheDirectory(configDirectory.resolve("config-cache"));
+	}
+
+	static SimpleRegistry<Block> getBlocks() {
+		Preconditions.checkState(blocks != null, "HeadlessRegistries is not initialized");
+		return blocks;
+	}
+
+	static SimpleRegistry<Item> getItems() {
+		Preconditions.checkState(items != null, "HeadlessRegistries is not initialized");
+		return items;
+	}
+
+	static Identifier getBlockID(int index) {
+		return new Identifier(NAMESPACE, "block_" + index);
+	}
+
+	static Identifier getItemID(int index) {
+		return new Identifier(NAMESPACE, "item_" + index);
+	}
+
+	/**
+	 * A stand-in block.
+	 */
+	static final class Block {
+		final int index;
+
+		Block(int index) {
+			this.index = index;
+		}
+	}
+
+	/**
+	 * A stand-in item.
+	 */
+	static final class Item {
+		final int index;
+
+		Item(int index) {
+			this.index = index;
+		}
+	}
+}
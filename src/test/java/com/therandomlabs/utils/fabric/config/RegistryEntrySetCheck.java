@@ -0,0 +1,83 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018-2019 TheRandomLabs
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.therandomlabs.utils.fabric.config;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Checks that {@link RegistryEntrySet}s that do not contain any registered entries behave
+ * correctly and are cheap to create. {@link HeadlessRegistries} must be initialized first.
+ */
+final class RegistryEntrySetCheck {
+	//An empty set only needs a few small objects, so anything close to this indicates that the
+	//bitset was sized incorrectly.
+	private static final long MAX_ALLOCATED_BYTES = 64L * 1024L;
+
+	private static final ThreadMXBean threadBean =
+			(ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	private RegistryEntrySetCheck() {}
+
+	static void run() {
+		check("An empty set", Collections.emptyList());
+		//These entries are not registered, so they do not have raw IDs.
+		check(
+				"A set with no registered entries",
+				Arrays.asList(new HeadlessRegistries.Item(-1), new HeadlessRegistries.Item(-2))
+		);
+	}
+
+	private static void check(String description, List<HeadlessRegistries.Item> entries) {
+		final long threadID = Thread.currentThread().getId();
+		final long startAllocatedBytes = threadBean.getThreadAllocatedBytes(threadID);
+		final RegistryEntrySet<HeadlessRegistries.Item> set = RegistryEntrySet.of(
+				HeadlessRegistries.getItems(), entries
+		);
+		final long allocatedBytes =
+				threadBean.getThreadAllocatedBytes(threadID) - startAllocatedBytes;
+
+		if (allocatedBytes > MAX_ALLOCATED_BYTES) {
+			throw new IllegalStateException(
+					description + " allocated " + allocatedBytes + " bytes"
+			);
+		}
+
+		for (HeadlessRegistries.Item item : HeadlessRegistries.getItems()) {
+			if (set.contains(item)) {
+				throw new IllegalStateException(description + " contains a registered entry");
+			}
+		}
+
+		for (HeadlessRegistries.Item item : entries) {
+			if (set.contains(item)) {
+				throw new IllegalStateException(description + " contains an unregistered entry");
+			}
+		}
+	}
+}
@@ -24,7 +24,7 @@
 package com.therandomlabs.utils.fabric.test;
 
 import com.mojang.brigadier.CommandDispatcher;
-import com.therandomlabs.utils.config.ConfigManager;
+import com.therandomlabs.utils.fabric.StartupTimingsCommand;
 import com.therandomlabs.utils.fabric.config.ConfigReloadCommand;
 import com.therandomlabs.utils.fabric.config.FabricConfig;
 import io.github.cottonmc.clientcommands.ClientCommandPlugin;
@@ -37,17 +37,25 @@ public final class TRLUtilsFabricTest implements ModInitializer, ClientCommandPl
 
 	private static final ConfigReloadCommand configReloadCommand =
 			new ConfigReloadCommand("tuftreload", "tuftreloadclient", TUFTConfig.class).
-					serverSuccessMessage("TRLUtils-Fabric Test configuration reloaded!");
+					serverSuccessMessage("TRLUtils-Fabric Test configuration reloaded!").
+					async().
+					verbose();
+
+	private static final StartupTimingsCommand startupTimingsCommand =
+			new StartupTimingsCommand("tufttimings", "tufttimingsclient");
 
 	@Override
 	public void onInitialize() {
 		FabricConfig.initialize();
-		ConfigManager.register(TUFTConfig.class);
+		FabricConfig.register(TUFTConfig.class);
+		FabricConfig.watch(configReloadCommand);
 		CommandRegistry.INSTANCE.register(false, configReloadCommand::registerServer);
+		CommandRegistry.INSTANCE.register(false, startupTimingsCommand::registerServer);
 	}
 
 	@Override
 	public void registerCommands(CommandDispatcher<CottonClientCommandSource> commandDispatcher) {
 		configReloadCommand.registerClient(commandDispatcher);
+		startupTimingsCommand.registerClient(commandDispatcher);
 	}
 }